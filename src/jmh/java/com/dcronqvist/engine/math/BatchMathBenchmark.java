@@ -0,0 +1,93 @@
+package com.dcronqvist.engine.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link BatchMath} and the batch culling in {@link Frustum},
+ * with and without the Vector API. The simd = true runs only differ from the
+ * scalar ones when run with -jvmArgsAppend "--add-modules
+ * jdk.incubator.vector" on Java 17+.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchMathBenchmark {
+
+    static final int COUNT = 4096;
+
+    @Param({ "true", "false" })
+    boolean simd;
+
+    float[] x = new float[COUNT], y = new float[COUNT], z = new float[COUNT], radius = new float[COUNT];
+    float[] maxX = new float[COUNT], maxY = new float[COUNT], maxZ = new float[COUNT];
+    float[] dots = new float[COUNT];
+    long[] visible = new long[Frustum.words(COUNT)];
+    Matrix4f model = Matrix4f.identity();
+    Frustum frustum;
+    Vector3f direction = new Vector3f(0.0f, 1.0f, 0.0f);
+
+    @Setup
+    public void setup() {
+        BatchMath.simd = simd;
+        Random random = new Random(1);
+        for (int i = 0; i < COUNT; i++) {
+            x[i] = random.nextFloat() * 200.0f - 100.0f;
+            y[i] = random.nextFloat() * 200.0f - 100.0f;
+            z[i] = random.nextFloat() * 200.0f - 100.0f;
+            radius[i] = random.nextFloat() * 5.0f;
+            maxX[i] = x[i] + radius[i];
+            maxY[i] = y[i] + radius[i];
+            maxZ[i] = z[i] + radius[i];
+        }
+        // Transforming the same points over and over must not make them blow up
+        Quaternionf.fromAxisAngle(direction, 0.01f).toMatrix(model);
+        frustum = new Frustum().set(CamMath.perspective(70.0f, 16.0f / 9.0f, 0.1f, 100.0f),
+                CamMath.lookAt(new Vector3f(0, 0, 0), new Vector3f(0, 0, -1), new Vector3f(0, 1, 0)));
+    }
+
+    @Benchmark
+    public float[] transformPoints() {
+        BatchMath.transformPoints(model, x, y, z, COUNT);
+        return x;
+    }
+
+    @Benchmark
+    public float[] normalize() {
+        BatchMath.normalize(x, y, z, COUNT);
+        return x;
+    }
+
+    @Benchmark
+    public float[] dot() {
+        BatchMath.dot(x, y, z, direction, dots, COUNT);
+        return dots;
+    }
+
+    @Benchmark
+    public long[] cullSpheres() {
+        frustum.cullSpheres(x, y, z, radius, COUNT, visible);
+        return visible;
+    }
+
+    @Benchmark
+    public long[] cullAabbs() {
+        frustum.cullAabbs(x, y, z, maxX, maxY, maxZ, COUNT, visible);
+        return visible;
+    }
+}
@@ -0,0 +1,56 @@
+package com.dcronqvist.engine.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the camera matrices in {@link CamMath}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CamMathBenchmark {
+
+    Vector3f position = new Vector3f(4.0f, 3.0f, 10.0f);
+    Vector3f centre = new Vector3f(0.0f, 0.5f, 0.0f);
+    Vector3f up = new Vector3f(0.0f, 1.0f, 0.0f);
+    float fov = 70.0f;
+    Matrix4f dest = new Matrix4f();
+
+    @Benchmark
+    public Matrix4f lookAt() {
+        return CamMath.lookAt(position, centre, up);
+    }
+
+    @Benchmark
+    public Matrix4f lookAtDest() {
+        return CamMath.lookAt(position, centre, up, dest);
+    }
+
+    @Benchmark
+    public Matrix4f perspective() {
+        return CamMath.perspective(fov, 16.0f / 9.0f, 0.1f, 1000.0f);
+    }
+
+    @Benchmark
+    public Matrix4f perspectiveDest() {
+        return CamMath.perspective(fov, 16.0f / 9.0f, 0.1f, 1000.0f, dest);
+    }
+
+    @Benchmark
+    public Matrix4f ortho() {
+        return CamMath.ortho(0.0f, 1280.0f, 720.0f, 0.0f, -1.0f, 1.0f);
+    }
+}
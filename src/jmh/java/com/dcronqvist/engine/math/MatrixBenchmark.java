@@ -0,0 +1,108 @@
+package com.dcronqvist.engine.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link Matrix3f} and {@link Matrix4f} multiplication, inversion
+ * and determinants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+
+    Matrix4f left4 = new Matrix4f(2, 0, 1, 0, 1, 3, 0, 0, 0, 1, 4, 0, 5, -2, 1, 1);
+    Matrix4f right4 = left4.transpose();
+    Matrix4f dest4 = new Matrix4f();
+    Matrix3f left3 = new Matrix3f(2, 0, 1, 1, 3, 0, 0, 1, 4);
+    Matrix3f right3 = new Matrix3f(1, 2, 0, 0, 1, 3, 4, 0, 1);
+    Matrix3f dest3 = new Matrix3f();
+    Transform transform = new Transform(new Vector3f(1, 2, 3), Quaternionf.fromEuler(0.3f, 1.1f, -0.4f),
+            new Vector3f(2, 2, 2));
+    Matrix4f translation4 = Matrix4f.identity().translate(transform.translation);
+    Matrix4f rotation4 = transform.rotation.toMatrix(new Matrix4f());
+    Matrix4f scale4 = Matrix4f.identity().scale(transform.scale);
+
+    @Benchmark
+    public Matrix4f matrix4fMul() {
+        return left4.mul(right4);
+    }
+
+    @Benchmark
+    public Matrix4f matrix4fMulDest() {
+        return left4.mul(right4, dest4);
+    }
+
+    @Benchmark
+    public Matrix4f matrix4fMulFast() {
+        Matrix4f.mulFast(left4, right4, dest4);
+        return dest4;
+    }
+
+    @Benchmark
+    public Matrix4f matrix4fInverted() {
+        return left4.inverted();
+    }
+
+    @Benchmark
+    public Matrix4f matrix4fInvertedDest() {
+        return left4.inverted(dest4);
+    }
+
+    @Benchmark
+    public Matrix4f matrix4fInvertFast() {
+        Matrix4f.invertFast(left4, dest4);
+        return dest4;
+    }
+
+    @Benchmark
+    public float matrix4fDeterminant() {
+        return left4.determinant();
+    }
+
+    @Benchmark
+    public Matrix3f matrix3fMul() {
+        Matrix3f.mul(left3, right3, dest3);
+        return dest3;
+    }
+
+    @Benchmark
+    public Matrix3f matrix3fMulFast() {
+        Matrix3f.mulFast(left3, right3, dest3);
+        return dest3;
+    }
+
+    @Benchmark
+    public Matrix3f matrix3fInvert() {
+        Matrix3f.invert(left3, dest3);
+        return dest3;
+    }
+
+    @Benchmark
+    public float matrix3fDeterminant() {
+        return left3.determinant();
+    }
+
+    @Benchmark
+    public Matrix4f modelMatrixFromMatrices() {
+        return translation4.mul(rotation4, dest4).mulLocal(scale4);
+    }
+
+    @Benchmark
+    public Matrix4f modelMatrixFromTransform() {
+        return transform.toMatrix(dest4);
+    }
+}
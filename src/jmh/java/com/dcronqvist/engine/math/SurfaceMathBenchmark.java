@@ -0,0 +1,103 @@
+package com.dcronqvist.engine.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the per-triangle functions in {@link SurfaceMath}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SurfaceMathBenchmark {
+
+    Vector3f v1 = new Vector3f(0.0f, 0.0f, 0.0f);
+    Vector3f v2 = new Vector3f(1.0f, 0.0f, 0.0f);
+    Vector3f v3 = new Vector3f(0.0f, 1.0f, 0.5f);
+    Vector3f dest = new Vector3f();
+    Vector2f uv1 = new Vector2f(0.0f, 0.0f);
+    Vector2f uv2 = new Vector2f(1.0f, 0.0f);
+    Vector2f uv3 = new Vector2f(0.0f, 1.0f);
+
+    // A 256x256 grid mesh of interleaved XYZ UV vertices
+    static final int GRID = 256;
+    float[] gridVertices;
+    int[] gridIndices;
+    float[] gridNormals;
+    float[] gridTangents;
+
+    @Setup
+    public void setup() {
+        gridVertices = new float[GRID * GRID * 5];
+        for (int y = 0; y < GRID; y++) {
+            for (int x = 0; x < GRID; x++) {
+                int i = (y * GRID + x) * 5;
+                gridVertices[i] = x;
+                gridVertices[i + 1] = y;
+                gridVertices[i + 2] = (float) Math.sin(x * 0.1f) * (float) Math.cos(y * 0.1f);
+                gridVertices[i + 3] = x / (float) GRID;
+                gridVertices[i + 4] = y / (float) GRID;
+            }
+        }
+        gridIndices = new int[(GRID - 1) * (GRID - 1) * 6];
+        int n = 0;
+        for (int y = 0; y < GRID - 1; y++) {
+            for (int x = 0; x < GRID - 1; x++) {
+                int i = y * GRID + x;
+                gridIndices[n++] = i;
+                gridIndices[n++] = i + 1;
+                gridIndices[n++] = i + GRID;
+                gridIndices[n++] = i + 1;
+                gridIndices[n++] = i + GRID + 1;
+                gridIndices[n++] = i + GRID;
+            }
+        }
+        gridNormals = new float[GRID * GRID * 3];
+        gridTangents = new float[GRID * GRID * 3];
+    }
+
+    @Benchmark
+    public Vector3f normal() {
+        return SurfaceMath.normal(v1, v2, v3);
+    }
+
+    @Benchmark
+    public Vector3f normalDest() {
+        return SurfaceMath.normal(v1, v2, v3, dest);
+    }
+
+    @Benchmark
+    public Vector3f tangent() {
+        return SurfaceMath.tangent(v1, uv1, v2, uv2, v3, uv3);
+    }
+
+    @Benchmark
+    public Vector3f binormal() {
+        return SurfaceMath.binormal(v1, uv1, v2, uv2, v3, uv3);
+    }
+
+    @Benchmark
+    public float[] gridNormals() {
+        SurfaceMath.normals(gridVertices, 5, 0, gridIndices, gridNormals);
+        return gridNormals;
+    }
+
+    @Benchmark
+    public float[] gridTangents() {
+        SurfaceMath.tangents(gridVertices, 5, 0, 3, gridIndices, gridTangents, null);
+        return gridTangents;
+    }
+}
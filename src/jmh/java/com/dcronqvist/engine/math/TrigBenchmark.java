@@ -0,0 +1,101 @@
+package com.dcronqvist.engine.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the fast approximations in {@link TrigMath} against
+ * {@link java.lang.Math}. Every benchmark sums over the same 1024 angles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrigBenchmark {
+
+    float[] angles = new float[1024];
+    float[] xs = new float[1024];
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < angles.length; i++) {
+            angles[i] = (i - 512) * 0.01f;
+            xs[i] = (float) Math.cos(i);
+        }
+    }
+
+    @Benchmark
+    public float mathSin() {
+        float sum = 0.0f;
+        for (int i = 0; i < angles.length; i++) {
+            sum += (float) Math.sin(angles[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float sinFast() {
+        float sum = 0.0f;
+        for (int i = 0; i < angles.length; i++) {
+            sum += TrigMath.sinFast(angles[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float sinTable() {
+        float sum = 0.0f;
+        for (int i = 0; i < angles.length; i++) {
+            sum += TrigMath.sinTable(angles[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float mathTan() {
+        float sum = 0.0f;
+        for (int i = 0; i < angles.length; i++) {
+            sum += (float) Math.tan(angles[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float tanFast() {
+        float sum = 0.0f;
+        for (int i = 0; i < angles.length; i++) {
+            sum += TrigMath.tanFast(angles[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float mathAtan2() {
+        float sum = 0.0f;
+        for (int i = 0; i < angles.length; i++) {
+            sum += (float) Math.atan2(angles[i], xs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float atan2Fast() {
+        float sum = 0.0f;
+        for (int i = 0; i < angles.length; i++) {
+            sum += TrigMath.atan2Fast(angles[i], xs[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,80 @@
+package com.dcronqvist.engine.math;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link Vector2f} and {@link Vector3f}, comparing the allocating
+ * methods with their dest/local counterparts. Run with -prof gc to see the
+ * allocation rate of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+
+    Vector3f a = new Vector3f(1.0f, 2.0f, 3.0f);
+    Vector3f b = new Vector3f(-4.0f, 5.0f, 0.5f);
+    Vector3f dest = new Vector3f();
+    Vector2f a2 = new Vector2f(3.0f, 4.0f);
+    Vector2f b2 = new Vector2f(1.0f, -2.0f);
+    Vector2f dest2 = new Vector2f();
+    Matrix4f rotation = new Matrix4f(0, 1, 0, 0, -1, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1);
+
+    @Benchmark
+    public Vector3f vector3fAdd() {
+        return a.add(b);
+    }
+
+    @Benchmark
+    public Vector3f vector3fAddDest() {
+        return a.add(b, dest);
+    }
+
+    @Benchmark
+    public Vector3f vector3fCrossNormalize() {
+        return a.cross(b).normalize();
+    }
+
+    @Benchmark
+    public Vector3f vector3fCrossNormalizeDest() {
+        return a.cross(b, dest).normalizeLocal();
+    }
+
+    @Benchmark
+    public Vector3f vector3fMulMatrix() {
+        return a.mul(rotation);
+    }
+
+    @Benchmark
+    public Vector3f vector3fMulMatrixDest() {
+        return a.mul(rotation, dest);
+    }
+
+    @Benchmark
+    public float vector3fDot() {
+        return a.dot(b);
+    }
+
+    @Benchmark
+    public Vector2f vector2fSubNormalize() {
+        return a2.sub(b2).normalize();
+    }
+
+    @Benchmark
+    public Vector2f vector2fSubNormalizeDest() {
+        return a2.sub(b2, dest2).normalizeLocal();
+    }
+}
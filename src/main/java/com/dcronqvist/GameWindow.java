@@ -1,8 +1,10 @@
 package com.dcronqvist;
 
 import com.dcronqvist.engine.graphics.BaseWindow;
+import com.dcronqvist.engine.utils.ProfilerPanel;
 
 public class GameWindow extends BaseWindow {
+    ProfilerPanel profilerPanel = new ProfilerPanel();
 
     public GameWindow(int width, int height, String title) {
         super(width, height, title);
@@ -30,7 +32,9 @@ public class GameWindow extends BaseWindow {
 
     @Override
     protected void render() {
-
+        if (!isHeadless()) {
+            profilerPanel.render();
+        }
     }
 
     @Override
@@ -1,10 +1,28 @@
 package com.dcronqvist;
 
+import java.nio.file.Paths;
+
 import com.dcronqvist.engine.graphics.BaseWindow;
+import com.dcronqvist.engine.utils.Input;
+import com.dcronqvist.engine.utils.InputRecorder;
+import com.dcronqvist.engine.utils.InputReplay;
 
 public class Main {
     public static void main(String[] args) throws Exception {
         BaseWindow window = new GameWindow(1280, 720, "lwjgl3-imgui-maven-template by @dcronqvist");
+
+        // --record <file> saves the session's input, --replay <file> runs it again
+        // headlessly and prints how long the updates took
+        if (args.length >= 2 && args[0].equals("--replay")) {
+            try (InputReplay replay = new InputReplay(Paths.get(args[1]))) {
+                long nanos = window.replay(args, replay);
+                System.out.println(replay.getFrames() + " frames replayed in " + (nanos / 1_000_000.0) + " ms");
+            }
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--record")) {
+            Input.startRecording(new InputRecorder(Paths.get(args[1])));
+        }
         window.run(System.err, args);
     }
 }
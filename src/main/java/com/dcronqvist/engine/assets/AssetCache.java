@@ -0,0 +1,252 @@
+package com.dcronqvist.engine.assets;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+
+import com.dcronqvist.engine.graphics.Shader;
+import com.dcronqvist.engine.utils.FileIO;
+
+/**
+ * AssetCache
+ *
+ * Shares loaded assets between everyone asking for them, so two handles to the
+ * same shader compile it once. Assets are keyed by the kind of their loader,
+ * their location and a CRC32 of the file contents, which means an edited file
+ * is loaded again instead of returning the stale asset.
+ *
+ * Every {@link #acquire} holds a reference until the handle is released.
+ * Assets nobody references stay cached, and are evicted least recently used
+ * first once the cache holds more than {@link #budgetBytes}. The size of an
+ * asset is the size of its files.
+ *
+ * <pre>
+ * shader = AssetManager.get().getCache().acquireShader("classpath:basic.vert", "classpath:basic.frag");
+ * ...
+ * shader.release();
+ * </pre>
+ *
+ * Every acquire, hit or miss, reads every file of the asset in full to hash
+ * it. On a miss the loader decodes the asset from those same bytes, see
+ * {@link AssetLoader#load(String, byte[][])}, so the files are not read again.
+ */
+public class AssetCache {
+    /** The most bytes kept before unreferenced assets are evicted, 64 MB by default */
+    public long budgetBytes = 64L << 20;
+
+    final AssetManager manager;
+
+    // Guarded by this, in least recently used order
+    final LinkedHashMap<String, Entry<?>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    long bytes;
+    long hits;
+    long misses;
+    long evictions;
+
+    AssetCache(AssetManager manager) {
+        this.manager = manager;
+    }
+
+    /** A cached asset and its reference count */
+    static final class Entry<T> {
+        final String key;
+        final AssetLoader<?, T> loader;
+        final long size;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        int refs;
+
+        Entry(String key, AssetLoader<?, T> loader, long size) {
+            this.key = key;
+            this.loader = loader;
+            this.size = size;
+        }
+
+        /** Frees the asset on the GL thread, if it was loaded */
+        void dispose(AssetManager manager) {
+            T asset = future.isCompletedExceptionally() ? null : future.getNow(null);
+            if (asset != null) {
+                manager.uploads.add(() -> loader.dispose(asset));
+            }
+        }
+    }
+
+    /**
+     * Returns a handle to the asset at location, loading it with loader unless
+     * it is cached already. The handle must be released when no longer used.
+     *
+     * @param location A file path or classpath: location, or several separated
+     *                 by '|' for assets made of several files.
+     */
+    public <D, T> AssetHandle<T> acquire(String location, AssetLoader<D, T> loader) {
+        AssetHandle<T> handle = new AssetHandle<>(location, this);
+        manager.pending.incrementAndGet();
+        try {
+            manager.io.execute(() -> resolve(handle, loader));
+        } catch (RejectedExecutionException e) {
+            handle.fail(e);
+            manager.pending.decrementAndGet();
+        }
+        return handle;
+    }
+
+    /** Acquires UTF-8 text, see {@link AssetLoader#text()}. */
+    public AssetHandle<String> acquireText(String location) {
+        return acquire(location, AssetLoader.text());
+    }
+
+    /** Acquires a shader, see {@link AssetLoader#shader()}. */
+    public AssetHandle<Shader> acquireShader(String vertexLocation, String fragmentLocation) {
+        return acquire(vertexLocation + "|" + fragmentLocation, AssetLoader.shader());
+    }
+
+    /** Hashes the files, then joins the cached entry or loads a new one, on a background thread */
+    @SuppressWarnings("unchecked")
+    <D, T> void resolve(AssetHandle<T> handle, AssetLoader<D, T> loader) {
+        String key;
+        byte[][] contents;
+        long size = 0;
+        try {
+            CRC32 crc = new CRC32();
+            String[] parts = handle.location.split("\\|");
+            contents = new byte[parts.length][];
+            for (int i = 0; i < parts.length; i++) {
+                contents[i] = FileIO.readBytes(parts[i]);
+                crc.update(contents[i], 0, contents[i].length);
+                size += contents[i].length;
+            }
+            key = loader.getKind() + ":" + handle.location + "#" + Long.toHexString(crc.getValue());
+        } catch (Throwable e) {
+            handle.fail(e);
+            manager.pending.decrementAndGet();
+            return;
+        }
+
+        Entry<T> entry;
+        boolean miss;
+        synchronized (this) {
+            entry = (Entry<T>) entries.get(key);
+            miss = entry == null;
+            if (miss) {
+                entry = new Entry<>(key, loader, size);
+                entries.put(key, entry);
+                bytes += size;
+                misses++;
+                trim(budgetBytes);
+            } else {
+                hits++;
+            }
+            // A handle released before now never takes its reference
+            if (!handle.released) {
+                entry.refs++;
+                handle.entry = entry;
+            }
+        }
+
+        if (miss) {
+            Entry<T> loading = entry;
+            try {
+                D data = loader.load(handle.location, contents);
+                manager.uploads.add(() -> {
+                    try {
+                        loading.future.complete(loader.upload(data));
+                    } catch (Throwable e) {
+                        fail(loading, e);
+                    }
+                    trim(budgetBytes);
+                });
+            } catch (Throwable e) {
+                fail(loading, e);
+            }
+        }
+
+        entry.future.whenComplete((asset, error) -> {
+            if (error != null) {
+                handle.fail(error);
+            } else {
+                handle.complete(asset);
+            }
+            manager.pending.decrementAndGet();
+        });
+    }
+
+    /** Drops an entry that failed to load, so the next acquire tries again */
+    void fail(Entry<?> entry, Throwable error) {
+        synchronized (this) {
+            if (entries.get(entry.key) == entry) {
+                entries.remove(entry.key);
+                bytes -= entry.size;
+            }
+        }
+        entry.future.completeExceptionally(error);
+    }
+
+    /** Gives back the reference of the handle, see {@link AssetHandle#release()}. */
+    synchronized void release(AssetHandle<?> handle) {
+        if (handle.released) {
+            throw new IllegalStateException("Released " + handle + " twice");
+        }
+        handle.released = true;
+        Entry<?> entry = handle.entry;
+        if (entry != null && --entry.refs == 0) {
+            trim(budgetBytes);
+        }
+    }
+
+    /**
+     * Evicts unreferenced, loaded entries in least recently used order until
+     * the cache holds at most limit bytes or none are left to evict.
+     */
+    synchronized void trim(long limit) {
+        Iterator<Entry<?>> it = entries.values().iterator();
+        while (bytes > limit && it.hasNext()) {
+            Entry<?> entry = it.next();
+            if (entry.refs == 0 && entry.future.isDone()) {
+                it.remove();
+                bytes -= entry.size;
+                evictions++;
+                entry.dispose(manager);
+            }
+        }
+    }
+
+    /**
+     * Evicts every loaded asset nobody references, e.g. between levels. The GL
+     * resources are freed by the next upload pass.
+     */
+    public void evictUnused() {
+        trim(-1);
+    }
+
+    /** Returns how many acquires found their asset cached or already loading. */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Returns how many acquires had to load their asset. */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Returns how many assets were evicted. */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /** Returns the size of every cached asset, referenced or not. */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /** Returns the amount of cached assets, including those still loading. */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AssetCache { " + entries.size() + " assets, " + bytes + " bytes, " + hits + " hits, " + misses
+                + " misses, " + evictions + " evictions }";
+    }
+}
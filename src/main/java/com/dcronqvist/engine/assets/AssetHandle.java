@@ -0,0 +1,100 @@
+package com.dcronqvist.engine.assets;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AssetHandle
+ *
+ * An asset that is being loaded by an {@link AssetManager}. Render code can
+ * check {@link #isLoaded()} every frame and draw something else until it is.
+ * The future completes on the GL thread, right after the asset's upload.
+ *
+ * Never wait for the future on the GL thread, since the upload it waits for
+ * runs there too. Use {@link AssetManager#finishLoading()} instead.
+ *
+ * Handles acquired from an {@link AssetCache} hold a reference to the shared
+ * asset until {@link #release()} is called.
+ */
+public final class AssetHandle<T> {
+    final String location;
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final AssetCache cache;
+
+    // Guarded by the cache
+    AssetCache.Entry<?> entry;
+    boolean released;
+
+    AssetHandle(String location) {
+        this(location, null);
+    }
+
+    AssetHandle(String location, AssetCache cache) {
+        this.location = location;
+        this.cache = cache;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    /** Returns whether the asset is loaded, or failed to load. */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public boolean isLoaded() {
+        return future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    public boolean isFailed() {
+        return future.isCompletedExceptionally();
+    }
+
+    /** Returns the asset, or null until it is loaded. */
+    public T get() {
+        return isLoaded() ? future.join() : null;
+    }
+
+    /** Returns why the asset failed to load, or null if it did not. */
+    public Throwable getError() {
+        if (!isFailed()) {
+            return null;
+        }
+        try {
+            future.join();
+            return null;
+        } catch (Exception e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    /** Returns the future of the asset, to chain work onto it. */
+    public CompletableFuture<T> getFuture() {
+        return future;
+    }
+
+    /**
+     * Gives the reference back to the cache the handle was acquired from, which
+     * may then evict the asset. Does nothing for handles loaded without a cache.
+     *
+     * @throws IllegalStateException If the handle was already released.
+     */
+    public void release() {
+        if (cache != null) {
+            cache.release(this);
+        }
+    }
+
+    void complete(T asset) {
+        future.complete(asset);
+    }
+
+    void fail(Throwable e) {
+        future.completeExceptionally(e);
+    }
+
+    @Override
+    public String toString() {
+        return "AssetHandle { " + location + (isLoaded() ? ", loaded" : isFailed() ? ", failed" : "") + " }";
+    }
+}
@@ -0,0 +1,163 @@
+package com.dcronqvist.engine.assets;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import com.dcronqvist.engine.graphics.Shader;
+import com.dcronqvist.engine.utils.FileIO;
+
+/**
+ * AssetLoader
+ *
+ * Loads one kind of asset in two steps: {@link #load(String)} reads and decodes
+ * the file on a background thread, then {@link #upload(Object)} turns the
+ * decoded data into the asset on the GL thread, e.g. by creating a buffer,
+ * texture or shader from it. Anything that can be done without OpenGL belongs
+ * in load().
+ *
+ * @param <D> The decoded data handed from load() to upload().
+ * @param <T> The loaded asset.
+ */
+public interface AssetLoader<D, T> {
+
+    /** Reads and decodes the asset at location, called on a background thread. */
+    D load(String location) throws Exception;
+
+    /**
+     * Decodes the asset from the files an {@link AssetCache} has already read,
+     * called on a background thread. contents holds one array per file of the
+     * location, in the order they are separated by '|'. By default the files are
+     * read again with {@link #load(String)}, so loaders should override this.
+     */
+    default D load(String location, byte[][] contents) throws Exception {
+        return load(location);
+    }
+
+    /** Creates the asset from the decoded data, called on the GL thread. */
+    T upload(D data) throws Exception;
+
+    /**
+     * Frees what upload() created, called on the GL thread when an
+     * {@link AssetCache} evicts the asset. Does nothing by default.
+     */
+    default void dispose(T asset) {
+
+    }
+
+    /**
+     * Returns what kind of asset the loader makes. An {@link AssetCache} keeps
+     * kinds apart, so the same file can be cached as text and as bytes.
+     */
+    default String getKind() {
+        return getClass().getName();
+    }
+
+    /** Loads UTF-8 text, see {@link FileIO#readText(String)}. */
+    static AssetLoader<String, String> text() {
+        return new AssetLoader<String, String>() {
+            @Override
+            public String load(String location) throws Exception {
+                return FileIO.readText(location);
+            }
+
+            @Override
+            public String load(String location, byte[][] contents) {
+                return new String(contents[0], StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String upload(String text) {
+                return text;
+            }
+        };
+    }
+
+    /** Loads the raw bytes into a direct buffer, see {@link FileIO#load(String)}. */
+    static AssetLoader<ByteBuffer, ByteBuffer> bytes() {
+        return new AssetLoader<ByteBuffer, ByteBuffer>() {
+            @Override
+            public ByteBuffer load(String location) throws Exception {
+                return FileIO.load(location);
+            }
+
+            @Override
+            public ByteBuffer load(String location, byte[][] contents) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(contents[0].length).order(ByteOrder.nativeOrder());
+                buffer.put(contents[0]);
+                buffer.flip();
+                return buffer;
+            }
+
+            @Override
+            public ByteBuffer upload(ByteBuffer data) {
+                return data;
+            }
+        };
+    }
+
+    /**
+     * Loads a shader from a location of the form "vertex|fragment": both sources
+     * are read in the background, and the program is compiled and linked on the
+     * GL thread.
+     */
+    static AssetLoader<String[], Shader> shader() {
+        return new AssetLoader<String[], Shader>() {
+            @Override
+            public String[] load(String location) throws Exception {
+                String[] parts = location.split("\\|", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected vertex|fragment, got " + location);
+                }
+                return new String[] { FileIO.readText(parts[0]), FileIO.readText(parts[1]) };
+            }
+
+            @Override
+            public String[] load(String location, byte[][] contents) {
+                return new String[] { new String(contents[0], StandardCharsets.UTF_8),
+                        new String(contents[1], StandardCharsets.UTF_8) };
+            }
+
+            @Override
+            public Shader upload(String[] sources) throws Exception {
+                Shader shader = new Shader(sources[0], sources[1]);
+                shader.init();
+                return shader;
+            }
+
+            @Override
+            public void dispose(Shader shader) {
+                shader.dispose();
+            }
+        };
+    }
+
+    /**
+     * Returns a loader that needs no GL thread step. Through an
+     * {@link AssetCache} it reads the files again when the asset is not cached.
+     */
+    static <T> AssetLoader<T, T> of(Decoder<T> decoder) {
+        return new AssetLoader<T, T>() {
+            @Override
+            public T load(String location) throws Exception {
+                return decoder.load(location);
+            }
+
+            @Override
+            public T upload(T data) {
+                return data;
+            }
+
+            @Override
+            public String getKind() {
+                return decoder.getClass().getName();
+            }
+        };
+    }
+
+    /** The background step of a loader that needs no GL thread step */
+    @FunctionalInterface
+    interface Decoder<T> {
+        T load(String location) throws Exception;
+    }
+}
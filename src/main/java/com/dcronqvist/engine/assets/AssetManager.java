@@ -0,0 +1,221 @@
+package com.dcronqvist.engine.assets;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.dcronqvist.engine.graphics.Shader;
+import com.dcronqvist.engine.utils.FileIO;
+
+/**
+ * AssetManager
+ *
+ * Loads assets without stalling the window loop. {@link #load} returns a handle
+ * right away, reads and decodes the file on a background thread, and queues
+ * the GL part of the work for the GL thread. The queue of the shared manager
+ * is drained by BaseWindow every frame, for at most
+ * {@link #uploadBudgetNanos}, so loading many assets spreads their uploads
+ * over several frames instead of blowing the frame budget.
+ *
+ * <pre>
+ * protected void loadContent() {
+ *     shader = AssetManager.get().loadShader("classpath:basic.vert", "classpath:basic.frag");
+ * }
+ *
+ * protected void render() {
+ *     if (shader.isLoaded()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * Background work runs on virtual threads when the JDK has them (21 and
+ * newer), otherwise on a small pool of daemon threads.
+ */
+public class AssetManager implements AutoCloseable {
+    private static volatile AssetManager shared;
+
+    /** The longest time spent on uploads per call to processUploads(), 2 ms by default */
+    public long uploadBudgetNanos = 2_000_000L;
+
+    final ExecutorService io;
+    final ConcurrentLinkedQueue<Runnable> uploads = new ConcurrentLinkedQueue<>();
+    final AtomicInteger pending = new AtomicInteger();
+    final AssetCache cache = new AssetCache(this);
+
+    public AssetManager() {
+        this(createExecutor());
+    }
+
+    /**
+     * @param io The executor the background steps run on.
+     */
+    public AssetManager(ExecutorService io) {
+        this.io = io;
+    }
+
+    /** Returns the shared asset manager, creating it on first use. */
+    public static AssetManager get() {
+        AssetManager s = shared;
+        if (s == null) {
+            synchronized (AssetManager.class) {
+                s = shared;
+                if (s == null) {
+                    s = shared = new AssetManager();
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Runs the queued uploads of the shared manager, if it was ever used, within
+     * its budget. Called by BaseWindow on the GL thread every frame.
+     */
+    public static void processSharedUploads() {
+        AssetManager s = shared;
+        if (s != null) {
+            s.processUploads(s.uploadBudgetNanos);
+        }
+    }
+
+    /**
+     * Returns a virtual thread per task executor when the JDK has one, otherwise
+     * a pool of daemon threads.
+     */
+    static ExecutorService createExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread thread = new Thread(r, "asset-io-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(threads, factory);
+        }
+    }
+
+    /**
+     * Starts loading the asset at location with loader.
+     *
+     * @param location A file path or classpath: location, see {@link FileIO}.
+     */
+    public <D, T> AssetHandle<T> load(String location, AssetLoader<D, T> loader) {
+        AssetHandle<T> handle = new AssetHandle<>(location);
+        pending.incrementAndGet();
+        try {
+            io.execute(() -> {
+                D data;
+                try {
+                    data = loader.load(location);
+                } catch (Throwable e) {
+                    handle.fail(e);
+                    pending.decrementAndGet();
+                    return;
+                }
+                uploads.add(() -> {
+                    try {
+                        handle.complete(loader.upload(data));
+                    } catch (Throwable e) {
+                        handle.fail(e);
+                    } finally {
+                        pending.decrementAndGet();
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            handle.fail(e);
+            pending.decrementAndGet();
+        }
+        return handle;
+    }
+
+    /** Starts loading UTF-8 text, see {@link AssetLoader#text()}. */
+    public AssetHandle<String> loadText(String location) {
+        return load(location, AssetLoader.text());
+    }
+
+    /** Starts loading a shader, see {@link AssetLoader#shader()}. */
+    public AssetHandle<Shader> loadShader(String vertexLocation, String fragmentLocation) {
+        return load(vertexLocation + "|" + fragmentLocation, AssetLoader.shader());
+    }
+
+    /**
+     * Runs queued uploads until the queue is empty or budgetNanos have passed,
+     * on the calling thread, which must be the GL thread. At least one upload
+     * is run if any is queued, so a single slow upload cannot block the rest
+     * forever.
+     *
+     * @return The amount of uploads run.
+     */
+    public int processUploads(long budgetNanos) {
+        long start = System.nanoTime();
+        int count = 0;
+        Runnable upload;
+        while ((upload = uploads.poll()) != null) {
+            upload.run();
+            count++;
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /** Returns the cache that shares the assets acquired through it. */
+    public AssetCache getCache() {
+        return cache;
+    }
+
+    /** Returns the amount of assets being loaded or waiting for their upload. */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /** Returns the amount of uploads waiting for the GL thread. */
+    public int getQueuedUploads() {
+        return uploads.size();
+    }
+
+    /**
+     * Blocks until every asset started so far is loaded or failed, running the
+     * uploads meanwhile, e.g. for a loading screen that has nothing else to do.
+     * Must be called on the GL thread.
+     */
+    public void finishLoading() {
+        while (pending.get() > 0) {
+            if (processUploads(Long.MAX_VALUE) == 0) {
+                LockSupport.parkNanos(100_000L);
+            }
+        }
+    }
+
+    /**
+     * Stops the background threads, waiting up to a second for running loads.
+     * If interrupted meanwhile, stops waiting and keeps the interrupt flag set.
+     */
+    @Override
+    public void close() {
+        io.shutdown();
+        try {
+            io.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (AssetManager.class) {
+            if (shared == this) {
+                shared = null;
+            }
+        }
+    }
+}
@@ -1,36 +1,42 @@
 package com.dcronqvist.engine.graphics;
 
-import org.lwjgl.glfw.*;
-import org.lwjgl.opengl.*;
-import org.lwjgl.system.*;
-
-import imgui.ImFontAtlas;
-import imgui.ImGui;
-import imgui.ImGuiIO;
-import imgui.flag.ImGuiConfigFlags;
-import imgui.gl3.ImGuiImplGl3;
-import imgui.glfw.ImGuiImplGlfw;
-
+import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.*;
 
+import com.dcronqvist.engine.assets.AssetManager;
+import com.dcronqvist.engine.jobs.JobSystem;
 import com.dcronqvist.engine.utils.GameTime;
 import com.dcronqvist.engine.utils.Input;
-
-import static org.lwjgl.glfw.Callbacks.*;
-import static org.lwjgl.glfw.GLFW.*;
-import static org.lwjgl.system.MemoryStack.*;
-import static org.lwjgl.system.MemoryUtil.*;
+import com.dcronqvist.engine.utils.InputReplay;
+import com.dcronqvist.engine.utils.Profiler;
 
 public abstract class BaseWindow {
+    // Profiler scopes of the loop phases, see Profiler
+    static final int PROFILE_INPUT = Profiler.id("input");
+    static final int PROFILE_UPDATE = Profiler.id("update");
+    static final int PROFILE_WAIT_UPDATE = Profiler.id("waitUpdate");
+    static final int PROFILE_UPLOADS = Profiler.id("uploads");
+    static final int PROFILE_BEGIN_FRAME = Profiler.id("beginFrame");
+    static final int PROFILE_RENDER = Profiler.id("render");
+    static final int PROFILE_END_FRAME = Profiler.id("endFrame");
+    static final int PROFILE_SWAP = Profiler.id("swapBuffers");
+    static final int PROFILE_POLL = Profiler.id("pollEvents");
+
     public long windowHandle;
-    PrintStream errorStream;
+    Platform platform;
 
     public int width, height;
     String title;
 
-    ImGuiImplGlfw img;
-    ImGuiImplGl3 img3;
+    boolean fixedTimestep;
+    double fixedDelta = 1.0 / 60.0;
+    int maxUpdatesPerFrame = 5;
+    /** Frame time not yet consumed by fixed updates */
+    double accumulator;
+    double simulationTime;
+
+    SnapshotBuffer<?> snapshots;
+    boolean threadedUpdate;
 
     public BaseWindow(int width, int height, String title) {
         this.width = width;
@@ -46,110 +52,265 @@ public abstract class BaseWindow {
      * @throws Exception
      */
     public void run(PrintStream errorStream, String[] args) throws Exception {
-        initialize(args);
-
-        // Setup an error callback. The default implementation
-        // will print the error message in System.err.
-        GLFWErrorCallback.createPrint(System.err).set();
+        run(new GlfwPlatform(errorStream), args);
+    }
 
-        if (!glfwInit()) {
-            throw new Exception("Unable to initialize GLFW.");
-        }
+    /**
+     * Begins the common window loop on the supplied platform, e.g. a
+     * {@link HeadlessPlatform} to run without a display.
+     * 
+     * @throws Exception
+     */
+    public void run(Platform platform, String[] args) throws Exception {
+        this.platform = platform;
+        initialize(args);
 
-        // Set default window hints for GLFW.
-        glfwDefaultWindowHints();
-        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
-        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
-        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
-        glfwWindowHint(GLFW_OPENGL_FORWARD_COMPAT, 1);
-        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE); // the window will stay hidden after creation
+        platform.init(this);
+        windowHandle = platform.getWindowHandle();
 
-        windowHandle = glfwCreateWindow(this.width, this.height, this.title, NULL, NULL);
-        if (windowHandle == NULL)
-            throw new RuntimeException("Failed to create the GLFW window");
+        loadContent();
 
-        glfwSetKeyCallback(windowHandle, (window, key, scancode, action, mods) -> {
-            keyCallBack(window, key, scancode, action, mods);
-        });
+        if (threadedUpdate && snapshots == null) {
+            throw new IllegalStateException("A threaded update needs a SnapshotBuffer, see setSnapshotBuffer.");
+        }
+        UpdateThread updateThread = threadedUpdate ? new UpdateThread(this) : null;
+        double previousTime = 0.0;
+
+        try {
+            while (!platform.shouldClose()) {
+                Profiler.frame();
+                double currentTime = platform.getTime();
+                GameTime.beginFrame(currentTime, currentTime - previousTime);
+
+                Profiler.push(PROFILE_INPUT);
+                Input.begin();
+                Profiler.pop();
+
+                if (updateThread != null) {
+                    updateThread.begin();
+                    if (snapshots.getFrame() < 0) {
+                        // Nothing to draw yet, so the first frame waits for its updates
+                        finishUpdates(updateThread);
+                    }
+                } else {
+                    Profiler.push(PROFILE_UPDATE);
+                    updateFrame();
+                    Profiler.pop();
+                    if (snapshots != null) {
+                        snapshots.publish();
+                    }
+                }
+
+                // Finishes a time-budgeted share of the assets loaded in the background
+                Profiler.push(PROFILE_UPLOADS);
+                AssetManager.processSharedUploads();
+                Profiler.pop();
+
+                Profiler.push(PROFILE_BEGIN_FRAME);
+                platform.beginFrame();
+                Profiler.pop();
+
+                Profiler.push(PROFILE_RENDER);
+                render();
+                Profiler.pop();
+
+                Profiler.push(PROFILE_END_FRAME);
+                platform.endFrame();
+                Profiler.pop();
+
+                Profiler.push(PROFILE_SWAP);
+                platform.swapBuffers();
+                Profiler.pop();
+                if (updateThread != null) {
+                    finishUpdates(updateThread);
+                } else if (!fixedTimestep) {
+                    Input.end();
+                }
+
+                Profiler.push(PROFILE_POLL);
+                platform.pollEvents();
+                Profiler.pop();
+                previousTime = currentTime;
+            }
+        } finally {
+            if (updateThread != null) {
+                updateThread.stop();
+            }
+        }
+        // Completes the last frame in the profiler history
+        Profiler.frame();
 
-        // This centers the window on the screen.
-        // Get the thread stack and push a new frame
-        try (MemoryStack stack = stackPush()) {
-            IntBuffer pWidth = stack.mallocInt(1); // int*
-            IntBuffer pHeight = stack.mallocInt(1); // int*
+        Input.stopRecording();
+        unload();
 
-            // Get the window size passed to glfwCreateWindow
-            glfwGetWindowSize(windowHandle, pWidth, pHeight);
+        platform.dispose();
+    }
 
-            // Get the resolution of the primary monitor
-            GLFWVidMode vidmode = glfwGetVideoMode(glfwGetPrimaryMonitor());
+    /**
+     * Waits for the updates running on the update thread, if any, and hands
+     * their snapshot to render().
+     */
+    private void finishUpdates(UpdateThread updateThread) throws Exception {
+        if (!updateThread.isPending()) {
+            return;
+        }
+        Profiler.push(PROFILE_WAIT_UPDATE);
+        try {
+            updateThread.await();
+        } finally {
+            Profiler.pop();
+        }
+        if (!fixedTimestep) {
+            Input.end();
+        }
+        snapshots.publish();
+    }
 
-            // Center the window
-            glfwSetWindowPos(windowHandle, (vidmode.width() - pWidth.get(0)) / 2,
-                    (vidmode.height() - pHeight.get(0)) / 2);
-        } catch (Exception e) {
-            throw e;
-        } // the stack frame is popped automatically
+    /**
+     * Sets the snapshots handed from update() to render(), which are swapped
+     * after every frame's updates. Required for a threaded update.
+     */
+    public void setSnapshotBuffer(SnapshotBuffer<?> snapshots) {
+        this.snapshots = snapshots;
+    }
 
-        // Make the OpenGL context current
-        glfwMakeContextCurrent(windowHandle);
+    public SnapshotBuffer<?> getSnapshotBuffer() {
+        return snapshots;
+    }
 
-        // Make the window visible
-        glfwShowWindow(windowHandle);
-        GL.createCapabilities();
+    /**
+     * Makes update() run on a thread of its own, at the same time as render()
+     * draws the snapshot of the previous frame's updates, see
+     * {@link SnapshotBuffer}. The first frame waits for its own updates, after
+     * that render() is always exactly one frame behind update().
+     *
+     * While update() runs, GameTime and Input belong to the update thread.
+     * render() should only read the front snapshot, including its time and
+     * alpha, and not any state update() writes. Takes effect when run() is
+     * called, and needs a snapshot buffer by then.
+     */
+    public void setThreadedUpdate(boolean threadedUpdate) {
+        this.threadedUpdate = threadedUpdate;
+    }
 
-        ImGui.createContext();
+    public boolean isThreadedUpdate() {
+        return threadedUpdate;
+    }
 
-        // ImGui stuff
-        ImGuiIO io = ImGui.getIO();
-        io.addConfigFlags(ImGuiConfigFlags.NavEnableKeyboard);
-        io.addConfigFlags(ImGuiConfigFlags.DockingEnable);
-        io.setConfigViewportsNoTaskBarIcon(true);
+    /** Returns the platform the window loop is running on, null before run. */
+    public Platform getPlatform() {
+        return platform;
+    }
 
-        ImFontAtlas fontAtlas = io.getFonts();
-        fontAtlas.addFontDefault();
+    /**
+     * Returns whether the loop runs without a window and OpenGL context, in
+     * which case render() must not make any GL calls.
+     */
+    public boolean isHeadless() {
+        return platform instanceof HeadlessPlatform;
+    }
 
-        img = new ImGuiImplGlfw();
-        img3 = new ImGuiImplGl3();
-        img.init(this.windowHandle, true);
-        img3.init("#version 330 core");
+    /**
+     * Makes update() run at a fixed rate, independent of the frame rate. Every
+     * frame runs as many updates as the elapsed time allows, each with a
+     * GameTime.deltaTime of exactly 1 / ticksPerSecond, and render() can
+     * interpolate between the last two updates using GameTime.alpha.
+     *
+     * Input edges (isKeyPressed etc.) are seen by the first update of a frame, and
+     * carried over to the next frame if no update ran.
+     *
+     * @param ticksPerSecond     The amount of updates per simulated second.
+     * @param maxUpdatesPerFrame The most updates run in one frame. When a frame
+     *                           takes longer than this many ticks the rest of it is
+     *                           dropped, slowing the simulation down instead of
+     *                           falling further and further behind.
+     */
+    public void setFixedTimestep(int ticksPerSecond, int maxUpdatesPerFrame) {
+        this.fixedTimestep = true;
+        this.fixedDelta = 1.0 / ticksPerSecond;
+        this.maxUpdatesPerFrame = maxUpdatesPerFrame;
+        this.accumulator = 0.0;
+        this.simulationTime = GameTime.totalSeconds;
+    }
 
-        loadContent();
+    /** Goes back to running update() once per frame, the default. */
+    public void setVariableTimestep() {
+        this.fixedTimestep = false;
+    }
 
-        float previousTime = 0.0f;
-        Input.init(this.windowHandle);
+    public boolean isFixedTimestep() {
+        return fixedTimestep;
+    }
 
-        while (!glfwWindowShouldClose(this.windowHandle)) {
-            float currentTime = (float) glfwGetTime();
-            GameTime.totalTime = currentTime;
-            GameTime.deltaTime = (currentTime - previousTime);
-            Input.begin();
+    /**
+     * Runs the updates for a frame whose time is already in GameTime, after
+     * Input.begin(), and waits for the frame jobs they started, see
+     * {@link JobSystem#getFrameJobs()}.
+     */
+    void updateFrame() {
+        if (!fixedTimestep) {
+            GameTime.alpha = 1.0f;
+            GameTime.updates = 1;
             update();
+            JobSystem.awaitFrameJobs();
+            return;
+        }
 
-            img.newFrame();
-            ImGui.newFrame();
-
-            render();
-
-            ImGui.render();
-            img3.renderDrawData(ImGui.getDrawData());
-
-            glfwSwapBuffers(this.windowHandle);
+        accumulator += GameTime.deltaSeconds;
+        int updates = 0;
+        while (accumulator >= fixedDelta) {
+            if (updates == maxUpdatesPerFrame) {
+                // Too far behind, drop the whole ticks left to avoid a spiral of death
+                accumulator -= Math.floor(accumulator / fixedDelta) * fixedDelta;
+                break;
+            }
+            simulationTime += fixedDelta;
+            GameTime.set(simulationTime, fixedDelta);
+            update();
             Input.end();
-
-            glfwPollEvents();
-            previousTime = currentTime;
+            accumulator -= fixedDelta;
+            updates++;
         }
+        GameTime.alpha = (float) (accumulator / fixedDelta);
+        GameTime.updates = updates;
+        JobSystem.awaitFrameJobs();
+    }
 
-        unload();
+    /**
+     * Runs the update loop headlessly on a recorded session instead of opening a
+     * window. Every frame gets the time and input of the recording, so the same
+     * recording always produces the same sequence of updates. loadContent() and
+     * render() are not called, since there is no OpenGL context, and updates run
+     * on the calling thread even with a threaded update.
+     * 
+     * @param args   The arguments passed to initialize().
+     * @param replay The recording to play back.
+     * @return The time spent in the update loop, in nanoseconds.
+     */
+    public long replay(String[] args, InputReplay replay) throws IOException {
+        initialize(args);
 
-        // Free the window callbacks and destroy the window
-        glfwFreeCallbacks(windowHandle);
-        glfwDestroyWindow(windowHandle);
+        long start = System.nanoTime();
+        while (replay.nextFrame()) {
+            Profiler.frame();
+            Profiler.push(PROFILE_INPUT);
+            Input.begin();
+            Profiler.pop();
+            Profiler.push(PROFILE_UPDATE);
+            updateFrame();
+            Profiler.pop();
+            if (snapshots != null) {
+                snapshots.publish();
+            }
+            if (!fixedTimestep) {
+                Input.end();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Profiler.frame();
 
-        // Terminate GLFW and free the error callback
-        glfwTerminate();
-        glfwSetErrorCallback(null).free();
+        unload();
+        return elapsed;
     }
 
     /**
@@ -173,7 +334,9 @@ public abstract class BaseWindow {
 
     /**
      * Is run after initialize(), however here you have access to an OpenGL context,
-     * which allows for creating/binding GL buffers and binding data.
+     * which allows for creating/binding GL buffers and binding data. Assets
+     * started here with {@link AssetManager} load in the background instead, and
+     * do not delay the first frame.
      */
     protected abstract void loadContent();
 
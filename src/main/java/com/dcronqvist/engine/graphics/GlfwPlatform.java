@@ -0,0 +1,162 @@
+package com.dcronqvist.engine.graphics;
+
+import org.lwjgl.glfw.*;
+import org.lwjgl.opengl.*;
+import org.lwjgl.system.*;
+
+import imgui.ImFontAtlas;
+import imgui.ImGui;
+import imgui.ImGuiIO;
+import imgui.flag.ImGuiConfigFlags;
+import imgui.gl3.ImGuiImplGl3;
+import imgui.glfw.ImGuiImplGlfw;
+
+import java.io.PrintStream;
+import java.nio.*;
+
+import com.dcronqvist.engine.utils.Input;
+
+import static org.lwjgl.glfw.Callbacks.*;
+import static org.lwjgl.glfw.GLFW.*;
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * GlfwPlatform
+ *
+ * Opens a GLFW window with an OpenGL 3.3 core context and sets up ImGui on it.
+ */
+public class GlfwPlatform implements Platform {
+    PrintStream errorStream;
+    long windowHandle;
+
+    ImGuiImplGlfw img;
+    ImGuiImplGl3 img3;
+
+    /**
+     * @param errorStream A print stream which will be bound to the GLFW error
+     *                    stream.
+     */
+    public GlfwPlatform(PrintStream errorStream) {
+        this.errorStream = errorStream;
+    }
+
+    @Override
+    public void init(BaseWindow window) throws Exception {
+        // Setup an error callback, printing the error message in errorStream.
+        GLFWErrorCallback.createPrint(errorStream).set();
+
+        if (!glfwInit()) {
+            throw new Exception("Unable to initialize GLFW.");
+        }
+
+        // Set default window hints for GLFW.
+        glfwDefaultWindowHints();
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+        glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+        glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+        glfwWindowHint(GLFW_OPENGL_FORWARD_COMPAT, 1);
+        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE); // the window will stay hidden after creation
+
+        windowHandle = glfwCreateWindow(window.width, window.height, window.title, NULL, NULL);
+        if (windowHandle == NULL)
+            throw new RuntimeException("Failed to create the GLFW window");
+
+        glfwSetKeyCallback(windowHandle, (handle, key, scancode, action, mods) -> {
+            Input.onKey(key, scancode, action, mods);
+            window.keyCallBack(handle, key, scancode, action, mods);
+        });
+        // Installed before ImGui, which chains the callbacks it replaces
+        Input.init(windowHandle);
+
+        // This centers the window on the screen.
+        // Get the thread stack and push a new frame
+        try (MemoryStack stack = stackPush()) {
+            IntBuffer pWidth = stack.mallocInt(1); // int*
+            IntBuffer pHeight = stack.mallocInt(1); // int*
+
+            // Get the window size passed to glfwCreateWindow
+            glfwGetWindowSize(windowHandle, pWidth, pHeight);
+
+            // Get the resolution of the primary monitor
+            GLFWVidMode vidmode = glfwGetVideoMode(glfwGetPrimaryMonitor());
+
+            // Center the window
+            glfwSetWindowPos(windowHandle, (vidmode.width() - pWidth.get(0)) / 2,
+                    (vidmode.height() - pHeight.get(0)) / 2);
+        } catch (Exception e) {
+            throw e;
+        } // the stack frame is popped automatically
+
+        // Make the OpenGL context current
+        glfwMakeContextCurrent(windowHandle);
+
+        // Make the window visible
+        glfwShowWindow(windowHandle);
+        GL.createCapabilities();
+
+        ImGui.createContext();
+
+        // ImGui stuff
+        ImGuiIO io = ImGui.getIO();
+        io.addConfigFlags(ImGuiConfigFlags.NavEnableKeyboard);
+        io.addConfigFlags(ImGuiConfigFlags.DockingEnable);
+        io.setConfigViewportsNoTaskBarIcon(true);
+
+        ImFontAtlas fontAtlas = io.getFonts();
+        fontAtlas.addFontDefault();
+
+        img = new ImGuiImplGlfw();
+        img3 = new ImGuiImplGl3();
+        img.init(windowHandle, true);
+        img3.init("#version 330 core");
+    }
+
+    @Override
+    public long getWindowHandle() {
+        return windowHandle;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return glfwWindowShouldClose(windowHandle);
+    }
+
+    @Override
+    public double getTime() {
+        return glfwGetTime();
+    }
+
+    @Override
+    public void beginFrame() {
+        img.newFrame();
+        ImGui.newFrame();
+    }
+
+    @Override
+    public void endFrame() {
+        ImGui.render();
+        img3.renderDrawData(ImGui.getDrawData());
+    }
+
+    @Override
+    public void swapBuffers() {
+        glfwSwapBuffers(windowHandle);
+    }
+
+    @Override
+    public void pollEvents() {
+        glfwPollEvents();
+    }
+
+    @Override
+    public void dispose() {
+        // Free the window callbacks and destroy the window
+        glfwFreeCallbacks(windowHandle);
+        glfwDestroyWindow(windowHandle);
+
+        // Terminate GLFW and free the error callback
+        glfwTerminate();
+        glfwSetErrorCallback(null).free();
+    }
+}
@@ -0,0 +1,101 @@
+package com.dcronqvist.engine.graphics;
+
+import java.util.function.IntConsumer;
+
+/**
+ * HeadlessPlatform
+ *
+ * Runs the {@link BaseWindow} loop without GLFW, OpenGL or ImGui, e.g. for
+ * tests and benchmarks on machines without a display. Time is synthetic: frame
+ * n starts at exactly n * frameTime seconds, however long it took. Swapping and
+ * the ImGui frame are no-ops, so render() is called without an OpenGL context
+ * and should skip its GL calls when {@link BaseWindow#isHeadless()} is true.
+ *
+ * Input comes from an optional script, called with the frame index before each
+ * frame, which can feed Input.onKey(...) and friends like the GLFW callbacks
+ * would.
+ */
+public class HeadlessPlatform implements Platform {
+    final int frames;
+    final double frameTime;
+    IntConsumer script;
+    int frame;
+
+    /**
+     * @param frames    The amount of frames to run before closing.
+     * @param frameTime The synthetic duration of each frame in seconds.
+     */
+    public HeadlessPlatform(int frames, double frameTime) {
+        this.frames = frames;
+        this.frameTime = frameTime;
+    }
+
+    /**
+     * Sets the input script, which is called with the index of every frame right
+     * before that frame starts.
+     *
+     * @return this platform
+     */
+    public HeadlessPlatform setScript(IntConsumer script) {
+        this.script = script;
+        return this;
+    }
+
+    /** Returns the index of the current frame */
+    public int getFrame() {
+        return frame;
+    }
+
+    @Override
+    public void init(BaseWindow window) {
+        frame = 0;
+        runScript();
+    }
+
+    private void runScript() {
+        if (script != null && frame < frames) {
+            script.accept(frame);
+        }
+    }
+
+    @Override
+    public long getWindowHandle() {
+        return 0L;
+    }
+
+    @Override
+    public boolean shouldClose() {
+        return frame >= frames;
+    }
+
+    @Override
+    public double getTime() {
+        return frame * frameTime;
+    }
+
+    @Override
+    public void beginFrame() {
+
+    }
+
+    @Override
+    public void endFrame() {
+
+    }
+
+    @Override
+    public void swapBuffers() {
+
+    }
+
+    @Override
+    public void pollEvents() {
+        frame++;
+        runScript();
+    }
+
+    @Override
+    public void dispose() {
+
+    }
+}
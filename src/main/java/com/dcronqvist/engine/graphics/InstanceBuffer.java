@@ -0,0 +1,260 @@
+package com.dcronqvist.engine.graphics;
+
+import static org.lwjgl.opengl.GL33C.*;
+
+import java.nio.FloatBuffer;
+
+import com.dcronqvist.engine.math.Matrix3f;
+import com.dcronqvist.engine.math.Matrix4f;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * InstanceBuffer
+ *
+ * A ring of per-instance model and normal matrices for instanced rendering,
+ * with one region per frame in flight. A fence per region keeps the CPU from
+ * overwriting a region before the GPU is done drawing from it.
+ *
+ * <pre>
+ * instances.begin();
+ * instances.add(model);
+ * instances.upload();
+ * ... draw instances.getCount() instances from instances.getFrameOffset() ...
+ * instances.end();
+ * </pre>
+ */
+public class InstanceBuffer {
+    static final int MODEL_FLOATS = 16;
+    static final int NORMAL_FLOATS = 9;
+
+    /** How long upload() waits for the GPU at a time before checking again, in nanoseconds */
+    static final long FENCE_TIMEOUT = 1_000_000_000L;
+
+    int capacity;
+    int frames;
+    boolean normals;
+    int instanceFloats;
+
+    FloatBuffer data;
+    int frame;
+    int count;
+
+    int bufferID;
+    long[] fences;
+
+    /**
+     * Packs per-instance model matrices, and optionally normal matrices, for
+     * instanced rendering. The data is laid out as one region per frame in flight,
+     * by default three, so that the CPU can fill and upload the region for the next
+     * frame while the GPU still reads the previous ones.
+     *
+     * Everything up until {@link #init()} works without an OpenGL context, which is
+     * only needed for creating the buffer and uploading to it.
+     *
+     * @param capacity The maximum amount of instances in a single frame.
+     * @param normals  Whether a normal {@link Matrix3f} is stored after every model
+     *                 matrix.
+     */
+    public InstanceBuffer(int capacity, boolean normals) {
+        this(capacity, normals, 3);
+    }
+
+    /**
+     * @param capacity The maximum amount of instances in a single frame.
+     * @param normals  Whether a normal {@link Matrix3f} is stored after every model
+     *                 matrix.
+     * @param frames   The amount of frames in flight, i.e. regions in the ring.
+     */
+    public InstanceBuffer(int capacity, boolean normals, int frames) {
+        this.capacity = capacity;
+        this.frames = frames;
+        this.normals = normals;
+        this.instanceFloats = normals ? MODEL_FLOATS + NORMAL_FLOATS : MODEL_FLOATS;
+        this.data = BufferUtils.createFloatBuffer(capacity * frames * instanceFloats);
+        this.fences = new long[frames];
+        // The first call to begin() moves to region 0
+        this.frame = frames - 1;
+    }
+
+    /**
+     * Moves on to the next region in the ring and clears it. Call once per frame
+     * before adding instances.
+     */
+    public void begin() {
+        frame = (frame + 1) % frames;
+        count = 0;
+        // Undoes the position and limit set by the previous getFrameData()
+        data.clear();
+    }
+
+    /**
+     * Adds an instance with the supplied model matrix.
+     *
+     * @return The index of the instance within this frame.
+     */
+    public int add(Matrix4f model) {
+        int index = reserve(1);
+        model.store(data, offset(index));
+        return index;
+    }
+
+    /**
+     * Adds an instance with the supplied model and normal matrix. Only valid if
+     * this buffer was created with normal matrices.
+     *
+     * @return The index of the instance within this frame.
+     */
+    public int add(Matrix4f model, Matrix3f normal) {
+        int index = reserve(1);
+        int offset = offset(index);
+        model.store(data, offset);
+        normal.store(data, offset + MODEL_FLOATS);
+        return index;
+    }
+
+    /**
+     * Adds length instances taken from models, starting at offset, in one pass.
+     */
+    public void add(Matrix4f[] models, int offset, int length) {
+        int first = reserve(length);
+        int dest = offset(first);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            models[i].store(data, dest);
+            dest += instanceFloats;
+        }
+    }
+
+    /**
+     * Adds length instances taken from models and normals, starting at offset, in
+     * one pass. Only valid if this buffer was created with normal matrices.
+     */
+    public void add(Matrix4f[] models, Matrix3f[] normals, int offset, int length) {
+        int first = reserve(length);
+        int dest = offset(first);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            models[i].store(data, dest);
+            normals[i].store(data, dest + MODEL_FLOATS);
+            dest += instanceFloats;
+        }
+    }
+
+    private int reserve(int amount) {
+        if (count + amount > capacity) {
+            throw new IllegalStateException(
+                    "InstanceBuffer capacity of " + capacity + " exceeded by " + (count + amount - capacity) + ".");
+        }
+        int index = count;
+        count += amount;
+        return index;
+    }
+
+    private int offset(int index) {
+        return (frame * capacity + index) * instanceFloats;
+    }
+
+    /**
+     * Returns the backing buffer positioned at the start of the current frame's
+     * region and limited to its instances. Add no more instances until the next
+     * {@link #begin()}.
+     */
+    public FloatBuffer getFrameData() {
+        data.limit(offset(count));
+        data.position(offset(0));
+        return data;
+    }
+
+    /** Returns the amount of instances added this frame */
+    public int getCount() {
+        return count;
+    }
+
+    /** Returns the index of the current region in the ring */
+    public int getFrame() {
+        return frame;
+    }
+
+    /** Returns the size of a single instance in bytes, for glVertexAttribPointer */
+    public int getStride() {
+        return instanceFloats * Float.BYTES;
+    }
+
+    /** Returns the byte offset of the normal matrix within an instance */
+    public int getNormalOffset() {
+        return MODEL_FLOATS * Float.BYTES;
+    }
+
+    /**
+     * Returns the byte offset of the current frame's region in the GL buffer, to be
+     * added to the attribute pointers (or used as base instance) when drawing.
+     */
+    public long getFrameOffset() {
+        return (long) offset(0) * Float.BYTES;
+    }
+
+    /** Returns the GL buffer ID, 0 before {@link #init()} */
+    public int getBufferID() {
+        return bufferID;
+    }
+
+    /**
+     * Creates the GL buffer holding all regions. Requires an OpenGL context.
+     */
+    public void init() {
+        bufferID = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, bufferID);
+        glBufferData(GL_ARRAY_BUFFER, (long) data.capacity() * Float.BYTES, GL_STREAM_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Uploads the current frame's instances to their region of the GL buffer. If
+     * the GPU is still reading that region from frames ago, this waits for it to
+     * finish first, which only happens when the CPU is more than frames ahead.
+     *
+     * @throws IllegalStateException If waiting for the GPU failed, in which case
+     *                               nothing is uploaded.
+     */
+    public void upload() {
+        long fence = fences[frame];
+        if (fence != 0) {
+            int flags = GL_SYNC_FLUSH_COMMANDS_BIT;
+            int result;
+            while ((result = glClientWaitSync(fence, flags, FENCE_TIMEOUT)) == GL_TIMEOUT_EXPIRED) {
+                // Only the first wait has to flush the commands up to the fence
+                flags = 0;
+            }
+            glDeleteSync(fence);
+            fences[frame] = 0;
+            if (result == GL_WAIT_FAILED) {
+                throw new IllegalStateException("Waiting for the GPU to release region " + frame + " failed.");
+            }
+        }
+
+        glBindBuffer(GL_ARRAY_BUFFER, bufferID);
+        glBufferSubData(GL_ARRAY_BUFFER, getFrameOffset(), getFrameData());
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Marks the current frame's region as in use by the GPU. Call after the draw
+     * calls reading this frame's instances have been issued.
+     */
+    public void end() {
+        fences[frame] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    /** Deletes the GL buffer and any pending fences */
+    public void dispose() {
+        for (int i = 0; i < frames; i++) {
+            if (fences[i] != 0) {
+                glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+        if (bufferID != 0) {
+            glDeleteBuffers(bufferID);
+            bufferID = 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.dcronqvist.engine.graphics;
+
+/**
+ * Platform
+ *
+ * Everything the {@link BaseWindow} loop needs from the windowing system, the
+ * OpenGL context and ImGui. {@link GlfwPlatform} opens a real window,
+ * {@link HeadlessPlatform} runs the loop without a display or GPU.
+ */
+public interface Platform {
+
+    /**
+     * Creates the window, the OpenGL context and ImGui, and hooks the window's
+     * input up to Input and window.keyCallBack(...).
+     */
+    void init(BaseWindow window) throws Exception;
+
+    /** Returns the window handle, 0 if there is no window. */
+    long getWindowHandle();
+
+    /** Returns whether the loop should stop. */
+    boolean shouldClose();
+
+    /** Returns the time since init in seconds. */
+    double getTime();
+
+    /** Starts a new ImGui frame, called right before render(). */
+    void beginFrame();
+
+    /** Renders the ImGui frame, called right after render(). */
+    void endFrame();
+
+    /** Presents the frame. */
+    void swapBuffers();
+
+    /** Processes pending window and input events. */
+    void pollEvents();
+
+    /** Destroys the window and frees everything created by init. */
+    void dispose();
+}
@@ -9,7 +9,8 @@ public class Shader {
 
     /**
      * To use this Shader class, you simply supply the shader code to a new shader
-     * instance, for example using {@link Utils.getTextFromFile()}, and you simply
+     * instance, for example using
+     * {@link com.dcronqvist.engine.utils.FileIO#readText(String)}, and you simply
      * have to run init() on that shader instance to have it load up! In case an
      * error occurs during initialization, the init() method will throw and
      * exception with a readable error message.
@@ -39,6 +40,12 @@ public class Shader {
         }
     }
 
+    /** Deletes the program, after which the shader can no longer be used. */
+    public void dispose() {
+        glDeleteProgram(programID);
+        programID = 0;
+    }
+
     private int createShader(int shaderType, String code, StringBuffer error, String errorPrefix) {
         int shaderID = glCreateShader(shaderType);
 
@@ -0,0 +1,77 @@
+package com.dcronqvist.engine.graphics;
+
+import java.util.function.Supplier;
+
+import com.dcronqvist.engine.utils.GameTime;
+
+/**
+ * SnapshotBuffer
+ *
+ * Two instances of the state render() needs, handed from update() to render()
+ * once per frame. update() writes the {@link #back()} snapshot, render() reads
+ * the {@link #front()} snapshot, and BaseWindow swaps them once the frame's
+ * updates are done. With {@link BaseWindow#setThreadedUpdate(boolean)} the two
+ * run at the same time on different threads without sharing any state, and
+ * render() draws the snapshot of the previous frame's updates.
+ *
+ * A snapshot is reused every other frame, so update() should keep its own
+ * simulation state and write everything render() needs into back() on every
+ * update, rather than modifying what is already there.
+ */
+public final class SnapshotBuffer<T> {
+    private final T[] states;
+    // Written with the snapshot, since GameTime belongs to the update thread
+    private final double[] totalSeconds = new double[2];
+    private final float[] alpha = new float[2];
+    private final long[] frame = new long[2];
+    private int back;
+    private long published;
+
+    /**
+     * @param factory Creates the two snapshots.
+     */
+    @SuppressWarnings("unchecked")
+    public SnapshotBuffer(Supplier<T> factory) {
+        this.states = (T[]) new Object[] { factory.get(), factory.get() };
+        this.frame[1] = -1;
+    }
+
+    /** Returns the snapshot being written, only to be used from update(). */
+    public T back() {
+        return states[back];
+    }
+
+    /** Returns the snapshot to draw, only to be used from render(). */
+    public T front() {
+        return states[back ^ 1];
+    }
+
+    /** Returns GameTime.totalSeconds of the last update written to front(). */
+    public double getTotalSeconds() {
+        return totalSeconds[back ^ 1];
+    }
+
+    /**
+     * Returns GameTime.alpha after the updates written to front(), to interpolate
+     * with a fixed timestep.
+     */
+    public float getAlpha() {
+        return alpha[back ^ 1];
+    }
+
+    /**
+     * Returns the number of the frame whose updates wrote front(), starting at 0,
+     * or -1 before the first swap.
+     */
+    public long getFrame() {
+        return frame[back ^ 1];
+    }
+
+    /** Swaps the snapshots after a frame's updates, called by BaseWindow. */
+    void publish() {
+        totalSeconds[back] = GameTime.totalSeconds;
+        alpha[back] = GameTime.alpha;
+        frame[back] = published++;
+        back ^= 1;
+    }
+}
@@ -0,0 +1,97 @@
+package com.dcronqvist.engine.graphics;
+
+import java.util.concurrent.Semaphore;
+
+import com.dcronqvist.engine.utils.Profiler;
+
+/**
+ * UpdateThread
+ *
+ * Runs a window's updates on a thread of its own, one frame at a time. The
+ * render thread starts a frame's updates with {@link #begin()} and waits for
+ * them with {@link #await()}, so there is never more than one frame of updates
+ * in flight, and the two semaphores order every write of one thread before the
+ * other thread's next step.
+ */
+final class UpdateThread implements Runnable {
+    private final BaseWindow window;
+    private final Thread thread;
+    private final Semaphore start = new Semaphore(0);
+    private final Semaphore done = new Semaphore(0);
+    private volatile boolean running = true;
+    private Throwable error;
+    private boolean pending;
+
+    UpdateThread(BaseWindow window) {
+        this.window = window;
+        this.thread = new Thread(this, "update");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** Starts the updates of a frame, its time and input must already be set. */
+    void begin() {
+        pending = true;
+        start.release();
+    }
+
+    /** Returns whether updates were started and not yet awaited. */
+    boolean isPending() {
+        return pending;
+    }
+
+    /**
+     * Waits for the updates started by {@link #begin()}, rethrowing anything they
+     * threw. Returns right away if none are running.
+     */
+    void await() throws Exception {
+        if (!pending) {
+            return;
+        }
+        done.acquireUninterruptibly();
+        pending = false;
+
+        Throwable e = error;
+        error = null;
+        if (e instanceof Exception) {
+            throw (Exception) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        }
+    }
+
+    /** Waits for any running updates and ends the thread. */
+    void stop() throws InterruptedException {
+        if (pending) {
+            done.acquireUninterruptibly();
+            pending = false;
+        }
+        running = false;
+        start.release();
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            start.acquireUninterruptibly();
+            if (!running) {
+                // Completes the last frame in the profiler history
+                Profiler.frame();
+                return;
+            }
+            try {
+                Profiler.frame();
+                Profiler.push(BaseWindow.PROFILE_UPDATE);
+                try {
+                    window.updateFrame();
+                } finally {
+                    Profiler.pop();
+                }
+            } catch (Throwable e) {
+                error = e;
+            }
+            done.release();
+        }
+    }
+}
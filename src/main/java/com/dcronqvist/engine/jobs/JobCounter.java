@@ -0,0 +1,82 @@
+package com.dcronqvist.engine.jobs;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JobCounter
+ *
+ * Counts the unfinished jobs started with it. A job started with a counter may
+ * start child jobs with the same counter, which keeps it from reaching zero
+ * until the children are done too. {@link JobSystem#await(JobCounter)} waits
+ * for a counter to reach zero and rethrows the first exception any of its jobs
+ * threw.
+ *
+ * A counter can be reused once it has been awaited.
+ */
+public final class JobCounter {
+    private final AtomicInteger count = new AtomicInteger();
+    private volatile Throwable error;
+
+    public JobCounter() {
+
+    }
+
+    /** Returns the amount of jobs started with this counter and not yet done. */
+    public int get() {
+        return count.get();
+    }
+
+    /** Returns whether every job started with this counter is done. */
+    public boolean isDone() {
+        return count.get() == 0;
+    }
+
+    void increment() {
+        count.incrementAndGet();
+    }
+
+    void decrement() {
+        if (count.decrementAndGet() == 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    void fail(Throwable e) {
+        if (error == null) {
+            error = e;
+        }
+    }
+
+    /** Blocks until the count is zero, keeping the interrupt status */
+    void block() {
+        boolean interrupted = false;
+        synchronized (this) {
+            while (count.get() != 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Rethrows and clears the first error of a job, if any */
+    void rethrow() {
+        Throwable e = error;
+        if (e != null) {
+            error = null;
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            } else if (e instanceof Error) {
+                throw (Error) e;
+            }
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.dcronqvist.engine.jobs;
+
+/**
+ * JobListener
+ *
+ * Told about every job a {@link JobSystem} runs, e.g. to plot how busy each
+ * worker is. Called on the worker right after the job, so it should be quick.
+ */
+@FunctionalInterface
+public interface JobListener {
+    /**
+     * @param name   The name the job was started with, may be null.
+     * @param worker The index of the worker that ran it, or -1 for a thread
+     *               outside the pool.
+     * @param start  System.nanoTime() when the job started.
+     * @param end    System.nanoTime() when the job ended.
+     */
+    void jobDone(String name, int worker, long start, long end);
+}
@@ -0,0 +1,397 @@
+package com.dcronqvist.engine.jobs;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dcronqvist.engine.utils.Profiler;
+
+/**
+ * JobSystem
+ *
+ * A pool of worker threads for fanning out work from update() and
+ * joining it again. The workers are a ForkJoinPool, so every worker has its own
+ * deque of jobs and idle workers steal from the others. Jobs started from a
+ * worker go onto that worker's deque.
+ *
+ * <pre>
+ * JobSystem jobs = JobSystem.get();
+ * jobs.parallelFor("move", 0, count, 256, (from, to) -&gt; {
+ *     for (int i = from; i &lt; to; i++) {
+ *         ...
+ *     }
+ * });
+ * </pre>
+ *
+ * Jobs started with a {@link JobCounter} run in the background until awaited
+ * with {@link #await(JobCounter)}. Jobs started with the
+ * {@link #getFrameJobs()} counter of the shared system are awaited by
+ * BaseWindow after the frame's updates, before render().
+ *
+ * Every job is timed as a {@link Profiler} scope on the thread that ran it, and
+ * the time each worker spent running jobs is summed up, see
+ * {@link #getBusyNanos()}. A {@link JobListener} can be told about every job.
+ *
+ * The pool retires workers that have been idle for a while and starts new ones
+ * when needed. A retired worker drops its profiler history, and its index and
+ * name are reused by the next worker.
+ */
+public final class JobSystem {
+    private static volatile JobSystem shared;
+
+    static final int PROFILE_JOB = Profiler.id("job");
+    static final int PROFILE_PARALLEL_FOR = Profiler.id("parallelFor");
+    static final int PROFILE_WAIT_JOBS = Profiler.id("waitJobs");
+
+    final ForkJoinPool pool;
+    final int workers;
+    final JobCounter frameJobs = new JobCounter();
+    // The live workers, their indices and the busy time of retired ones, guarded by threads
+    final ArrayList<Worker> threads = new ArrayList<>();
+    final BitSet indices = new BitSet();
+    long retiredBusyNanos;
+    final AtomicLong externalBusyNanos = new AtomicLong();
+    final LongAdder jobs = new LongAdder();
+    volatile JobListener listener;
+
+    /**
+     * @param workers The amount of worker threads.
+     */
+    public JobSystem(int workers) {
+        this.workers = workers;
+        this.pool = new ForkJoinPool(workers, p -> new Worker(this, p), null, false);
+    }
+
+    /**
+     * Returns the shared job system, with a worker per core, creating it on
+     * first use.
+     */
+    public static JobSystem get() {
+        JobSystem s = shared;
+        if (s == null) {
+            synchronized (JobSystem.class) {
+                s = shared;
+                if (s == null) {
+                    s = shared = new JobSystem(Runtime.getRuntime().availableProcessors());
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Waits for the frame jobs of the shared job system, if it was ever used.
+     * Called by BaseWindow after every frame's updates.
+     */
+    public static void awaitFrameJobs() {
+        JobSystem s = shared;
+        if (s != null && !s.frameJobs.isDone()) {
+            Profiler.push(PROFILE_WAIT_JOBS);
+            try {
+                s.await(s.frameJobs);
+            } finally {
+                Profiler.pop();
+            }
+        }
+    }
+
+    /** Returns the counter of the jobs that have to finish before render(). */
+    public JobCounter getFrameJobs() {
+        return frameJobs;
+    }
+
+    /** Returns the pool of workers, e.g. for the parallel math overloads. */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getWorkerCount() {
+        return workers;
+    }
+
+    /** Returns the amount of jobs run so far, counting each range of a parallelFor. */
+    public long getJobCount() {
+        return jobs.sum();
+    }
+
+    /**
+     * Returns the total time every thread spent running jobs, in nanoseconds.
+     * The utilisation over an interval is the increase of this divided by the
+     * length of the interval times {@link #getWorkerCount()}.
+     */
+    public long getBusyNanos() {
+        long total = externalBusyNanos.get();
+        synchronized (threads) {
+            total += retiredBusyNanos;
+            for (Worker w : threads) {
+                total += w.busyNanos;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Stores the time each live worker spent running jobs in dest, indexed by
+     * worker, and returns one more than the highest index in use. Indices
+     * without a live worker are set to 0. The pool may start extra workers while
+     * others are blocked in {@link #await(JobCounter)}.
+     */
+    public int getBusyNanos(long[] dest) {
+        synchronized (threads) {
+            int count = indices.length();
+            for (int i = 0; i < Math.min(count, dest.length); i++) {
+                dest[i] = 0L;
+            }
+            for (Worker w : threads) {
+                if (w.index < dest.length) {
+                    dest[w.index] = w.busyNanos;
+                }
+            }
+            return count;
+        }
+    }
+
+    /** Sets the listener told about every job, or null for none. */
+    public void setListener(JobListener listener) {
+        this.listener = listener;
+    }
+
+    /** Starts job in the background, to be awaited through counter. */
+    public void run(Runnable job, JobCounter counter) {
+        run(null, job, counter);
+    }
+
+    /**
+     * Starts job in the background, to be awaited through counter.
+     *
+     * @param name The name of the job in the profiler, may be null.
+     */
+    public void run(String name, Runnable job, JobCounter counter) {
+        counter.increment();
+        start(new Job(this, name, name == null ? PROFILE_JOB : Profiler.id(name), job, counter));
+    }
+
+    /**
+     * Splits the indices from (inclusive) to to (exclusive) into ranges of at most
+     * grain indices, runs body on them in parallel and returns when all are done.
+     * The calling thread is blocked meanwhile, or runs ranges itself if it is a
+     * worker.
+     *
+     * @param grain The largest range passed to body, or 0 to split into a few
+     *              ranges per worker.
+     */
+    public void parallelFor(int from, int to, int grain, RangeJob body) {
+        parallelFor(null, from, to, grain, body);
+    }
+
+    /**
+     * Like {@link #parallelFor(int, int, int, RangeJob)}, with the name of the
+     * ranges in the profiler.
+     */
+    public void parallelFor(String name, int from, int to, int grain, RangeJob body) {
+        if (from >= to) {
+            return;
+        }
+        Job job = new Job(this, name, name == null ? PROFILE_PARALLEL_FOR : Profiler.id(name), body, from, to,
+                grain(from, to, grain), null);
+        if (isWorker()) {
+            job.invoke();
+        } else {
+            pool.invoke(job);
+        }
+    }
+
+    /**
+     * Starts a {@link #parallelFor(String, int, int, int, RangeJob)} in the
+     * background, to be awaited through counter.
+     */
+    public void parallelFor(String name, int from, int to, int grain, RangeJob body, JobCounter counter) {
+        if (from >= to) {
+            return;
+        }
+        counter.increment();
+        start(new Job(this, name, name == null ? PROFILE_PARALLEL_FOR : Profiler.id(name), body, from, to,
+                grain(from, to, grain), counter));
+    }
+
+    /**
+     * Waits for every job started with counter, including the ones they started,
+     * and rethrows the first exception any of them threw. A worker waiting here
+     * lets the pool start another worker in its place.
+     */
+    public void await(JobCounter counter) {
+        if (!counter.isDone() && isWorker()) {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() {
+                        counter.block();
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return counter.isDone();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        counter.block();
+        counter.rethrow();
+    }
+
+    /** Stops the workers once the jobs already started are done. */
+    public void shutdown() {
+        pool.shutdown();
+        synchronized (JobSystem.class) {
+            if (shared == this) {
+                shared = null;
+            }
+        }
+    }
+
+    private int grain(int from, int to, int grain) {
+        return grain > 0 ? grain : Math.max(1, (to - from) / (workers * 4));
+    }
+
+    private boolean isWorker() {
+        Thread t = Thread.currentThread();
+        return t instanceof Worker && ((Worker) t).system == this;
+    }
+
+    private void start(Job job) {
+        if (isWorker()) {
+            job.fork();
+        } else {
+            pool.execute(job);
+        }
+    }
+
+    void jobDone(String name, long start, long end) {
+        Thread t = Thread.currentThread();
+        int worker = -1;
+        if (t instanceof Worker && ((Worker) t).system == this) {
+            Worker w = (Worker) t;
+            // Only ever written by the worker itself
+            w.busyNanos += end - start;
+            worker = w.index;
+        } else {
+            externalBusyNanos.addAndGet(end - start);
+        }
+        jobs.increment();
+        JobListener l = listener;
+        if (l != null) {
+            l.jobDone(name, worker, start, end);
+        }
+    }
+
+    static final class Worker extends ForkJoinWorkerThread {
+        final JobSystem system;
+        final int index;
+        volatile long busyNanos;
+
+        Worker(JobSystem system, ForkJoinPool pool) {
+            super(pool);
+            this.system = system;
+            synchronized (system.threads) {
+                this.index = system.indices.nextClearBit(0);
+                system.indices.set(index);
+                system.threads.add(this);
+            }
+            setName("job-" + index);
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            synchronized (system.threads) {
+                system.threads.remove(this);
+                system.indices.clear(index);
+                system.retiredBusyNanos += busyNanos;
+            }
+            Profiler.release();
+            super.onTermination(exception);
+        }
+    }
+
+    /**
+     * A single job, or a range of a parallelFor which splits itself in halves
+     * until it is at most grain indices long. Only the first job of a parallelFor
+     * holds the counter.
+     */
+    static final class Job extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final JobSystem system;
+        final String name;
+        final int nameId;
+        final Runnable body;
+        final RangeJob range;
+        final int from, to, grain;
+        final JobCounter counter;
+
+        Job(JobSystem system, String name, int nameId, Runnable body, JobCounter counter) {
+            this(system, name, nameId, body, null, 0, 0, 0, counter);
+        }
+
+        Job(JobSystem system, String name, int nameId, RangeJob range, int from, int to, int grain,
+                JobCounter counter) {
+            this(system, name, nameId, null, range, from, to, grain, counter);
+        }
+
+        private Job(JobSystem system, String name, int nameId, Runnable body, RangeJob range, int from, int to,
+                int grain, JobCounter counter) {
+            this.system = system;
+            this.name = name;
+            this.nameId = nameId;
+            this.body = body;
+            this.range = range;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.counter = counter;
+        }
+
+        @Override
+        protected void compute() {
+            if (counter == null) {
+                runJob();
+                return;
+            }
+            try {
+                runJob();
+            } catch (Throwable e) {
+                counter.fail(e);
+            } finally {
+                counter.decrement();
+            }
+        }
+
+        private void runJob() {
+            if (range != null && to - from > grain) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Job(system, name, nameId, range, from, mid, grain, null),
+                        new Job(system, name, nameId, range, mid, to, grain, null));
+                return;
+            }
+
+            long start = System.nanoTime();
+            Profiler.push(nameId);
+            try {
+                if (range != null) {
+                    range.run(from, to);
+                } else {
+                    body.run();
+                }
+            } finally {
+                Profiler.pop();
+                system.jobDone(name, start, System.nanoTime());
+            }
+        }
+    }
+}
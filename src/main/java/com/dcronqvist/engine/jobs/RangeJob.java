@@ -0,0 +1,15 @@
+package com.dcronqvist.engine.jobs;
+
+/**
+ * RangeJob
+ *
+ * The body of a {@link JobSystem#parallelFor}, called with index ranges that
+ * together cover the whole loop, each on some worker thread.
+ */
+@FunctionalInterface
+public interface RangeJob {
+    /**
+     * Processes the indices from (inclusive) to to (exclusive).
+     */
+    void run(int from, int to);
+}
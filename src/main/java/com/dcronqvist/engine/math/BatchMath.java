@@ -0,0 +1,92 @@
+package com.dcronqvist.engine.math;
+
+/**
+ * BatchMath
+ *
+ * Bulk operations over vectors stored as separate x, y and z arrays. On Java 17+
+ * with the jdk.incubator.vector module added (--add-modules
+ * jdk.incubator.vector), the multi-release jar swaps in an implementation using
+ * the Vector API. Otherwise plain scalar loops are used. Both produce bit for
+ * bit identical results.
+ */
+public class BatchMath {
+
+    /** Whether the Vector API implementation could be loaded */
+    public static final boolean SIMD_SUPPORTED = detectSimd();
+
+    /**
+     * Whether to use the Vector API implementation when it is supported. Mostly
+     * useful to compare both implementations.
+     */
+    public static boolean simd = SIMD_SUPPORTED;
+
+    private static boolean detectSimd() {
+        try {
+            Class.forName("jdk.incubator.vector.FloatVector");
+            return SimdBatchMath.supported();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static boolean useSimd() {
+        return simd && SIMD_SUPPORTED;
+    }
+
+    /**
+     * Transforms count points (w = 1) by the supplied matrix in place.
+     */
+    public static void transformPoints(Matrix4f mat, float[] x, float[] y, float[] z, int count) {
+        if (useSimd()) {
+            SimdBatchMath.transformPoints(mat, x, y, z, count);
+        } else {
+            transformPointsScalar(mat, x, y, z, count);
+        }
+    }
+
+    static void transformPointsScalar(Matrix4f mat, float[] x, float[] y, float[] z, int count) {
+        for (int i = 0; i < count; i++) {
+            float px = x[i], py = y[i], pz = z[i];
+            x[i] = mat.m00 * px + mat.m10 * py + mat.m20 * pz + mat.m30;
+            y[i] = mat.m01 * px + mat.m11 * py + mat.m21 * pz + mat.m31;
+            z[i] = mat.m02 * px + mat.m12 * py + mat.m22 * pz + mat.m32;
+        }
+    }
+
+    /** Normalizes count vectors in place. */
+    public static void normalize(float[] x, float[] y, float[] z, int count) {
+        if (useSimd()) {
+            SimdBatchMath.normalize(x, y, z, count);
+        } else {
+            normalizeScalar(x, y, z, count);
+        }
+    }
+
+    static void normalizeScalar(float[] x, float[] y, float[] z, int count) {
+        for (int i = 0; i < count; i++) {
+            float px = x[i], py = y[i], pz = z[i];
+            float s = 1.0f / (float) Math.sqrt(px * px + py * py + pz * pz);
+            x[i] = px * s;
+            y[i] = py * s;
+            z[i] = pz * s;
+        }
+    }
+
+    /**
+     * Stores the dot product of each of count vectors with v in dest.
+     */
+    public static void dot(float[] x, float[] y, float[] z, Vector3f v, float[] dest, int count) {
+        if (useSimd()) {
+            SimdBatchMath.dot(x, y, z, v, dest, count);
+        } else {
+            dotScalar(x, y, z, v, dest, count);
+        }
+    }
+
+    static void dotScalar(float[] x, float[] y, float[] z, Vector3f v, float[] dest, int count) {
+        float vx = v.x, vy = v.y, vz = v.z;
+        for (int i = 0; i < count; i++) {
+            dest[i] = x[i] * vx + y[i] * vy + z[i] * vz;
+        }
+    }
+}
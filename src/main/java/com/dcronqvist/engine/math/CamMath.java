@@ -5,6 +5,19 @@ import static com.dcronqvist.engine.math.TrigMath.degreesToRadians;
 
 public class CamMath {
 
+    /**
+     * Calculates and returns a perspective projection matrix using the supplied
+     * parameters.
+     * 
+     * @param fovy   Field of view
+     * @param aspect Aspect ratio (display width / display height)
+     * @param zNear  near clipping plane distance
+     * @param zFar   far clipping plane distance
+     */
+    public static Matrix4f perspective(final float fovy, final float aspect, final float zNear, final float zFar) {
+        return perspective(fovy, aspect, zNear, zFar, new Matrix4f());
+    }
+
     /**
      * Calculates a perspective projection matrix using the supplied parameters and
      * stores the result in dest
@@ -14,51 +27,53 @@ public class CamMath {
      * @param zNear  near clipping plane distance
      * @param zFar   far clipping plane distance
      * @param dest   Matrix4f to store the result
+     * @return dest
      */
-    public static Matrix4f perspective(final float fovy, final float aspect, final float zNear, final float zFar) {
+    public static Matrix4f perspective(final float fovy, final float aspect, final float zNear, final float zFar,
+            Matrix4f dest) {
         float y_scale = coTangent(degreesToRadians(fovy / 2.0f));
         float x_scale = y_scale / aspect;
         float frustrum_length = zFar - zNear;
 
-        Matrix4f mat = new Matrix4f();
-
-        mat.m00 = x_scale;
-        mat.m11 = y_scale;
-        mat.m22 = -((zFar + zNear) / frustrum_length);
-        mat.m23 = -1.0f;
-        mat.m32 = -((2.0f * zNear * zFar) / frustrum_length);
-        return mat;
+        dest.set(x_scale, 0.0f, 0.0f, 0.0f,
+                0.0f, y_scale, 0.0f, 0.0f,
+                0.0f, 0.0f, -((zFar + zNear) / frustrum_length), -1.0f,
+                0.0f, 0.0f, -((2.0f * zNear * zFar) / frustrum_length), 0.0f);
+        return dest;
     }
 
     /**
-     * Calculates a view matrix
+     * Calculates and returns a view matrix
      * 
      * @param position The position of the camera
      * @param centre   The point in space to look at
      * @param up       The direction of "up". In most cases it is (x=0, y=1, z=0)
-     * @param dest     The matrix to store the results in
      */
     public static Matrix4f lookAt(Vector3f position, Vector3f centre, Vector3f up) {
-        Matrix4f mat = new Matrix4f(1.0f);
-
-        Vector3f f = centre.sub(position).normalize();
-        Vector3f s = up.cross(f).normalize();
-        Vector3f u = f.cross(s);
+        return lookAt(position, centre, up, new Matrix4f());
+    }
 
-        mat.m00 = s.x;
-        mat.m10 = s.y;
-        mat.m20 = s.z;
-        mat.m01 = u.x;
-        mat.m11 = u.y;
-        mat.m21 = u.z;
-        mat.m02 = -f.x;
-        mat.m12 = -f.y;
-        mat.m22 = -f.z;
-        mat.m30 = -s.dot(position);
-        mat.m31 = -u.dot(position);
-        mat.m32 = f.dot(position);
+    /**
+     * Calculates a view matrix and stores it in dest. Does not allocate.
+     * 
+     * @param position The position of the camera
+     * @param centre   The point in space to look at
+     * @param up       The direction of "up". In most cases it is (x=0, y=1, z=0)
+     * @param dest     The matrix to store the results in
+     * @return dest
+     */
+    public static Matrix4f lookAt(Vector3f position, Vector3f centre, Vector3f up, Matrix4f dest) {
+        try (MathStack stack = MathStack.stackPush()) {
+            Vector3f f = centre.sub(position, stack.vec3()).normalizeLocal();
+            Vector3f s = up.cross(f, stack.vec3()).normalizeLocal();
+            Vector3f u = f.cross(s, stack.vec3());
 
-        return mat;
+            dest.set(s.x, u.x, -f.x, 0.0f,
+                    s.y, u.y, -f.y, 0.0f,
+                    s.z, u.z, -f.z, 0.0f,
+                    -s.dot(position), -u.dot(position), f.dot(position), 1.0f);
+            return dest;
+        }
     }
 
     /**
@@ -74,8 +89,25 @@ public class CamMath {
      * @return The projection matrix.
      */
     public static Matrix4f ortho(float left, float right, float bottom, float top, float zNear, float zFar) {
-        Matrix4f dest = new Matrix4f();
+        return ortho(left, right, bottom, top, zNear, zFar, new Matrix4f());
+    }
 
+    /**
+     * Calculates an orthographic projection matrix using the supplied parameters
+     * and stores it in dest, overwriting every element of it.
+     * 
+     * @param left   The left-most coordinate.
+     * @param right  The right-most coordinate.
+     * @param bottom The bottom coordinate.
+     * @param top    The top coordinate.
+     * @param zNear  The near plane
+     * @param zFar   The far plane
+     * @param dest   The matrix to store the result in
+     * @return dest
+     */
+    public static Matrix4f ortho(float left, float right, float bottom, float top, float zNear, float zFar,
+            Matrix4f dest) {
+        dest.setIdentity();
         dest.m00 = 2.0f / (right - left);
         dest.m11 = 2.0f / (top - bottom);
         dest.m22 = (-2.0f) / (zFar - zNear);
@@ -0,0 +1,269 @@
+package com.dcronqvist.engine.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Frustum
+ *
+ * The six planes of a view frustum, extracted from a view-projection matrix such
+ * as CamMath.perspective(...) * CamMath.lookAt(...). Planes point inwards, so a
+ * point is inside when its signed distance to every plane is positive.
+ *
+ * The batch methods take bounds as separate arrays per component and write one
+ * visibility bit per object into a long[] mask, bit i % 64 of word i / 64. A
+ * mask needs (count + 63) / 64 words.
+ */
+public class Frustum {
+
+    /**
+     * The parallel overloads split a batch until each task covers at most this
+     * many mask words, i.e. 64 objects per word.
+     */
+    public static int parallelThreshold = 64;
+
+    // Plane i is a[i] * x + b[i] * y + c[i] * z + d[i], in the order left, right,
+    // bottom, top, near, far.
+    final float[] a = new float[6];
+    final float[] b = new float[6];
+    final float[] c = new float[6];
+    final float[] d = new float[6];
+
+    private final Matrix4f viewProjection = new Matrix4f();
+
+    public Frustum() {
+
+    }
+
+    public Frustum(Matrix4f viewProjection) {
+        set(viewProjection);
+    }
+
+    /**
+     * Extracts the frustum planes of the supplied projection and view matrices.
+     *
+     * @return this frustum
+     */
+    public Frustum set(Matrix4f projection, Matrix4f view) {
+        Matrix4f.mulFast(projection, view, viewProjection);
+        return set(viewProjection);
+    }
+
+    /**
+     * Extracts the frustum planes of the supplied view-projection matrix.
+     *
+     * @return this frustum
+     */
+    public Frustum set(Matrix4f m) {
+        setPlane(0, m.m03 + m.m00, m.m13 + m.m10, m.m23 + m.m20, m.m33 + m.m30);
+        setPlane(1, m.m03 - m.m00, m.m13 - m.m10, m.m23 - m.m20, m.m33 - m.m30);
+        setPlane(2, m.m03 + m.m01, m.m13 + m.m11, m.m23 + m.m21, m.m33 + m.m31);
+        setPlane(3, m.m03 - m.m01, m.m13 - m.m11, m.m23 - m.m21, m.m33 - m.m31);
+        setPlane(4, m.m03 + m.m02, m.m13 + m.m12, m.m23 + m.m22, m.m33 + m.m32);
+        setPlane(5, m.m03 - m.m02, m.m13 - m.m12, m.m23 - m.m22, m.m33 - m.m32);
+        return this;
+    }
+
+    private void setPlane(int i, float pa, float pb, float pc, float pd) {
+        float s = 1.0f / (float) Math.sqrt(pa * pa + pb * pb + pc * pc);
+        a[i] = pa * s;
+        b[i] = pb * s;
+        c[i] = pc * s;
+        d[i] = pd * s;
+    }
+
+    /** Returns whether the point is inside this frustum */
+    public boolean testPoint(Vector3f p) {
+        return testSphere(p.x, p.y, p.z, 0.0f);
+    }
+
+    /** Returns whether the sphere is at least partially inside this frustum */
+    public boolean testSphere(Vector3f centre, float radius) {
+        return testSphere(centre.x, centre.y, centre.z, radius);
+    }
+
+    /** Returns whether the sphere is at least partially inside this frustum */
+    public boolean testSphere(float x, float y, float z, float radius) {
+        return minDistance(x, y, z) >= -radius;
+    }
+
+    /**
+     * Returns whether the axis aligned box is at least partially inside this
+     * frustum. May return true for boxes just outside a frustum corner.
+     */
+    public boolean testAabb(Vector3f min, Vector3f max) {
+        return testAabb(min.x, min.y, min.z, max.x, max.y, max.z);
+    }
+
+    /**
+     * Returns whether the axis aligned box is at least partially inside this
+     * frustum. May return true for boxes just outside a frustum corner.
+     */
+    public boolean testAabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        return minCornerDistance(minX, minY, minZ, maxX, maxY, maxZ) >= 0.0f;
+    }
+
+    /** Smallest signed distance from the point to the six planes */
+    private float minDistance(float x, float y, float z) {
+        float m = a[0] * x + b[0] * y + c[0] * z + d[0];
+        m = Math.min(m, a[1] * x + b[1] * y + c[1] * z + d[1]);
+        m = Math.min(m, a[2] * x + b[2] * y + c[2] * z + d[2]);
+        m = Math.min(m, a[3] * x + b[3] * y + c[3] * z + d[3]);
+        m = Math.min(m, a[4] * x + b[4] * y + c[4] * z + d[4]);
+        return Math.min(m, a[5] * x + b[5] * y + c[5] * z + d[5]);
+    }
+
+    /**
+     * Smallest signed distance from the box corner furthest along each plane's
+     * normal to that plane. Negative means the box is fully outside a plane.
+     */
+    private float minCornerDistance(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float m = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < 6; i++) {
+            float pa = a[i], pb = b[i], pc = c[i];
+            float dist = Math.max(pa * minX, pa * maxX) + Math.max(pb * minY, pb * maxY)
+                    + Math.max(pc * minZ, pc * maxZ) + d[i];
+            m = Math.min(m, dist);
+        }
+        return m;
+    }
+
+    /**
+     * Tests count spheres against this frustum and writes their visibility bits
+     * into visible.
+     */
+    public void cullSpheres(float[] x, float[] y, float[] z, float[] radius, int count, long[] visible) {
+        cullSpheres(x, y, z, radius, count, visible, 0, words(count));
+    }
+
+    /**
+     * Tests count spheres against this frustum on the supplied pool and writes their
+     * visibility bits into visible.
+     */
+    public void cullSpheres(float[] x, float[] y, float[] z, float[] radius, int count, long[] visible,
+            ForkJoinPool pool) {
+        pool.invoke(new CullTask(this, x, y, z, radius, null, null, true, count, visible, 0, words(count)));
+    }
+
+    /**
+     * Tests count axis aligned boxes against this frustum and writes their
+     * visibility bits into visible.
+     */
+    public void cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+            int count, long[] visible) {
+        cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, count, visible, 0, words(count));
+    }
+
+    /**
+     * Tests count axis aligned boxes against this frustum on the supplied pool and
+     * writes their visibility bits into visible.
+     */
+    public void cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+            int count, long[] visible, ForkJoinPool pool) {
+        pool.invoke(
+                new CullTask(this, minX, minY, minZ, maxX, maxY, maxZ, false, count, visible, 0, words(count)));
+    }
+
+    /** Returns the amount of long words needed for a mask of count objects */
+    public static int words(int count) {
+        return (count + 63) >>> 6;
+    }
+
+    /** Returns whether object i is visible in the mask */
+    public static boolean isVisible(long[] visible, int i) {
+        return (visible[i >>> 6] & (1L << i)) != 0;
+    }
+
+    void cullSpheres(float[] x, float[] y, float[] z, float[] radius, int count, long[] visible, int fromWord,
+            int toWord) {
+        if (BatchMath.useSimd()) {
+            SimdBatchMath.cullSpheres(this, x, y, z, radius, count, visible, fromWord, toWord);
+        } else {
+            cullSpheresScalar(x, y, z, radius, count, visible, fromWord, toWord);
+        }
+    }
+
+    void cullSpheresScalar(float[] x, float[] y, float[] z, float[] radius, int count, long[] visible, int fromWord,
+            int toWord) {
+        for (int w = fromWord; w < toWord; w++) {
+            long bits = 0L;
+            int base = w << 6;
+            int end = Math.min(base + 64, count);
+            for (int i = base; i < end; i++) {
+                long inside = minDistance(x[i], y[i], z[i]) >= -radius[i] ? 1L : 0L;
+                bits |= inside << (i - base);
+            }
+            visible[w] = bits;
+        }
+    }
+
+    void cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ, int count,
+            long[] visible, int fromWord, int toWord) {
+        if (BatchMath.useSimd()) {
+            SimdBatchMath.cullAabbs(this, minX, minY, minZ, maxX, maxY, maxZ, count, visible, fromWord, toWord);
+        } else {
+            cullAabbsScalar(minX, minY, minZ, maxX, maxY, maxZ, count, visible, fromWord, toWord);
+        }
+    }
+
+    void cullAabbsScalar(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+            int count, long[] visible, int fromWord, int toWord) {
+        for (int w = fromWord; w < toWord; w++) {
+            long bits = 0L;
+            int base = w << 6;
+            int end = Math.min(base + 64, count);
+            for (int i = base; i < end; i++) {
+                long inside = minCornerDistance(minX[i], minY[i], minZ[i], maxX[i], maxY[i], maxZ[i]) >= 0.0f ? 1L
+                        : 0L;
+                bits |= inside << (i - base);
+            }
+            visible[w] = bits;
+        }
+    }
+
+    /**
+     * Splits a batch into ranges of mask words. For spheres the arrays are x, y, z,
+     * radius and the last two are unused, for boxes they are the six bounds.
+     */
+    static class CullTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Frustum frustum;
+        final float[] p0, p1, p2, p3, p4, p5;
+        final boolean spheres;
+        final int count;
+        final long[] visible;
+        final int fromWord, toWord;
+
+        CullTask(Frustum frustum, float[] p0, float[] p1, float[] p2, float[] p3, float[] p4, float[] p5,
+                boolean spheres, int count, long[] visible, int fromWord, int toWord) {
+            this.frustum = frustum;
+            this.p0 = p0;
+            this.p1 = p1;
+            this.p2 = p2;
+            this.p3 = p3;
+            this.p4 = p4;
+            this.p5 = p5;
+            this.spheres = spheres;
+            this.count = count;
+            this.visible = visible;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected void compute() {
+            if (toWord - fromWord <= parallelThreshold) {
+                if (spheres) {
+                    frustum.cullSpheres(p0, p1, p2, p3, count, visible, fromWord, toWord);
+                } else {
+                    frustum.cullAabbs(p0, p1, p2, p3, p4, p5, count, visible, fromWord, toWord);
+                }
+                return;
+            }
+            int mid = (fromWord + toWord) >>> 1;
+            invokeAll(new CullTask(frustum, p0, p1, p2, p3, p4, p5, spheres, count, visible, fromWord, mid),
+                    new CullTask(frustum, p0, p1, p2, p3, p4, p5, spheres, count, visible, mid, toWord));
+        }
+    }
+}
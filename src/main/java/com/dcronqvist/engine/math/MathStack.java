@@ -0,0 +1,138 @@
+package com.dcronqvist.engine.math;
+
+import java.util.Arrays;
+
+/**
+ * MathStack
+ *
+ * A thread-local pool of scratch vectors and matrices for temporaries, used like
+ * LWJGL's MemoryStack:
+ *
+ * <pre>
+ * try (MathStack stack = MathStack.stackPush()) {
+ *     Vector3f tmp = stack.vec3();
+ *     ...
+ * }
+ * </pre>
+ *
+ * Objects taken after a push are handed out again after the matching pop, so
+ * they must not be kept or returned past it. The pool grows the first time a
+ * frame takes more objects than before, and after that never allocates.
+ */
+public final class MathStack implements AutoCloseable {
+
+    private static final ThreadLocal<MathStack> STACKS = ThreadLocal.withInitial(MathStack::new);
+
+    private Vector3f[] vec3s = new Vector3f[16];
+    private Matrix3f[] mat3s = new Matrix3f[4];
+    private Matrix4f[] mat4s = new Matrix4f[4];
+    private int vec3Top;
+    private int mat3Top;
+    private int mat4Top;
+
+    // The tops of the three pools at every push, three ints per frame
+    private int[] frames = new int[3 * 8];
+    private int depth;
+
+    private MathStack() {
+
+    }
+
+    /** Returns the stack of the calling thread. */
+    public static MathStack get() {
+        return STACKS.get();
+    }
+
+    /** Pushes a new frame on the calling thread's stack and returns it. */
+    public static MathStack stackPush() {
+        return get().push();
+    }
+
+    /** Pushes a new frame, to be popped with {@link #pop()} or {@link #close()}. */
+    public MathStack push() {
+        if (3 * depth == frames.length) {
+            frames = Arrays.copyOf(frames, frames.length * 2);
+        }
+        frames[3 * depth] = vec3Top;
+        frames[3 * depth + 1] = mat3Top;
+        frames[3 * depth + 2] = mat4Top;
+        depth++;
+        return this;
+    }
+
+    /**
+     * Pops the current frame, releasing every object taken since the matching
+     * push.
+     */
+    public MathStack pop() {
+        if (depth == 0) {
+            throw new IllegalStateException("MathStack popped more times than pushed.");
+        }
+        depth--;
+        vec3Top = frames[3 * depth];
+        mat3Top = frames[3 * depth + 1];
+        mat4Top = frames[3 * depth + 2];
+        return this;
+    }
+
+    /** Pops the current frame */
+    @Override
+    public void close() {
+        pop();
+    }
+
+    /** Returns the amount of frames currently pushed. */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Returns a scratch vector set to zero. */
+    public Vector3f vec3() {
+        return vec3(0.0f, 0.0f, 0.0f);
+    }
+
+    /** Returns a scratch vector set to (x, y, z). */
+    public Vector3f vec3(float x, float y, float z) {
+        if (vec3Top == vec3s.length) {
+            vec3s = Arrays.copyOf(vec3s, vec3s.length * 2);
+        }
+        Vector3f v = vec3s[vec3Top];
+        if (v == null) {
+            v = vec3s[vec3Top] = new Vector3f();
+        }
+        vec3Top++;
+        return v.set(x, y, z);
+    }
+
+    /** Returns a scratch vector set to the components of v. */
+    public Vector3f vec3(Vector3f v) {
+        return vec3(v.x, v.y, v.z);
+    }
+
+    /** Returns a scratch 3x3 identity matrix. */
+    public Matrix3f mat3() {
+        if (mat3Top == mat3s.length) {
+            mat3s = Arrays.copyOf(mat3s, mat3s.length * 2);
+        }
+        Matrix3f m = mat3s[mat3Top];
+        if (m == null) {
+            m = mat3s[mat3Top] = new Matrix3f();
+        }
+        mat3Top++;
+        m.identity();
+        return m;
+    }
+
+    /** Returns a scratch 4x4 identity matrix. */
+    public Matrix4f mat4() {
+        if (mat4Top == mat4s.length) {
+            mat4s = Arrays.copyOf(mat4s, mat4s.length * 2);
+        }
+        Matrix4f m = mat4s[mat4Top];
+        if (m == null) {
+            m = mat4s[mat4Top] = new Matrix4f();
+        }
+        mat4Top++;
+        return m.setIdentity();
+    }
+}
@@ -376,6 +376,22 @@ public class Matrix3f {
         buffer.put(this.m22);
     }
 
+    /**
+     * Stores this matrix in the supplied FloatBuffer starting at the absolute
+     * index. The position of the buffer is not changed.
+     */
+    public void store(FloatBuffer buffer, int index) {
+        buffer.put(index, this.m00);
+        buffer.put(index + 1, this.m01);
+        buffer.put(index + 2, this.m02);
+        buffer.put(index + 3, this.m10);
+        buffer.put(index + 4, this.m11);
+        buffer.put(index + 5, this.m12);
+        buffer.put(index + 6, this.m20);
+        buffer.put(index + 7, this.m21);
+        buffer.put(index + 8, this.m22);
+    }
+
     /** Sets all the values within this matrix to 0 */
     public void clear() {
         this.m00 = 0.0f;
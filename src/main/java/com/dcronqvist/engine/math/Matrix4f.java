@@ -142,6 +142,56 @@ public class Matrix4f {
                 this.m33 = m[15];
         }
 
+        /** Set the values in this matrix to the ones in mat */
+        public void set(Matrix4f mat) {
+                this.m00 = mat.m00;
+                this.m01 = mat.m01;
+                this.m02 = mat.m02;
+                this.m03 = mat.m03;
+                this.m10 = mat.m10;
+                this.m11 = mat.m11;
+                this.m12 = mat.m12;
+                this.m13 = mat.m13;
+                this.m20 = mat.m20;
+                this.m21 = mat.m21;
+                this.m22 = mat.m22;
+                this.m23 = mat.m23;
+                this.m30 = mat.m30;
+                this.m31 = mat.m31;
+                this.m32 = mat.m32;
+                this.m33 = mat.m33;
+        }
+
+        /**
+         * Sets the values within this matrix to the supplied float values, in the
+         * same column-major order as the constructor.
+         */
+        public void set(float m00, float m01, float m02, float m03, float m10, float m11, float m12, float m13,
+                        float m20, float m21, float m22, float m23, float m30, float m31, float m32, float m33) {
+                this.m00 = m00;
+                this.m01 = m01;
+                this.m02 = m02;
+                this.m03 = m03;
+                this.m10 = m10;
+                this.m11 = m11;
+                this.m12 = m12;
+                this.m13 = m13;
+                this.m20 = m20;
+                this.m21 = m21;
+                this.m22 = m22;
+                this.m23 = m23;
+                this.m30 = m30;
+                this.m31 = m31;
+                this.m32 = m32;
+                this.m33 = m33;
+        }
+
+        /** Sets this matrix to the identity and returns it */
+        public Matrix4f setIdentity() {
+                set(1.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f, 0.0f, 0.0f, 1.0f);
+                return this;
+        }
+
         /**
          * Returns an identity 4x4 matrix.
          * 
@@ -160,39 +210,92 @@ public class Matrix4f {
          * @return The resulting {@link Matrix4f} from the multiplication.
          */
         public Matrix4f mul(Matrix4f right) {
-                return new Matrix4f(
-                                this.m00 * right.m00 + this.m10 * right.m01 + this.m20 * right.m02
-                                                + this.m30 * right.m03,
-                                this.m01 * right.m00 + this.m11 * right.m01 + this.m21 * right.m02
-                                                + this.m31 * right.m03,
-                                this.m02 * right.m00 + this.m12 * right.m01 + this.m22 * right.m02
-                                                + this.m32 * right.m03,
-                                this.m03 * right.m00 + this.m13 * right.m01 + this.m23 * right.m02
-                                                + this.m33 * right.m03,
-                                this.m00 * right.m10 + this.m10 * right.m11 + this.m20 * right.m12
-                                                + this.m30 * right.m13,
-                                this.m01 * right.m10 + this.m11 * right.m11 + this.m21 * right.m12
-                                                + this.m31 * right.m13,
-                                this.m02 * right.m10 + this.m12 * right.m11 + this.m22 * right.m12
-                                                + this.m32 * right.m13,
-                                this.m03 * right.m10 + this.m13 * right.m11 + this.m23 * right.m12
-                                                + this.m33 * right.m13,
-                                this.m00 * right.m20 + this.m10 * right.m21 + this.m20 * right.m22
-                                                + this.m30 * right.m23,
-                                this.m01 * right.m20 + this.m11 * right.m21 + this.m21 * right.m22
-                                                + this.m31 * right.m23,
-                                this.m02 * right.m20 + this.m12 * right.m21 + this.m22 * right.m22
-                                                + this.m32 * right.m23,
-                                this.m03 * right.m20 + this.m13 * right.m21 + this.m23 * right.m22
-                                                + this.m33 * right.m23,
-                                this.m00 * right.m30 + this.m10 * right.m31 + this.m20 * right.m32
-                                                + this.m30 * right.m33,
-                                this.m01 * right.m30 + this.m11 * right.m31 + this.m21 * right.m32
-                                                + this.m31 * right.m33,
-                                this.m02 * right.m30 + this.m12 * right.m31 + this.m22 * right.m32
-                                                + this.m32 * right.m33,
-                                this.m03 * right.m30 + this.m13 * right.m31 + this.m23 * right.m32
-                                                + this.m33 * right.m33);
+                return mul(right, new Matrix4f());
+        }
+
+        /**
+         * Multiplies this {@link Matrix4f} with the supplied {@link Matrix4f} and
+         * stores the result in dest. Alias safe, dest may be this matrix or right.
+         * 
+         * @return dest
+         */
+        public Matrix4f mul(Matrix4f right, Matrix4f dest) {
+                mul(this, right, dest);
+                return dest;
+        }
+
+        /**
+         * Multiplies this {@link Matrix4f} with the supplied {@link Matrix4f} in
+         * place, this matrix being the "left" one.
+         * 
+         * @return this matrix
+         */
+        public Matrix4f mulLocal(Matrix4f right) {
+                mul(this, right, this);
+                return this;
+        }
+
+        /**
+         * Multiplies the left matrix by the right, and stores the results in dest. Does
+         * not modify the left or right matrices, and dest may be either of them.
+         */
+        public static void mul(Matrix4f left, Matrix4f right, Matrix4f dest) {
+                dest.set(left.m00 * right.m00 + left.m10 * right.m01 + left.m20 * right.m02 + left.m30 * right.m03,
+                                left.m01 * right.m00 + left.m11 * right.m01 + left.m21 * right.m02
+                                                + left.m31 * right.m03,
+                                left.m02 * right.m00 + left.m12 * right.m01 + left.m22 * right.m02
+                                                + left.m32 * right.m03,
+                                left.m03 * right.m00 + left.m13 * right.m01 + left.m23 * right.m02
+                                                + left.m33 * right.m03,
+                                left.m00 * right.m10 + left.m10 * right.m11 + left.m20 * right.m12
+                                                + left.m30 * right.m13,
+                                left.m01 * right.m10 + left.m11 * right.m11 + left.m21 * right.m12
+                                                + left.m31 * right.m13,
+                                left.m02 * right.m10 + left.m12 * right.m11 + left.m22 * right.m12
+                                                + left.m32 * right.m13,
+                                left.m03 * right.m10 + left.m13 * right.m11 + left.m23 * right.m12
+                                                + left.m33 * right.m13,
+                                left.m00 * right.m20 + left.m10 * right.m21 + left.m20 * right.m22
+                                                + left.m30 * right.m23,
+                                left.m01 * right.m20 + left.m11 * right.m21 + left.m21 * right.m22
+                                                + left.m31 * right.m23,
+                                left.m02 * right.m20 + left.m12 * right.m21 + left.m22 * right.m22
+                                                + left.m32 * right.m23,
+                                left.m03 * right.m20 + left.m13 * right.m21 + left.m23 * right.m22
+                                                + left.m33 * right.m23,
+                                left.m00 * right.m30 + left.m10 * right.m31 + left.m20 * right.m32
+                                                + left.m30 * right.m33,
+                                left.m01 * right.m30 + left.m11 * right.m31 + left.m21 * right.m32
+                                                + left.m31 * right.m33,
+                                left.m02 * right.m30 + left.m12 * right.m31 + left.m22 * right.m32
+                                                + left.m32 * right.m33,
+                                left.m03 * right.m30 + left.m13 * right.m31 + left.m23 * right.m32
+                                                + left.m33 * right.m33);
+        }
+
+        /**
+         * Multiplies the left matrix by the right, and stores the results in dest. Does
+         * not modify the left or right matrices. <B>This is not alias safe so make sure
+         * dest is not the same object as left or right or you WILL get incorrect
+         * results!</B>
+         */
+        public static void mulFast(Matrix4f left, Matrix4f right, Matrix4f dest) {
+                dest.m00 = left.m00 * right.m00 + left.m10 * right.m01 + left.m20 * right.m02 + left.m30 * right.m03;
+                dest.m01 = left.m01 * right.m00 + left.m11 * right.m01 + left.m21 * right.m02 + left.m31 * right.m03;
+                dest.m02 = left.m02 * right.m00 + left.m12 * right.m01 + left.m22 * right.m02 + left.m32 * right.m03;
+                dest.m03 = left.m03 * right.m00 + left.m13 * right.m01 + left.m23 * right.m02 + left.m33 * right.m03;
+                dest.m10 = left.m00 * right.m10 + left.m10 * right.m11 + left.m20 * right.m12 + left.m30 * right.m13;
+                dest.m11 = left.m01 * right.m10 + left.m11 * right.m11 + left.m21 * right.m12 + left.m31 * right.m13;
+                dest.m12 = left.m02 * right.m10 + left.m12 * right.m11 + left.m22 * right.m12 + left.m32 * right.m13;
+                dest.m13 = left.m03 * right.m10 + left.m13 * right.m11 + left.m23 * right.m12 + left.m33 * right.m13;
+                dest.m20 = left.m00 * right.m20 + left.m10 * right.m21 + left.m20 * right.m22 + left.m30 * right.m23;
+                dest.m21 = left.m01 * right.m20 + left.m11 * right.m21 + left.m21 * right.m22 + left.m31 * right.m23;
+                dest.m22 = left.m02 * right.m20 + left.m12 * right.m21 + left.m22 * right.m22 + left.m32 * right.m23;
+                dest.m23 = left.m03 * right.m20 + left.m13 * right.m21 + left.m23 * right.m22 + left.m33 * right.m23;
+                dest.m30 = left.m00 * right.m30 + left.m10 * right.m31 + left.m20 * right.m32 + left.m30 * right.m33;
+                dest.m31 = left.m01 * right.m30 + left.m11 * right.m31 + left.m21 * right.m32 + left.m31 * right.m33;
+                dest.m32 = left.m02 * right.m30 + left.m12 * right.m31 + left.m22 * right.m32 + left.m32 * right.m33;
+                dest.m33 = left.m03 * right.m30 + left.m13 * right.m31 + left.m23 * right.m32 + left.m33 * right.m33;
         }
 
         /** Returns the determinant of this matrix */
@@ -206,47 +309,162 @@ public class Matrix4f {
         }
 
         /**
-         * Returns this {@link Matrix4f}, but inverted.
+         * Returns this {@link Matrix4f}, but inverted, or this matrix itself if it is
+         * singular.
          */
         public Matrix4f inverted() {
-                float s = determinant();
-                if (s == 0.0f) {
+                if (determinant() == 0.0f) {
                         return this;
                 }
+                return inverted(new Matrix4f());
+        }
+
+        /**
+         * Inverts this {@link Matrix4f} and stores the result in dest. Does not
+         * modify this matrix unless dest is this matrix. If the matrix is singular
+         * dest is set to this matrix, matching {@link #inverted()}.
+         * 
+         * @return dest
+         */
+        public Matrix4f inverted(Matrix4f dest) {
+                invert(this, dest);
+                return dest;
+        }
+
+        /**
+         * Inverts this {@link Matrix4f} in place. A singular matrix is left untouched.
+         * 
+         * @return this matrix
+         */
+        public Matrix4f invertLocal() {
+                invert(this, this);
+                return this;
+        }
+
+        /**
+         * Inverts the source matrix and stores the results in dest. Does not modify the
+         * source, and dest may be the source. If the source is singular dest is set to
+         * the source.
+         */
+        public static void invert(Matrix4f source, Matrix4f dest) {
+                float s = source.determinant();
+                if (s == 0.0f) {
+                        dest.set(source);
+                        return;
+                }
                 s = 1.0f / s;
-                return new Matrix4f(
-                                (m11 * (m22 * m33 - m23 * m32) + m12 * (m23 * m31 - m21 * m33)
-                                                + m13 * (m21 * m32 - m22 * m31)) * s,
-                                (m21 * (m02 * m33 - m03 * m32) + m22 * (m03 * m31 - m01 * m33)
-                                                + m23 * (m01 * m32 - m02 * m31)) * s,
-                                (m31 * (m02 * m13 - m03 * m12) + m32 * (m03 * m11 - m01 * m13)
-                                                + m33 * (m01 * m12 - m02 * m11)) * s,
-                                (m01 * (m13 * m22 - m12 * m23) + m02 * (m11 * m23 - m13 * m21)
-                                                + m03 * (m12 * m21 - m11 * m22)) * s,
-                                (m12 * (m20 * m33 - m23 * m30) + m13 * (m22 * m30 - m20 * m32)
-                                                + m10 * (m23 * m32 - m22 * m33)) * s,
-                                (m22 * (m00 * m33 - m03 * m30) + m23 * (m02 * m30 - m00 * m32)
-                                                + m20 * (m03 * m32 - m02 * m33)) * s,
-                                (m32 * (m00 * m13 - m03 * m10) + m33 * (m02 * m10 - m00 * m12)
-                                                + m30 * (m03 * m12 - m02 * m13)) * s,
-                                (m02 * (m13 * m20 - m10 * m23) + m03 * (m10 * m22 - m12 * m20)
-                                                + m00 * (m12 * m23 - m13 * m22)) * s,
-                                (m13 * (m20 * m31 - m21 * m30) + m10 * (m21 * m33 - m23 * m31)
-                                                + m11 * (m23 * m30 - m20 * m33)) * s,
-                                (m23 * (m00 * m31 - m01 * m30) + m20 * (m01 * m33 - m03 * m31)
-                                                + m21 * (m03 * m30 - m00 * m33)) * s,
-                                (m33 * (m00 * m11 - m01 * m10) + m30 * (m01 * m13 - m03 * m11)
-                                                + m31 * (m03 * m10 - m00 * m13)) * s,
-                                (m03 * (m11 * m20 - m10 * m21) + m00 * (m13 * m21 - m11 * m23)
-                                                + m01 * (m10 * m23 - m13 * m20)) * s,
-                                (m10 * (m22 * m31 - m21 * m32) + m11 * (m20 * m32 - m22 * m30)
-                                                + m12 * (m21 * m30 - m20 * m31)) * s,
-                                (m20 * (m02 * m31 - m01 * m32) + m21 * (m00 * m32 - m02 * m30)
-                                                + m22 * (m01 * m30 - m00 * m31)) * s,
-                                (m30 * (m02 * m11 - m01 * m12) + m31 * (m00 * m12 - m02 * m10)
-                                                + m32 * (m01 * m10 - m00 * m11)) * s,
-                                (m00 * (m11 * m22 - m12 * m21) + m01 * (m12 * m20 - m10 * m22)
-                                                + m02 * (m10 * m21 - m11 * m20)) * s);
+
+                dest.set((source.m11 * (source.m22 * source.m33 - source.m23 * source.m32)
+                                                + source.m12 * (source.m23 * source.m31 - source.m21 * source.m33)
+                                                + source.m13 * (source.m21 * source.m32 - source.m22 * source.m31)) * s,
+                                (source.m21 * (source.m02 * source.m33 - source.m03 * source.m32)
+                                                + source.m22 * (source.m03 * source.m31 - source.m01 * source.m33)
+                                                + source.m23 * (source.m01 * source.m32 - source.m02 * source.m31)) * s,
+                                (source.m31 * (source.m02 * source.m13 - source.m03 * source.m12)
+                                                + source.m32 * (source.m03 * source.m11 - source.m01 * source.m13)
+                                                + source.m33 * (source.m01 * source.m12 - source.m02 * source.m11)) * s,
+                                (source.m01 * (source.m13 * source.m22 - source.m12 * source.m23)
+                                                + source.m02 * (source.m11 * source.m23 - source.m13 * source.m21)
+                                                + source.m03 * (source.m12 * source.m21 - source.m11 * source.m22)) * s,
+                                (source.m12 * (source.m20 * source.m33 - source.m23 * source.m30)
+                                                + source.m13 * (source.m22 * source.m30 - source.m20 * source.m32)
+                                                + source.m10 * (source.m23 * source.m32 - source.m22 * source.m33)) * s,
+                                (source.m22 * (source.m00 * source.m33 - source.m03 * source.m30)
+                                                + source.m23 * (source.m02 * source.m30 - source.m00 * source.m32)
+                                                + source.m20 * (source.m03 * source.m32 - source.m02 * source.m33)) * s,
+                                (source.m32 * (source.m00 * source.m13 - source.m03 * source.m10)
+                                                + source.m33 * (source.m02 * source.m10 - source.m00 * source.m12)
+                                                + source.m30 * (source.m03 * source.m12 - source.m02 * source.m13)) * s,
+                                (source.m02 * (source.m13 * source.m20 - source.m10 * source.m23)
+                                                + source.m03 * (source.m10 * source.m22 - source.m12 * source.m20)
+                                                + source.m00 * (source.m12 * source.m23 - source.m13 * source.m22)) * s,
+                                (source.m13 * (source.m20 * source.m31 - source.m21 * source.m30)
+                                                + source.m10 * (source.m21 * source.m33 - source.m23 * source.m31)
+                                                + source.m11 * (source.m23 * source.m30 - source.m20 * source.m33)) * s,
+                                (source.m23 * (source.m00 * source.m31 - source.m01 * source.m30)
+                                                + source.m20 * (source.m01 * source.m33 - source.m03 * source.m31)
+                                                + source.m21 * (source.m03 * source.m30 - source.m00 * source.m33)) * s,
+                                (source.m33 * (source.m00 * source.m11 - source.m01 * source.m10)
+                                                + source.m30 * (source.m01 * source.m13 - source.m03 * source.m11)
+                                                + source.m31 * (source.m03 * source.m10 - source.m00 * source.m13)) * s,
+                                (source.m03 * (source.m11 * source.m20 - source.m10 * source.m21)
+                                                + source.m00 * (source.m13 * source.m21 - source.m11 * source.m23)
+                                                + source.m01 * (source.m10 * source.m23 - source.m13 * source.m20)) * s,
+                                (source.m10 * (source.m22 * source.m31 - source.m21 * source.m32)
+                                                + source.m11 * (source.m20 * source.m32 - source.m22 * source.m30)
+                                                + source.m12 * (source.m21 * source.m30 - source.m20 * source.m31)) * s,
+                                (source.m20 * (source.m02 * source.m31 - source.m01 * source.m32)
+                                                + source.m21 * (source.m00 * source.m32 - source.m02 * source.m30)
+                                                + source.m22 * (source.m01 * source.m30 - source.m00 * source.m31)) * s,
+                                (source.m30 * (source.m02 * source.m11 - source.m01 * source.m12)
+                                                + source.m31 * (source.m00 * source.m12 - source.m02 * source.m10)
+                                                + source.m32 * (source.m01 * source.m10 - source.m00 * source.m11)) * s,
+                                (source.m00 * (source.m11 * source.m22 - source.m12 * source.m21)
+                                                + source.m01 * (source.m12 * source.m20 - source.m10 * source.m22)
+                                                + source.m02 * (source.m10 * source.m21 - source.m11 * source.m20)) * s);
+        }
+
+        /**
+         * Inverts the source matrix and stores the results in dest. Does not modify the
+         * source. If the source is singular dest is not modified. <B>This is not alias
+         * safe so make sure dest is not the same object as the source or you WILL get
+         * incorrect results!</B>
+         */
+        public static void invertFast(Matrix4f source, Matrix4f dest) {
+                float s = source.determinant();
+                if (s == 0.0f) {
+                        return;
+                }
+                s = 1.0f / s;
+
+                dest.m00 = (source.m11 * (source.m22 * source.m33 - source.m23 * source.m32)
+                                + source.m12 * (source.m23 * source.m31 - source.m21 * source.m33)
+                                + source.m13 * (source.m21 * source.m32 - source.m22 * source.m31)) * s;
+                dest.m01 = (source.m21 * (source.m02 * source.m33 - source.m03 * source.m32)
+                                + source.m22 * (source.m03 * source.m31 - source.m01 * source.m33)
+                                + source.m23 * (source.m01 * source.m32 - source.m02 * source.m31)) * s;
+                dest.m02 = (source.m31 * (source.m02 * source.m13 - source.m03 * source.m12)
+                                + source.m32 * (source.m03 * source.m11 - source.m01 * source.m13)
+                                + source.m33 * (source.m01 * source.m12 - source.m02 * source.m11)) * s;
+                dest.m03 = (source.m01 * (source.m13 * source.m22 - source.m12 * source.m23)
+                                + source.m02 * (source.m11 * source.m23 - source.m13 * source.m21)
+                                + source.m03 * (source.m12 * source.m21 - source.m11 * source.m22)) * s;
+                dest.m10 = (source.m12 * (source.m20 * source.m33 - source.m23 * source.m30)
+                                + source.m13 * (source.m22 * source.m30 - source.m20 * source.m32)
+                                + source.m10 * (source.m23 * source.m32 - source.m22 * source.m33)) * s;
+                dest.m11 = (source.m22 * (source.m00 * source.m33 - source.m03 * source.m30)
+                                + source.m23 * (source.m02 * source.m30 - source.m00 * source.m32)
+                                + source.m20 * (source.m03 * source.m32 - source.m02 * source.m33)) * s;
+                dest.m12 = (source.m32 * (source.m00 * source.m13 - source.m03 * source.m10)
+                                + source.m33 * (source.m02 * source.m10 - source.m00 * source.m12)
+                                + source.m30 * (source.m03 * source.m12 - source.m02 * source.m13)) * s;
+                dest.m13 = (source.m02 * (source.m13 * source.m20 - source.m10 * source.m23)
+                                + source.m03 * (source.m10 * source.m22 - source.m12 * source.m20)
+                                + source.m00 * (source.m12 * source.m23 - source.m13 * source.m22)) * s;
+                dest.m20 = (source.m13 * (source.m20 * source.m31 - source.m21 * source.m30)
+                                + source.m10 * (source.m21 * source.m33 - source.m23 * source.m31)
+                                + source.m11 * (source.m23 * source.m30 - source.m20 * source.m33)) * s;
+                dest.m21 = (source.m23 * (source.m00 * source.m31 - source.m01 * source.m30)
+                                + source.m20 * (source.m01 * source.m33 - source.m03 * source.m31)
+                                + source.m21 * (source.m03 * source.m30 - source.m00 * source.m33)) * s;
+                dest.m22 = (source.m33 * (source.m00 * source.m11 - source.m01 * source.m10)
+                                + source.m30 * (source.m01 * source.m13 - source.m03 * source.m11)
+                                + source.m31 * (source.m03 * source.m10 - source.m00 * source.m13)) * s;
+                dest.m23 = (source.m03 * (source.m11 * source.m20 - source.m10 * source.m21)
+                                + source.m00 * (source.m13 * source.m21 - source.m11 * source.m23)
+                                + source.m01 * (source.m10 * source.m23 - source.m13 * source.m20)) * s;
+                dest.m30 = (source.m10 * (source.m22 * source.m31 - source.m21 * source.m32)
+                                + source.m11 * (source.m20 * source.m32 - source.m22 * source.m30)
+                                + source.m12 * (source.m21 * source.m30 - source.m20 * source.m31)) * s;
+                dest.m31 = (source.m20 * (source.m02 * source.m31 - source.m01 * source.m32)
+                                + source.m21 * (source.m00 * source.m32 - source.m02 * source.m30)
+                                + source.m22 * (source.m01 * source.m30 - source.m00 * source.m31)) * s;
+                dest.m32 = (source.m30 * (source.m02 * source.m11 - source.m01 * source.m12)
+                                + source.m31 * (source.m00 * source.m12 - source.m02 * source.m10)
+                                + source.m32 * (source.m01 * source.m10 - source.m00 * source.m11)) * s;
+                dest.m33 = (source.m00 * (source.m11 * source.m22 - source.m12 * source.m21)
+                                + source.m01 * (source.m12 * source.m20 - source.m10 * source.m22)
+                                + source.m02 * (source.m10 * source.m21 - source.m11 * source.m20)) * s;
         }
 
         /**
@@ -255,31 +473,112 @@ public class Matrix4f {
          * @param scalar The scalar to scale the matrix with.
          */
         public Matrix4f mul(float scalar) {
-                Matrix4f n = new Matrix4f(this);
-                n.m00 *= scalar;
-                n.m01 *= scalar;
-                n.m02 *= scalar;
-                n.m03 *= scalar;
-                n.m10 *= scalar;
-                n.m11 *= scalar;
-                n.m12 *= scalar;
-                n.m13 *= scalar;
-                n.m20 *= scalar;
-                n.m21 *= scalar;
-                n.m22 *= scalar;
-                n.m23 *= scalar;
-                n.m30 *= scalar;
-                n.m31 *= scalar;
-                n.m32 *= scalar;
-                n.m33 *= scalar;
-                return n;
+                return mul(scalar, new Matrix4f());
+        }
+
+        /**
+         * Scales this {@link Matrix4f} by the specified scalar float and stores the
+         * result in dest.
+         * 
+         * @return dest
+         */
+        public Matrix4f mul(float scalar, Matrix4f dest) {
+                mul(this, scalar, dest);
+                return dest;
+        }
+
+        /**
+         * Scales this {@link Matrix4f} by the specified scalar float in place.
+         * 
+         * @return this matrix
+         */
+        public Matrix4f mulLocal(float scalar) {
+                mul(this, scalar, this);
+                return this;
+        }
+
+        /**
+         * Multiply the supplied Matrix by the supplied scalar value and store the
+         * results in dest. Does not modify the source
+         */
+        public static void mul(Matrix4f source, float scalar, Matrix4f dest) {
+                dest.m00 = source.m00 * scalar;
+                dest.m01 = source.m01 * scalar;
+                dest.m02 = source.m02 * scalar;
+                dest.m03 = source.m03 * scalar;
+                dest.m10 = source.m10 * scalar;
+                dest.m11 = source.m11 * scalar;
+                dest.m12 = source.m12 * scalar;
+                dest.m13 = source.m13 * scalar;
+                dest.m20 = source.m20 * scalar;
+                dest.m21 = source.m21 * scalar;
+                dest.m22 = source.m22 * scalar;
+                dest.m23 = source.m23 * scalar;
+                dest.m30 = source.m30 * scalar;
+                dest.m31 = source.m31 * scalar;
+                dest.m32 = source.m32 * scalar;
+                dest.m33 = source.m33 * scalar;
         }
 
         /**
          * Returns the transposed version of this Matrix4f.
          */
         public Matrix4f transpose() {
-                return new Matrix4f(m00, m10, m20, m30, m01, m11, m21, m31, m02, m12, m22, m32, m03, m13, m23, m33);
+                return transpose(new Matrix4f());
+        }
+
+        /**
+         * Stores the transposed version of this Matrix4f in dest. Alias safe.
+         * 
+         * @return dest
+         */
+        public Matrix4f transpose(Matrix4f dest) {
+                transpose(this, dest);
+                return dest;
+        }
+
+        /**
+         * Transposes this Matrix4f in place.
+         * 
+         * @return this matrix
+         */
+        public Matrix4f transposeLocal() {
+                transpose(this, this);
+                return this;
+        }
+
+        /**
+         * Transposes the supplied original matrix and stores the results in dest. The
+         * original is not modified, and dest may be the original.
+         */
+        public static void transpose(Matrix4f original, Matrix4f dest) {
+                dest.set(original.m00, original.m10, original.m20, original.m30, original.m01, original.m11,
+                                original.m21, original.m31, original.m02, original.m12, original.m22, original.m32,
+                                original.m03, original.m13, original.m23, original.m33);
+        }
+
+        /**
+         * Transposes the supplied original matrix and stores the results in dest. The
+         * original is not modified. <B>This is not alias safe so make sure dest is not
+         * the same object as the original or you WILL get incorrect results!</B>
+         */
+        public static void transposeFast(Matrix4f original, Matrix4f dest) {
+                dest.m00 = original.m00;
+                dest.m01 = original.m10;
+                dest.m02 = original.m20;
+                dest.m03 = original.m30;
+                dest.m10 = original.m01;
+                dest.m11 = original.m11;
+                dest.m12 = original.m21;
+                dest.m13 = original.m31;
+                dest.m20 = original.m02;
+                dest.m21 = original.m12;
+                dest.m22 = original.m22;
+                dest.m23 = original.m32;
+                dest.m30 = original.m03;
+                dest.m31 = original.m13;
+                dest.m32 = original.m23;
+                dest.m33 = original.m33;
         }
 
         /**
@@ -289,18 +588,42 @@ public class Matrix4f {
          * @return A new {@link Matrix4f} translated to position.
          */
         public Matrix4f translate(Vector3f position) {
-                Matrix4f mat = new Matrix4f(this);
-                mat.m30 = position.x;
-                mat.m31 = position.y;
-                mat.m32 = position.z;
-                mat.m33 = 1.0f;
-                return mat;
+                return translate(position, new Matrix4f());
+        }
+
+        /**
+         * Stores a copy of this {@link Matrix4f} translated to the given
+         * {@link Vector3f} position in dest.
+         * 
+         * @return dest
+         */
+        public Matrix4f translate(Vector3f position, Matrix4f dest) {
+                if (dest != this) {
+                        dest.set(this);
+                }
+                dest.m30 = position.x;
+                dest.m31 = position.y;
+                dest.m32 = position.z;
+                dest.m33 = 1.0f;
+                return dest;
+        }
+
+        /**
+         * Translates this {@link Matrix4f} to the given {@link Vector3f} position in
+         * place.
+         * 
+         * @return this matrix
+         */
+        public Matrix4f translateLocal(Vector3f position) {
+                return translate(position, this);
         }
 
         public String toString() {
                 return "Matrix4f { " + this.m00 + ", " + this.m10 + ", " + this.m20 + ", " + this.m30 + ",\n"
-                                + "           " + this.m01 + ", " + this.m11 + ", " + this.m21 + ", " + this.m31 + ",\n"
-                                + "           " + this.m02 + ", " + this.m12 + ", " + this.m22 + ", " + this.m32 + ",\n"
+                                + "           " + this.m01 + ", " + this.m11 + ", " + this.m21 + ", " + this.m31
+                                                + ",\n"
+                                + "           " + this.m02 + ", " + this.m12 + ", " + this.m22 + ", " + this.m32
+                                                + ",\n"
                                 + "           " + this.m03 + ", " + this.m13 + ", " + this.m23 + ", " + this.m33
                                 + " }\n";
 
@@ -331,20 +654,73 @@ public class Matrix4f {
                 buffer.put(this.m33);
         }
 
+        /**
+         * Stores this {@link Matrix4f} into the specified {@link FloatBuffer} in
+         * column-major order, starting at the absolute index. The position of the
+         * buffer is not changed.
+         * 
+         * @param buffer
+         * @param index  The index of the first float to write.
+         */
+        public void store(FloatBuffer buffer, int index) {
+                buffer.put(index, this.m00);
+                buffer.put(index + 1, this.m01);
+                buffer.put(index + 2, this.m02);
+                buffer.put(index + 3, this.m03);
+                buffer.put(index + 4, this.m10);
+                buffer.put(index + 5, this.m11);
+                buffer.put(index + 6, this.m12);
+                buffer.put(index + 7, this.m13);
+                buffer.put(index + 8, this.m20);
+                buffer.put(index + 9, this.m21);
+                buffer.put(index + 10, this.m22);
+                buffer.put(index + 11, this.m23);
+                buffer.put(index + 12, this.m30);
+                buffer.put(index + 13, this.m31);
+                buffer.put(index + 14, this.m32);
+                buffer.put(index + 15, this.m33);
+        }
+
+        /**
+         * Returns this {@link Matrix4f} with its first three columns scaled by the
+         * components of scale.
+         */
         public Matrix4f scale(Vector3f scale) {
-                Matrix4f mat = new Matrix4f(this);
-                mat.m00 *= scale.x;
-                mat.m01 *= scale.x;
-                mat.m02 *= scale.x;
-                mat.m03 *= scale.x;
-                mat.m10 *= scale.y;
-                mat.m11 *= scale.y;
-                mat.m12 *= scale.y;
-                mat.m13 *= scale.y;
-                mat.m20 *= scale.z;
-                mat.m21 *= scale.z;
-                mat.m22 *= scale.z;
-                mat.m23 *= scale.z;
-                return mat;
+                return scale(scale, new Matrix4f());
+        }
+
+        /**
+         * Stores this {@link Matrix4f} with its first three columns scaled by the
+         * components of scale in dest.
+         * 
+         * @return dest
+         */
+        public Matrix4f scale(Vector3f scale, Matrix4f dest) {
+                if (dest != this) {
+                        dest.set(this);
+                }
+                dest.m00 *= scale.x;
+                dest.m01 *= scale.x;
+                dest.m02 *= scale.x;
+                dest.m03 *= scale.x;
+                dest.m10 *= scale.y;
+                dest.m11 *= scale.y;
+                dest.m12 *= scale.y;
+                dest.m13 *= scale.y;
+                dest.m20 *= scale.z;
+                dest.m21 *= scale.z;
+                dest.m22 *= scale.z;
+                dest.m23 *= scale.z;
+                return dest;
+        }
+
+        /**
+         * Scales the first three columns of this {@link Matrix4f} by the components of
+         * scale in place.
+         * 
+         * @return this matrix
+         */
+        public Matrix4f scaleLocal(Vector3f scale) {
+                return scale(scale, this);
         }
 }
@@ -0,0 +1,238 @@
+package com.dcronqvist.engine.math;
+
+/**
+ * Quaternionf
+ *
+ * A rotation stored as a unit quaternion (x, y, z, w). Rotations are combined
+ * with {@link #mul(Quaternionf, Quaternionf)}, where the right-hand rotation is
+ * applied first, in the same order as {@link Matrix4f#mul(Matrix4f)}.
+ */
+public class Quaternionf {
+
+    public float x;
+    public float y;
+    public float z;
+    public float w;
+
+    /** Creates the identity rotation */
+    public Quaternionf() {
+        this.w = 1.0f;
+    }
+
+    public Quaternionf(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    public Quaternionf(Quaternionf clone) {
+        this.x = clone.x;
+        this.y = clone.y;
+        this.z = clone.z;
+        this.w = clone.w;
+    }
+
+    /** Sets the components of this quaternion and returns it. */
+    public Quaternionf set(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+        return this;
+    }
+
+    /** Sets the components of this quaternion to the ones in q and returns it. */
+    public Quaternionf set(Quaternionf q) {
+        return set(q.x, q.y, q.z, q.w);
+    }
+
+    /** Sets this quaternion to the identity rotation and returns it. */
+    public Quaternionf setIdentity() {
+        return set(0.0f, 0.0f, 0.0f, 1.0f);
+    }
+
+    /**
+     * Sets this quaternion to a rotation of angle radians around axis.
+     *
+     * @param axis  A normalized rotation axis.
+     * @param angle The angle in radians.
+     */
+    public Quaternionf setAxisAngle(Vector3f axis, float angle) {
+        float half = angle * 0.5f;
+        float s = TrigMath.sin(half);
+        return set(axis.x * s, axis.y * s, axis.z * s, TrigMath.cos(half));
+    }
+
+    /**
+     * Sets this quaternion from euler angles in radians. The rotation applied is
+     * roll around z first, then pitch around x, then yaw around y.
+     *
+     * @param pitch Rotation around the x axis.
+     * @param yaw   Rotation around the y axis.
+     * @param roll  Rotation around the z axis.
+     */
+    public Quaternionf setEuler(float pitch, float yaw, float roll) {
+        float sx = TrigMath.sin(pitch * 0.5f);
+        float cx = TrigMath.cos(pitch * 0.5f);
+        float sy = TrigMath.sin(yaw * 0.5f);
+        float cy = TrigMath.cos(yaw * 0.5f);
+        float sz = TrigMath.sin(roll * 0.5f);
+        float cz = TrigMath.cos(roll * 0.5f);
+        return set(cy * sx * cz + sy * cx * sz, sy * cx * cz - cy * sx * sz, cy * cx * sz - sy * sx * cz,
+                cy * cx * cz + sy * sx * sz);
+    }
+
+    /** Returns a new quaternion rotating angle radians around axis. */
+    public static Quaternionf fromAxisAngle(Vector3f axis, float angle) {
+        return new Quaternionf().setAxisAngle(axis, angle);
+    }
+
+    /** Returns a new quaternion from euler angles, see {@link #setEuler}. */
+    public static Quaternionf fromEuler(float pitch, float yaw, float roll) {
+        return new Quaternionf().setEuler(pitch, yaw, roll);
+    }
+
+    /**
+     * Multiplies this quaternion by right and stores the result in dest. The
+     * result applies right first, then this rotation. Alias safe.
+     *
+     * @return dest
+     */
+    public Quaternionf mul(Quaternionf right, Quaternionf dest) {
+        return dest.set(w * right.x + x * right.w + y * right.z - z * right.y,
+                w * right.y - x * right.z + y * right.w + z * right.x,
+                w * right.z + x * right.y - y * right.x + z * right.w,
+                w * right.w - x * right.x - y * right.y - z * right.z);
+    }
+
+    /** Multiplies this quaternion by right in place and returns it. */
+    public Quaternionf mulLocal(Quaternionf right) {
+        return mul(right, this);
+    }
+
+    /**
+     * Stores the conjugate of this quaternion in dest, which for a unit quaternion
+     * is the inverse rotation.
+     *
+     * @return dest
+     */
+    public Quaternionf conjugate(Quaternionf dest) {
+        return dest.set(-x, -y, -z, w);
+    }
+
+    /** Returns the dot product of this quaternion and q. */
+    public float dot(Quaternionf q) {
+        return x * q.x + y * q.y + z * q.z + w * q.w;
+    }
+
+    /** Returns the length of this quaternion. */
+    public float length() {
+        return (float) Math.sqrt(x * x + y * y + z * z + w * w);
+    }
+
+    /**
+     * Normalizes this quaternion and stores the result in dest.
+     *
+     * @return dest
+     */
+    public Quaternionf normalize(Quaternionf dest) {
+        float s = 1.0f / length();
+        return dest.set(x * s, y * s, z * s, w * s);
+    }
+
+    /** Normalizes this quaternion in place and returns it. */
+    public Quaternionf normalizeLocal() {
+        return normalize(this);
+    }
+
+    /**
+     * Rotates v by this quaternion and stores the result in dest. Alias safe, dest
+     * may be v.
+     *
+     * @return dest
+     */
+    public Vector3f rotate(Vector3f v, Vector3f dest) {
+        // t = 2 * cross(q.xyz, v), v' = v + w * t + cross(q.xyz, t)
+        float tx = 2.0f * (y * v.z - z * v.y);
+        float ty = 2.0f * (z * v.x - x * v.z);
+        float tz = 2.0f * (x * v.y - y * v.x);
+        return dest.set(v.x + w * tx + (y * tz - z * ty), v.y + w * ty + (z * tx - x * tz),
+                v.z + w * tz + (x * ty - y * tx));
+    }
+
+    /**
+     * Normalized linear interpolation between a and b, stored in dest. Cheaper than
+     * {@link #slerp} but does not rotate at a constant speed. Takes the shortest
+     * path.
+     *
+     * @return dest
+     */
+    public static Quaternionf nlerp(Quaternionf a, Quaternionf b, float t, Quaternionf dest) {
+        float sb = a.dot(b) < 0.0f ? -t : t;
+        float sa = 1.0f - t;
+        return dest.set(a.x * sa + b.x * sb, a.y * sa + b.y * sb, a.z * sa + b.z * sb, a.w * sa + b.w * sb)
+                .normalizeLocal();
+    }
+
+    /**
+     * Spherical linear interpolation between a and b, stored in dest. Takes the
+     * shortest path and falls back to {@link #nlerp} when a and b are nearly
+     * equal.
+     *
+     * @return dest
+     */
+    public static Quaternionf slerp(Quaternionf a, Quaternionf b, float t, Quaternionf dest) {
+        float cos = a.dot(b);
+        float sign = 1.0f;
+        if (cos < 0.0f) {
+            cos = -cos;
+            sign = -1.0f;
+        }
+        if (cos > 0.9995f) {
+            return nlerp(a, b, t, dest);
+        }
+
+        float angle = (float) Math.acos(cos);
+        float invSin = 1.0f / TrigMath.sin(angle);
+        float sa = TrigMath.sin((1.0f - t) * angle) * invSin;
+        float sb = TrigMath.sin(t * angle) * invSin * sign;
+        return dest.set(a.x * sa + b.x * sb, a.y * sa + b.y * sb, a.z * sa + b.z * sb, a.w * sa + b.w * sb);
+    }
+
+    /**
+     * Stores the rotation matrix of this quaternion in dest, overwriting every
+     * element of it.
+     *
+     * @return dest
+     */
+    public Matrix4f toMatrix(Matrix4f dest) {
+        float xx = x * x, yy = y * y, zz = z * z;
+        float xy = x * y, xz = x * z, yz = y * z;
+        float xw = x * w, yw = y * w, zw = z * w;
+        dest.set(1.0f - 2.0f * (yy + zz), 2.0f * (xy + zw), 2.0f * (xz - yw), 0.0f,
+                2.0f * (xy - zw), 1.0f - 2.0f * (xx + zz), 2.0f * (yz + xw), 0.0f,
+                2.0f * (xz + yw), 2.0f * (yz - xw), 1.0f - 2.0f * (xx + yy), 0.0f,
+                0.0f, 0.0f, 0.0f, 1.0f);
+        return dest;
+    }
+
+    /**
+     * Stores the rotation matrix of this quaternion in dest.
+     *
+     * @return dest
+     */
+    public Matrix3f toMatrix(Matrix3f dest) {
+        float xx = x * x, yy = y * y, zz = z * z;
+        float xy = x * y, xz = x * z, yz = y * z;
+        float xw = x * w, yw = y * w, zw = z * w;
+        dest.set(1.0f - 2.0f * (yy + zz), 2.0f * (xy + zw), 2.0f * (xz - yw),
+                2.0f * (xy - zw), 1.0f - 2.0f * (xx + zz), 2.0f * (yz + xw),
+                2.0f * (xz + yw), 2.0f * (yz - xw), 1.0f - 2.0f * (xx + yy));
+        return dest;
+    }
+
+    public String toString() {
+        return "Quaternionf { " + x + ", " + y + ", " + z + ", " + w + " }";
+    }
+}
@@ -0,0 +1,40 @@
+package com.dcronqvist.engine.math;
+
+/**
+ * Placeholder for the Vector API implementation of {@link BatchMath}, which
+ * replaces this class in META-INF/versions/17 of the multi-release jar. Since
+ * {@link #supported()} returns false it is never called, but every operation
+ * still runs the scalar loop.
+ */
+final class SimdBatchMath {
+
+    private SimdBatchMath() {
+
+    }
+
+    static boolean supported() {
+        return false;
+    }
+
+    static void transformPoints(Matrix4f mat, float[] x, float[] y, float[] z, int count) {
+        BatchMath.transformPointsScalar(mat, x, y, z, count);
+    }
+
+    static void normalize(float[] x, float[] y, float[] z, int count) {
+        BatchMath.normalizeScalar(x, y, z, count);
+    }
+
+    static void dot(float[] x, float[] y, float[] z, Vector3f v, float[] dest, int count) {
+        BatchMath.dotScalar(x, y, z, v, dest, count);
+    }
+
+    static void cullSpheres(Frustum f, float[] x, float[] y, float[] z, float[] radius, int count, long[] visible,
+            int fromWord, int toWord) {
+        f.cullSpheresScalar(x, y, z, radius, count, visible, fromWord, toWord);
+    }
+
+    static void cullAabbs(Frustum f, float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY,
+            float[] maxZ, int count, long[] visible, int fromWord, int toWord) {
+        f.cullAabbsScalar(minX, minY, minZ, maxX, maxY, maxZ, count, visible, fromWord, toWord);
+    }
+}
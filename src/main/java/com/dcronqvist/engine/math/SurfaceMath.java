@@ -1,16 +1,37 @@
 package com.dcronqvist.engine.math;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class SurfaceMath {
 
     /**
-     * Calculates the normal of a surface defined by points v1, v2 and v3 and stores
-     * it in dest. v1, v2 and v3 are not modified
+     * Meshes with fewer triangles than this are processed on the calling thread by
+     * the parallel overloads.
+     */
+    public static int parallelThreshold = 65536;
+
+    /**
+     * Calculates and returns the normal of a surface defined by points v1, v2 and
+     * v3. v1, v2 and v3 are not modified
      */
     public static Vector3f normal(Vector3f v1, Vector3f v2, Vector3f v3) {
-        Vector3f vec = new Vector3f(((v2.y - v1.y) * (v3.z - v1.z)) - ((v2.z - v1.z) * (v3.y - v1.y)),
+        return normal(v1, v2, v3, new Vector3f());
+    }
+
+    /**
+     * Calculates the normal of a surface defined by points v1, v2 and v3 and stores
+     * it in dest. Alias safe.
+     *
+     * @return dest
+     */
+    public static Vector3f normal(Vector3f v1, Vector3f v2, Vector3f v3, Vector3f dest) {
+        return dest.set(((v2.y - v1.y) * (v3.z - v1.z)) - ((v2.z - v1.z) * (v3.y - v1.y)),
                 ((v2.z - v1.z) * (v3.x - v1.x)) - ((v2.x - v1.x) * (v3.z - v1.z)),
                 ((v2.x - v1.x) * (v3.y - v1.y)) - ((v2.y - v1.y) * (v3.x - v1.x)));
-        return vec;
     }
 
     /**
@@ -25,12 +46,23 @@ public class SurfaceMath {
      * @param uv3 UV of third vertex
      */
     public static Vector3f tangent(Vector3f v1, Vector2f uv1, Vector3f v2, Vector2f uv2, Vector3f v3, Vector2f uv3) {
+        return tangent(v1, uv1, v2, uv2, v3, uv3, new Vector3f());
+    }
+
+    /**
+     * Calculates the surface tangent for the three supplied vertices and UV
+     * coordinates and stores it in dest.
+     *
+     * @return dest
+     * @see #tangent(Vector3f, Vector2f, Vector3f, Vector2f, Vector3f, Vector2f)
+     */
+    public static Vector3f tangent(Vector3f v1, Vector2f uv1, Vector3f v2, Vector2f uv2, Vector3f v3, Vector2f uv3,
+            Vector3f dest) {
         float f = 1.0f / ((uv2.x - uv1.x) * (uv3.y - uv1.y) - (uv3.x - uv1.x) * (uv2.y - uv1.y));
 
-        Vector3f vec = new Vector3f(f * ((uv3.y - uv1.y) * (v2.x - v1.x) - (uv2.y - uv1.y) * (v3.x - v1.x)),
+        return dest.set(f * ((uv3.y - uv1.y) * (v2.x - v1.x) - (uv2.y - uv1.y) * (v3.x - v1.x)),
                 f * ((uv3.y - uv1.y) * (v2.y - v1.y) - (uv2.y - uv1.y) * (v3.y - v1.y)),
                 f * ((uv3.y - uv1.y) * (v2.z - v1.z) - (uv2.y - uv1.y) * (v3.z - v1.z)));
-        return vec;
     }
 
     /**
@@ -45,12 +77,303 @@ public class SurfaceMath {
      * @param uv3 UV of third vertex
      */
     public static Vector3f binormal(Vector3f v1, Vector2f uv1, Vector3f v2, Vector2f uv2, Vector3f v3, Vector2f uv3) {
+        return binormal(v1, uv1, v2, uv2, v3, uv3, new Vector3f());
+    }
+
+    /**
+     * Calculates the surface binormal for the three supplied vertices and UV
+     * coordinates and stores it in dest.
+     *
+     * @return dest
+     * @see #binormal(Vector3f, Vector2f, Vector3f, Vector2f, Vector3f, Vector2f)
+     */
+    public static Vector3f binormal(Vector3f v1, Vector2f uv1, Vector3f v2, Vector2f uv2, Vector3f v3, Vector2f uv3,
+            Vector3f dest) {
         float f = 1.0f / ((uv2.x - uv1.x) * (uv3.y - uv1.y) - (uv3.x - uv1.x) * (uv2.y - uv1.y));
 
-        Vector3f vec = new Vector3f(f * ((uv2.x - uv1.x) * (v3.x - v1.x) - (uv3.x - uv1.x) * (v2.x - v1.x)),
+        return dest.set(f * ((uv2.x - uv1.x) * (v3.x - v1.x) - (uv3.x - uv1.x) * (v2.x - v1.x)),
                 f * ((uv2.x - uv1.x) * (v3.y - v1.y) - (uv3.x - uv1.x) * (v2.y - v1.y)),
                 f * ((uv2.x - uv1.x) * (v3.z - v1.z) - (uv3.x - uv1.x) * (v2.z - v1.z)));
-        return vec;
     }
 
+    /**
+     * Calculates smooth per-vertex normals for an indexed triangle mesh. Every
+     * vertex gets the normalized sum of the normals of the triangles using it,
+     * weighted by their area. Does not allocate.
+     *
+     * @param vertices       Vertex data, stride floats per vertex.
+     * @param stride         The amount of floats per vertex.
+     * @param positionOffset The offset of the XYZ position within a vertex.
+     * @param indices        Three indices per triangle.
+     * @param dest           Receives three floats (XYZ) per vertex, its length
+     *                       decides the amount of vertices.
+     */
+    public static void normals(float[] vertices, int stride, int positionOffset, int[] indices, float[] dest) {
+        Arrays.fill(dest, 0.0f);
+        accumulateNormals(vertices, stride, positionOffset, indices, 0, indices.length / 3, dest);
+        normalize(dest, 0, dest.length / 3);
+    }
+
+    /**
+     * Same as {@link #normals(float[], int, int, int[], float[])}, but splits the
+     * work over the supplied pool for meshes with at least
+     * {@link #parallelThreshold} triangles. Every worker accumulates into its own
+     * scratch array, so this allocates one array of dest's size per extra worker.
+     */
+    public static void normals(float[] vertices, int stride, int positionOffset, int[] indices, float[] dest,
+            ForkJoinPool pool) {
+        int triangles = indices.length / 3;
+        int parts = pool.getParallelism();
+        if (triangles < parallelThreshold || parts < 2) {
+            normals(vertices, stride, positionOffset, indices, dest);
+            return;
+        }
+
+        float[][] partials = scratch(dest, parts);
+        pool.invoke(new RangeTask(0, parts, 1, (from, to) -> {
+            for (int part = from; part < to; part++) {
+                accumulateNormals(vertices, stride, positionOffset, indices, triangles * part / parts,
+                        triangles * (part + 1) / parts, partials[part]);
+            }
+        }));
+        pool.invoke(new RangeTask(0, dest.length / 3, 4096, (from, to) -> {
+            sum(partials, from, to);
+            normalize(dest, from, to);
+        }));
+    }
+
+    /**
+     * Calculates smooth per-vertex normals for an indexed triangle mesh stored in
+     * buffers. Reads the buffers with absolute indices from 0 up to their limit, and
+     * does not change their positions.
+     *
+     * @see #normals(float[], int, int, int[], float[])
+     */
+    public static void normals(FloatBuffer vertices, int stride, int positionOffset, IntBuffer indices,
+            FloatBuffer dest) {
+        int count = dest.limit();
+        for (int i = 0; i < count; i++) {
+            dest.put(i, 0.0f);
+        }
+        for (int t = 0, n = indices.limit() - 2; t < n; t += 3) {
+            int i1 = indices.get(t) * stride + positionOffset;
+            int i2 = indices.get(t + 1) * stride + positionOffset;
+            int i3 = indices.get(t + 2) * stride + positionOffset;
+            float x1 = vertices.get(i1), y1 = vertices.get(i1 + 1), z1 = vertices.get(i1 + 2);
+            float e1x = vertices.get(i2) - x1, e1y = vertices.get(i2 + 1) - y1, e1z = vertices.get(i2 + 2) - z1;
+            float e2x = vertices.get(i3) - x1, e2y = vertices.get(i3 + 1) - y1, e2z = vertices.get(i3 + 2) - z1;
+            float nx = e1y * e2z - e1z * e2y;
+            float ny = e1z * e2x - e1x * e2z;
+            float nz = e1x * e2y - e1y * e2x;
+            add(dest, indices.get(t) * 3, nx, ny, nz);
+            add(dest, indices.get(t + 1) * 3, nx, ny, nz);
+            add(dest, indices.get(t + 2) * 3, nx, ny, nz);
+        }
+        for (int i = 0; i < count; i += 3) {
+            float x = dest.get(i), y = dest.get(i + 1), z = dest.get(i + 2);
+            float length = (float) Math.sqrt(x * x + y * y + z * z);
+            if (length > 0.0f) {
+                float s = 1.0f / length;
+                dest.put(i, x * s);
+                dest.put(i + 1, y * s);
+                dest.put(i + 2, z * s);
+            }
+        }
+    }
+
+    /**
+     * Calculates smooth per-vertex tangents, and optionally binormals, for an
+     * indexed triangle mesh with UV coordinates. Triangles with degenerate UVs are
+     * skipped. Does not allocate.
+     *
+     * @param vertices       Vertex data, stride floats per vertex.
+     * @param stride         The amount of floats per vertex.
+     * @param positionOffset The offset of the XYZ position within a vertex.
+     * @param uvOffset       The offset of the UV coordinate within a vertex.
+     * @param indices        Three indices per triangle.
+     * @param tangents       Receives three floats (XYZ) per vertex, its length
+     *                       decides the amount of vertices.
+     * @param binormals      Receives three floats per vertex, or null.
+     */
+    public static void tangents(float[] vertices, int stride, int positionOffset, int uvOffset, int[] indices,
+            float[] tangents, float[] binormals) {
+        Arrays.fill(tangents, 0.0f);
+        if (binormals != null) {
+            Arrays.fill(binormals, 0.0f);
+        }
+        accumulateTangents(vertices, stride, positionOffset, uvOffset, indices, 0, indices.length / 3, tangents,
+                binormals);
+        normalize(tangents, 0, tangents.length / 3);
+        if (binormals != null) {
+            normalize(binormals, 0, binormals.length / 3);
+        }
+    }
+
+    /**
+     * Same as {@link #tangents(float[], int, int, int, int[], float[], float[])},
+     * but splits the work over the supplied pool for meshes with at least
+     * {@link #parallelThreshold} triangles, allocating scratch arrays per extra
+     * worker.
+     */
+    public static void tangents(float[] vertices, int stride, int positionOffset, int uvOffset, int[] indices,
+            float[] tangents, float[] binormals, ForkJoinPool pool) {
+        int triangles = indices.length / 3;
+        int parts = pool.getParallelism();
+        if (triangles < parallelThreshold || parts < 2) {
+            tangents(vertices, stride, positionOffset, uvOffset, indices, tangents, binormals);
+            return;
+        }
+
+        float[][] tangentPartials = scratch(tangents, parts);
+        float[][] binormalPartials = binormals == null ? null : scratch(binormals, parts);
+        pool.invoke(new RangeTask(0, parts, 1, (from, to) -> {
+            for (int part = from; part < to; part++) {
+                accumulateTangents(vertices, stride, positionOffset, uvOffset, indices, triangles * part / parts,
+                        triangles * (part + 1) / parts, tangentPartials[part],
+                        binormalPartials == null ? null : binormalPartials[part]);
+            }
+        }));
+        pool.invoke(new RangeTask(0, tangents.length / 3, 4096, (from, to) -> {
+            sum(tangentPartials, from, to);
+            normalize(tangents, from, to);
+            if (binormalPartials != null) {
+                sum(binormalPartials, from, to);
+                normalize(binormals, from, to);
+            }
+        }));
+    }
+
+    private static void accumulateNormals(float[] v, int stride, int offset, int[] indices, int fromTriangle,
+            int toTriangle, float[] dest) {
+        for (int t = fromTriangle * 3, n = toTriangle * 3; t < n; t += 3) {
+            int a = indices[t], b = indices[t + 1], c = indices[t + 2];
+            int i1 = a * stride + offset, i2 = b * stride + offset, i3 = c * stride + offset;
+            float x1 = v[i1], y1 = v[i1 + 1], z1 = v[i1 + 2];
+            float e1x = v[i2] - x1, e1y = v[i2 + 1] - y1, e1z = v[i2 + 2] - z1;
+            float e2x = v[i3] - x1, e2y = v[i3 + 1] - y1, e2z = v[i3 + 2] - z1;
+            // Not normalized, so larger triangles weigh more
+            float nx = e1y * e2z - e1z * e2y;
+            float ny = e1z * e2x - e1x * e2z;
+            float nz = e1x * e2y - e1y * e2x;
+            add(dest, a * 3, nx, ny, nz);
+            add(dest, b * 3, nx, ny, nz);
+            add(dest, c * 3, nx, ny, nz);
+        }
+    }
+
+    private static void accumulateTangents(float[] v, int stride, int offset, int uvOffset, int[] indices,
+            int fromTriangle, int toTriangle, float[] tangents, float[] binormals) {
+        for (int t = fromTriangle * 3, n = toTriangle * 3; t < n; t += 3) {
+            int a = indices[t], b = indices[t + 1], c = indices[t + 2];
+            int i1 = a * stride, i2 = b * stride, i3 = c * stride;
+            float u1 = v[i1 + uvOffset], w1 = v[i1 + uvOffset + 1];
+            float du2 = v[i2 + uvOffset] - u1, dv2 = v[i2 + uvOffset + 1] - w1;
+            float du3 = v[i3 + uvOffset] - u1, dv3 = v[i3 + uvOffset + 1] - w1;
+            float denominator = du2 * dv3 - du3 * dv2;
+            if (denominator == 0.0f) {
+                continue;
+            }
+            float f = 1.0f / denominator;
+
+            i1 += offset;
+            i2 += offset;
+            i3 += offset;
+            float x1 = v[i1], y1 = v[i1 + 1], z1 = v[i1 + 2];
+            float e1x = v[i2] - x1, e1y = v[i2 + 1] - y1, e1z = v[i2 + 2] - z1;
+            float e2x = v[i3] - x1, e2y = v[i3 + 1] - y1, e2z = v[i3 + 2] - z1;
+
+            float tx = f * (dv3 * e1x - dv2 * e2x);
+            float ty = f * (dv3 * e1y - dv2 * e2y);
+            float tz = f * (dv3 * e1z - dv2 * e2z);
+            add(tangents, a * 3, tx, ty, tz);
+            add(tangents, b * 3, tx, ty, tz);
+            add(tangents, c * 3, tx, ty, tz);
+
+            if (binormals != null) {
+                float bx = f * (du2 * e2x - du3 * e1x);
+                float by = f * (du2 * e2y - du3 * e1y);
+                float bz = f * (du2 * e2z - du3 * e1z);
+                add(binormals, a * 3, bx, by, bz);
+                add(binormals, b * 3, bx, by, bz);
+                add(binormals, c * 3, bx, by, bz);
+            }
+        }
+    }
+
+    private static void add(float[] dest, int i, float x, float y, float z) {
+        dest[i] += x;
+        dest[i + 1] += y;
+        dest[i + 2] += z;
+    }
+
+    private static void add(FloatBuffer dest, int i, float x, float y, float z) {
+        dest.put(i, dest.get(i) + x);
+        dest.put(i + 1, dest.get(i + 1) + y);
+        dest.put(i + 2, dest.get(i + 2) + z);
+    }
+
+    /** Normalizes the XYZ vectors from index from to index to, skipping zero ones */
+    private static void normalize(float[] dest, int from, int to) {
+        for (int i = from * 3, n = to * 3; i < n; i += 3) {
+            float x = dest[i], y = dest[i + 1], z = dest[i + 2];
+            float length = (float) Math.sqrt(x * x + y * y + z * z);
+            if (length > 0.0f) {
+                float s = 1.0f / length;
+                dest[i] = x * s;
+                dest[i + 1] = y * s;
+                dest[i + 2] = z * s;
+            }
+        }
+    }
+
+    /** Returns zeroed per-worker accumulation arrays, the first one being dest */
+    private static float[][] scratch(float[] dest, int parts) {
+        float[][] partials = new float[parts][];
+        Arrays.fill(dest, 0.0f);
+        partials[0] = dest;
+        for (int i = 1; i < parts; i++) {
+            partials[i] = new float[dest.length];
+        }
+        return partials;
+    }
+
+    /** Adds every partial into the first one for the vertices from to to */
+    private static void sum(float[][] partials, int from, int to) {
+        float[] dest = partials[0];
+        for (int p = 1; p < partials.length; p++) {
+            float[] partial = partials[p];
+            for (int i = from * 3, n = to * 3; i < n; i++) {
+                dest[i] += partial[i];
+            }
+        }
+    }
+
+    interface RangeOp {
+        void run(int from, int to);
+    }
+
+    /** Splits the range from to to in halves until at most grain long */
+    static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int from, to, grain;
+        final RangeOp op;
+
+        RangeTask(int from, int to, int grain, RangeOp op) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.op = op;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                op.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, op), new RangeTask(mid, to, grain, op));
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package com.dcronqvist.engine.math;
+
+/**
+ * Transform
+ *
+ * A translation, rotation and scale, applied in the order scale, rotation,
+ * translation. Takes 10 floats instead of the 16 of a {@link Matrix4f}, and
+ * builds its matrix directly without any matrix multiplications.
+ */
+public class Transform {
+
+    public final Vector3f translation = new Vector3f();
+    public final Quaternionf rotation = new Quaternionf();
+    public final Vector3f scale = new Vector3f(1.0f, 1.0f, 1.0f);
+
+    /** Creates the identity transform */
+    public Transform() {
+
+    }
+
+    public Transform(Vector3f translation, Quaternionf rotation, Vector3f scale) {
+        set(translation, rotation, scale);
+    }
+
+    public Transform(Transform clone) {
+        set(clone.translation, clone.rotation, clone.scale);
+    }
+
+    /** Sets all the parts of this transform and returns it. */
+    public Transform set(Vector3f translation, Quaternionf rotation, Vector3f scale) {
+        this.translation.set(translation);
+        this.rotation.set(rotation);
+        this.scale.set(scale);
+        return this;
+    }
+
+    /** Resets this transform to the identity and returns it. */
+    public Transform setIdentity() {
+        translation.set(0.0f, 0.0f, 0.0f);
+        rotation.setIdentity();
+        scale.set(1.0f, 1.0f, 1.0f);
+        return this;
+    }
+
+    /**
+     * Stores the matrix of this transform in dest. Equivalent to translation *
+     * rotation * scale, but computed in a single pass.
+     *
+     * @return dest
+     */
+    public Matrix4f toMatrix(Matrix4f dest) {
+        Quaternionf q = rotation;
+        float xx = q.x * q.x, yy = q.y * q.y, zz = q.z * q.z;
+        float xy = q.x * q.y, xz = q.x * q.z, yz = q.y * q.z;
+        float xw = q.x * q.w, yw = q.y * q.w, zw = q.z * q.w;
+        float sx = scale.x, sy = scale.y, sz = scale.z;
+        dest.set((1.0f - 2.0f * (yy + zz)) * sx, 2.0f * (xy + zw) * sx, 2.0f * (xz - yw) * sx, 0.0f,
+                2.0f * (xy - zw) * sy, (1.0f - 2.0f * (xx + zz)) * sy, 2.0f * (yz + xw) * sy, 0.0f,
+                2.0f * (xz + yw) * sz, 2.0f * (yz - xw) * sz, (1.0f - 2.0f * (xx + yy)) * sz, 0.0f,
+                translation.x, translation.y, translation.z, 1.0f);
+        return dest;
+    }
+
+    /**
+     * Transforms the point v by this transform and stores the result in dest.
+     * Alias safe.
+     *
+     * @return dest
+     */
+    public Vector3f transformPoint(Vector3f v, Vector3f dest) {
+        dest.set(v.x * scale.x, v.y * scale.y, v.z * scale.z);
+        return rotation.rotate(dest, dest).addLocal(translation);
+    }
+}
@@ -20,11 +20,217 @@ public class TrigMath {
     public static final float degreesToRadians = (float) (PI / 180d);
     static public final float radiansToDegrees = (float) (180d / PI);
 
+    public static final float PI_F = (float) PI;
+    public static final float HALF_PI = (float) (PI / 2d);
+    public static final float TWO_PI = (float) (PI * 2d);
+
+    /**
+     * Selects the implementation used by {@link #sin}, {@link #cos}, {@link #tan},
+     * {@link #atan2}, {@link #sinCos} and {@link #coTangent}. When false (the
+     * default) they go through {@link java.lang.Math}, when true they use the
+     * polynomial approximations below.
+     */
+    public static boolean fastTrig = false;
+
+    /**
+     * The largest angle the fast functions reduce themselves. Larger angles, and
+     * NaN or infinite ones, are handed to java.lang.Math, so the documented
+     * errors hold for every finite angle.
+     */
+    public static final float FAST_RANGE = 1e9f;
+
+    // 2 * pi split into 25 + 25 + 53 bits for Cody-Waite range reduction. k * C1
+    // and k * C2 are exact for |k| < 2^28, which covers FAST_RANGE.
+    private static final double TWO_PI_C1 = 6.283185243606567;
+    private static final double TWO_PI_C2 = 6.357301884918343e-08;
+    private static final double TWO_PI_C3 = 2.4492935982947064e-16;
+
+    private static final int SIN_TABLE_BITS = 12;
+    private static final int SIN_TABLE_SIZE = 1 << SIN_TABLE_BITS;
+    private static final int SIN_TABLE_MASK = SIN_TABLE_SIZE - 1;
+    private static final float SIN_TABLE_SCALE = SIN_TABLE_SIZE / TWO_PI;
+    // One extra entry so that interpolation never has to wrap
+    private static final float[] SIN_TABLE = new float[SIN_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= SIN_TABLE_SIZE; i++) {
+            SIN_TABLE[i] = (float) Math.sin(i * (PI * 2d) / SIN_TABLE_SIZE);
+        }
+    }
+
     /** Return the coTangent of the supplied angle */
     public static float coTangent(float angle) {
+        if (fastTrig) {
+            return 1f / tanFast(angle);
+        }
         return (float) (1f / Math.tan(angle));
     }
 
+    /** Returns the sine of the angle, see {@link #fastTrig} */
+    public static float sin(float angle) {
+        return fastTrig ? sinFast(angle) : (float) Math.sin(angle);
+    }
+
+    /** Returns the cosine of the angle, see {@link #fastTrig} */
+    public static float cos(float angle) {
+        return fastTrig ? cosFast(angle) : (float) Math.cos(angle);
+    }
+
+    /** Returns the tangent of the angle, see {@link #fastTrig} */
+    public static float tan(float angle) {
+        return fastTrig ? tanFast(angle) : (float) Math.tan(angle);
+    }
+
+    /** Returns the angle of the point (x, y) in radians, see {@link #fastTrig} */
+    public static float atan2(float y, float x) {
+        return fastTrig ? atan2Fast(y, x) : (float) Math.atan2(y, x);
+    }
+
+    /**
+     * Stores the cosine of the angle in dest.x and the sine in dest.y, sharing the
+     * range reduction between them. See {@link #fastTrig}.
+     *
+     * @return dest
+     */
+    public static Vector2f sinCos(float angle, Vector2f dest) {
+        if (!fastTrig || !(Math.abs(angle) <= FAST_RANGE)) {
+            return dest.set((float) Math.cos(angle), (float) Math.sin(angle));
+        }
+        float x = reduce(angle);
+        // cos(x) = sin(x + pi/2), folded back into [-pi, pi]
+        float c = x + HALF_PI;
+        if (c > PI_F) {
+            c -= TWO_PI;
+        }
+        return dest.set(sinReduced(c), sinReduced(x));
+    }
+
+    /**
+     * Polynomial approximation of sine. The maximum absolute error is below 3e-7
+     * for any finite angle, i.e. within a few float ulps of Math.sin. Angles
+     * beyond {@link #FAST_RANGE} go through Math.sin.
+     */
+    public static float sinFast(float angle) {
+        if (!(Math.abs(angle) <= FAST_RANGE)) {
+            return (float) Math.sin(angle);
+        }
+        return sinReduced(reduce(angle));
+    }
+
+    /**
+     * Polynomial approximation of cosine. The maximum absolute error is below 3e-7
+     * for any finite angle. Angles beyond {@link #FAST_RANGE} go through Math.cos.
+     */
+    public static float cosFast(float angle) {
+        if (!(Math.abs(angle) <= FAST_RANGE)) {
+            return (float) Math.cos(angle);
+        }
+        float x = reduce(angle) + HALF_PI;
+        if (x > PI_F) {
+            x -= TWO_PI;
+        }
+        return sinReduced(x);
+    }
+
+    /**
+     * Tangent as sinFast / cosFast. The absolute error of both is below 3e-7, so
+     * the relative error only grows close to the poles at pi / 2 + k * pi.
+     * Angles beyond {@link #FAST_RANGE} go through Math.tan.
+     */
+    public static float tanFast(float angle) {
+        if (!(Math.abs(angle) <= FAST_RANGE)) {
+            return (float) Math.tan(angle);
+        }
+        float x = reduce(angle);
+        float c = x + HALF_PI;
+        if (c > PI_F) {
+            c -= TWO_PI;
+        }
+        return sinReduced(x) / sinReduced(c);
+    }
+
+    /**
+     * Sine from a 4096 entry lookup table with linear interpolation. The maximum
+     * absolute error is below 1e-6 for any finite angle, with angles beyond
+     * {@link #FAST_RANGE} going through Math.sin. Usually not faster than {@link #sinFast} once
+     * the table falls out of the cache, so prefer that unless measured otherwise.
+     */
+    public static float sinTable(float angle) {
+        if (!(Math.abs(angle) <= FAST_RANGE)) {
+            return (float) Math.sin(angle);
+        }
+        float index = reduce(angle) * SIN_TABLE_SCALE;
+        if (index < 0.0f) {
+            index += SIN_TABLE_SIZE;
+        }
+        int i = (int) index;
+        float t = index - i;
+        i &= SIN_TABLE_MASK;
+        return SIN_TABLE[i] + (SIN_TABLE[i + 1] - SIN_TABLE[i]) * t;
+    }
+
+    /** Cosine from the lookup table, see {@link #sinTable}. */
+    public static float cosTable(float angle) {
+        if (!(Math.abs(angle) <= FAST_RANGE)) {
+            return (float) Math.cos(angle);
+        }
+        return sinTable(reduce(angle) + HALF_PI);
+    }
+
+    /**
+     * Polynomial approximation of atan2. The maximum absolute error is below 4e-7
+     * radians. Zero inputs are handed to Math.atan2 for its signed zero rules.
+     */
+    public static float atan2Fast(float y, float x) {
+        float ax = Math.abs(x);
+        float ay = Math.abs(y);
+        float max = Math.max(ax, ay);
+        if (max == 0.0f) {
+            return (float) Math.atan2(y, x);
+        }
+        // atan of the ratio in [0, 1] (Abramowitz & Stegun 4.4.49), then mirrored
+        // into the right octant
+        float z = Math.min(ax, ay) / max;
+        float z2 = z * z;
+        float r = z * (0.9999993329f + z2 * (-0.3332985605f + z2 * (0.1994653599f + z2 * (-0.1390853351f
+                + z2 * (0.0964200441f + z2 * (-0.0559098861f + z2 * (0.0218612288f + z2 * -0.0040540580f)))))));
+        if (ay > ax) {
+            r = HALF_PI - r;
+        }
+        if (x < 0.0f) {
+            r = PI_F - r;
+        }
+        return Math.copySign(r, y);
+    }
+
+    /**
+     * Reduces an angle within {@link #FAST_RANGE} into [-pi, pi]. Subtracting the
+     * multiple of 2 * pi in three parts keeps the result accurate to about 1e-16
+     * before the final rounding, where a single double 2 * pi would be off by
+     * k * 2.4e-16.
+     */
+    private static float reduce(float angle) {
+        if (angle >= -PI_F && angle <= PI_F) {
+            return angle;
+        }
+        double k = Math.rint(angle / (PI * 2d));
+        return (float) (((angle - k * TWO_PI_C1) - k * TWO_PI_C2) - k * TWO_PI_C3);
+    }
+
+    /** Sine of an angle in [-pi, pi] */
+    private static float sinReduced(float x) {
+        // Fold into [-pi/2, pi/2] using sin(x) = sin(pi - x)
+        if (x > HALF_PI) {
+            x = PI_F - x;
+        } else if (x < -HALF_PI) {
+            x = -PI_F - x;
+        }
+        float x2 = x * x;
+        // Taylor series up to x^11, the truncation error is below 6e-8 on [-pi/2, pi/2]
+        return x * (1.0f + x2 * (-1.6666667e-1f + x2 * (8.333333e-3f + x2 * (-1.984127e-4f
+                + x2 * (2.7557319e-6f + x2 * -2.5052108e-8f)))));
+    }
+
     /** Convert the supplied degrees to radians */
     public static float degreesToRadians(float degrees) {
         return degrees * degreesToRadians;
@@ -30,6 +30,20 @@ public class Vector2f {
         this.y = clone.y;
     }
 
+    /** Sets the components of this {@link Vector2f} and returns it. */
+    public Vector2f set(float x, float y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /** Sets the components of this {@link Vector2f} to the ones in v. */
+    public Vector2f set(Vector2f v) {
+        this.x = v.x;
+        this.y = v.y;
+        return this;
+    }
+
     /**
      * Returns this {@link Vector2f}'s perpendicular {@link Vector2f}.
      */
@@ -37,6 +51,15 @@ public class Vector2f {
         return new Vector2f(this.y, -this.x);
     }
 
+    /**
+     * Stores this {@link Vector2f}'s perpendicular in dest. Alias safe.
+     * 
+     * @return dest
+     */
+    public Vector2f perpendicular(Vector2f dest) {
+        return dest.set(this.y, -this.x);
+    }
+
     /**
      * Subtracts vec from this {@link Vector2f}, and returns the result.
      * 
@@ -46,6 +69,20 @@ public class Vector2f {
         return new Vector2f(this.x - vec.x, this.y - vec.y);
     }
 
+    /**
+     * Subtracts vec from this {@link Vector2f} and stores the result in dest.
+     * 
+     * @return dest
+     */
+    public Vector2f sub(Vector2f vec, Vector2f dest) {
+        return dest.set(this.x - vec.x, this.y - vec.y);
+    }
+
+    /** Subtracts vec from this {@link Vector2f} in place and returns it. */
+    public Vector2f subLocal(Vector2f vec) {
+        return sub(vec, this);
+    }
+
     /** Returns the dot product of this vector and v */
     public float dot(Vector2f v) {
         return ((this.x * v.x) + (this.y * v.y));
@@ -72,15 +109,58 @@ public class Vector2f {
         return new Vector2f(this.x / length, this.y / length);
     }
 
+    /**
+     * Normalizes this {@link Vector2f} and stores the result in dest.
+     * 
+     * @return dest
+     */
+    public Vector2f normalize(Vector2f dest) {
+        float length = (float) Math.sqrt((x * x) + (y * y));
+        return dest.set(this.x / length, this.y / length);
+    }
+
+    /** Normalizes this {@link Vector2f} in place and returns it. */
+    public Vector2f normalizeLocal() {
+        return normalize(this);
+    }
+
     /** Adds v to this Vector2f */
     public Vector2f add(Vector2f v) {
         return new Vector2f(this.x + v.x, this.y + v.y);
     }
 
+    /**
+     * Adds v to this Vector2f and stores the result in dest.
+     * 
+     * @return dest
+     */
+    public Vector2f add(Vector2f v, Vector2f dest) {
+        return dest.set(this.x + v.x, this.y + v.y);
+    }
+
+    /** Adds v to this Vector2f in place and returns it. */
+    public Vector2f addLocal(Vector2f v) {
+        return add(v, this);
+    }
+
     public Vector2f scale(float scalar) {
         return new Vector2f(this.x * scalar, this.y * scalar);
     }
 
+    /**
+     * Scales this Vector2f by scalar and stores the result in dest.
+     * 
+     * @return dest
+     */
+    public Vector2f scale(float scalar, Vector2f dest) {
+        return dest.set(this.x * scalar, this.y * scalar);
+    }
+
+    /** Scales this Vector2f by scalar in place and returns it. */
+    public Vector2f scaleLocal(float scalar) {
+        return scale(scalar, this);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof Vector2f) {
@@ -40,6 +40,22 @@ public class Vector3f {
         this.z = clone.z;
     }
 
+    /** Sets the components of this vector and returns it. */
+    public Vector3f set(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /** Sets the components of this vector to the ones in v and returns it. */
+    public Vector3f set(Vector3f v) {
+        this.x = v.x;
+        this.y = v.y;
+        this.z = v.z;
+        return this;
+    }
+
     /**
      * Subtracts the supplied vector from this one
      */
@@ -47,6 +63,21 @@ public class Vector3f {
         return new Vector3f(this.x - v.x, this.y - v.y, this.z - v.z);
     }
 
+    /**
+     * Subtracts v from this vector and stores the result in dest. Does not modify
+     * this vector or v, dest may be either of them.
+     * 
+     * @return dest
+     */
+    public Vector3f sub(Vector3f v, Vector3f dest) {
+        return dest.set(this.x - v.x, this.y - v.y, this.z - v.z);
+    }
+
+    /** Subtracts v from this vector in place and returns this vector. */
+    public Vector3f subLocal(Vector3f v) {
+        return sub(v, this);
+    }
+
     /**
      * Adds v to this {@link Vector3f} and returns the result.
      * 
@@ -56,6 +87,21 @@ public class Vector3f {
         return new Vector3f(this.x + v.x, this.y + v.y, this.z + v.z);
     }
 
+    /**
+     * Adds v to this vector and stores the result in dest. Does not modify this
+     * vector or v, dest may be either of them.
+     * 
+     * @return dest
+     */
+    public Vector3f add(Vector3f v, Vector3f dest) {
+        return dest.set(this.x + v.x, this.y + v.y, this.z + v.z);
+    }
+
+    /** Adds v to this vector in place and returns this vector. */
+    public Vector3f addLocal(Vector3f v) {
+        return add(v, this);
+    }
+
     /**
      * Multiply this Vector3f by another Vector3f and return it.
      */
@@ -63,6 +109,20 @@ public class Vector3f {
         return new Vector3f(this.x * v.x, this.y * v.y, this.z * v.z);
     }
 
+    /**
+     * Multiplies this vector component-wise by v and stores the result in dest.
+     * 
+     * @return dest
+     */
+    public Vector3f mul(Vector3f v, Vector3f dest) {
+        return dest.set(this.x * v.x, this.y * v.y, this.z * v.z);
+    }
+
+    /** Multiplies this vector component-wise by v in place and returns it. */
+    public Vector3f mulLocal(Vector3f v) {
+        return mul(v, this);
+    }
+
     /**
      * Multiply this Vector3f by the given rotation matrix.
      */
@@ -72,6 +132,23 @@ public class Vector3f {
                 mat.m02 * this.x + mat.m12 * this.y + mat.m22 * this.z);
     }
 
+    /**
+     * Multiplies this Vector3f by the given rotation matrix and stores the result in
+     * dest. Alias safe, dest may be this vector.
+     * 
+     * @return dest
+     */
+    public Vector3f mul(Matrix4f mat, Vector3f dest) {
+        return dest.set(mat.m00 * this.x + mat.m10 * this.y + mat.m20 * this.z,
+                mat.m01 * this.x + mat.m11 * this.y + mat.m21 * this.z,
+                mat.m02 * this.x + mat.m12 * this.y + mat.m22 * this.z);
+    }
+
+    /** Multiplies this Vector3f by the given rotation matrix in place. */
+    public Vector3f mulLocal(Matrix4f mat) {
+        return mul(mat, this);
+    }
+
     /**
      * Multiply this Vector3f by the given scalar float.
      */
@@ -79,6 +156,20 @@ public class Vector3f {
         return new Vector3f(this.x * scalar, this.y * scalar, this.z * scalar);
     }
 
+    /**
+     * Multiplies this Vector3f by the given scalar and stores the result in dest.
+     * 
+     * @return dest
+     */
+    public Vector3f mul(float scalar, Vector3f dest) {
+        return dest.set(this.x * scalar, this.y * scalar, this.z * scalar);
+    }
+
+    /** Multiplies this Vector3f by the given scalar in place and returns it. */
+    public Vector3f mulLocal(float scalar) {
+        return mul(scalar, this);
+    }
+
     /**
      * Returns the length squared of this vector.
      */
@@ -101,6 +192,22 @@ public class Vector3f {
         return this.mul(1.0f / d);
     }
 
+    /**
+     * Normalizes this vector and stores the result in dest. Does not modify this
+     * vector unless dest is this vector.
+     * 
+     * @return dest
+     */
+    public Vector3f normalize(Vector3f dest) {
+        float d = length();
+        return mul(1.0f / d, dest);
+    }
+
+    /** Normalizes this vector in place and returns it. */
+    public Vector3f normalizeLocal() {
+        return normalize(this);
+    }
+
     /**
      * Returns the cross product of this vector and other vec.
      * 
@@ -111,6 +218,22 @@ public class Vector3f {
                 this.x * vec.y - this.y * vec.x);
     }
 
+    /**
+     * Calculates the cross product of this vector and vec and stores it in dest.
+     * Alias safe, dest may be this vector or vec.
+     * 
+     * @return dest
+     */
+    public Vector3f cross(Vector3f vec, Vector3f dest) {
+        return dest.set(this.y * vec.z - this.z * vec.y, this.z * vec.x - this.x * vec.z,
+                this.x * vec.y - this.y * vec.x);
+    }
+
+    /** Sets this vector to the cross product of itself and vec, and returns it. */
+    public Vector3f crossLocal(Vector3f vec) {
+        return cross(vec, this);
+    }
+
     public float dot(Vector3f vec) {
         return (this.x * vec.x) + (this.y * vec.y) + (this.z * vec.z);
     }
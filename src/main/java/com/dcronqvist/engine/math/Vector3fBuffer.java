@@ -0,0 +1,231 @@
+package com.dcronqvist.engine.math;
+
+import static org.lwjgl.system.MemoryUtil.memCallocFloat;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Vector3fBuffer
+ *
+ * A fixed number of 3 float vectors stored tightly packed (x, y, z, x, y, z,
+ * ...) in a direct {@link FloatBuffer}. Since the data lives off-heap in the
+ * layout OpenGL expects for a vec3 attribute, {@link #buffer()} can be handed
+ * straight to glBufferData without copying.
+ *
+ * All bulk operations work in place on the whole buffer and do not allocate.
+ */
+public class Vector3fBuffer implements AutoCloseable {
+
+    FloatBuffer data;
+    int size;
+    boolean owned;
+
+    /**
+     * Allocates a new zeroed off-heap buffer with room for size vectors. The
+     * memory is not managed by the garbage collector, so {@link #free()} must be
+     * called once the buffer is no longer used.
+     *
+     * @param size The amount of vectors in the buffer.
+     */
+    public Vector3fBuffer(int size) {
+        this.data = memCallocFloat(size * 3);
+        this.size = size;
+        this.owned = true;
+    }
+
+    /**
+     * Wraps an existing {@link FloatBuffer}, the vectors start at index 0 of the
+     * buffer. The buffer is not freed by {@link #free()}.
+     *
+     * @param buffer The buffer holding at least size * 3 floats.
+     * @param size   The amount of vectors in the buffer.
+     */
+    public Vector3fBuffer(FloatBuffer buffer, int size) {
+        if (buffer.capacity() < size * 3) {
+            throw new IllegalArgumentException("Buffer of capacity " + buffer.capacity() + " cannot hold " + size
+                    + " vectors.");
+        }
+        this.data = buffer;
+        this.size = size;
+        this.owned = false;
+    }
+
+    /** Returns the amount of vectors in this buffer */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the backing {@link FloatBuffer}, positioned at 0 and limited to the
+     * vectors in this buffer, ready to be uploaded with glBufferData.
+     */
+    public FloatBuffer buffer() {
+        data.clear();
+        data.limit(size * 3);
+        return data;
+    }
+
+    /** Returns the x component of the vector at index */
+    public float getX(int index) {
+        return data.get(index * 3);
+    }
+
+    /** Returns the y component of the vector at index */
+    public float getY(int index) {
+        return data.get(index * 3 + 1);
+    }
+
+    /** Returns the z component of the vector at index */
+    public float getZ(int index) {
+        return data.get(index * 3 + 2);
+    }
+
+    /**
+     * Copies the vector at index into dest.
+     *
+     * @return dest
+     */
+    public Vector3f get(int index, Vector3f dest) {
+        int i = index * 3;
+        return dest.set(data.get(i), data.get(i + 1), data.get(i + 2));
+    }
+
+    /** Sets the vector at index to the supplied values */
+    public void set(int index, float x, float y, float z) {
+        int i = index * 3;
+        data.put(i, x);
+        data.put(i + 1, y);
+        data.put(i + 2, z);
+    }
+
+    /** Sets the vector at index to v */
+    public void set(int index, Vector3f v) {
+        set(index, v.x, v.y, v.z);
+    }
+
+    /**
+     * Transforms every vector as a point (w = 1) by the supplied matrix, including
+     * its translation.
+     */
+    public void transformPoints(Matrix4f mat) {
+        FloatBuffer d = data;
+        for (int i = 0, n = size * 3; i < n; i += 3) {
+            float x = d.get(i);
+            float y = d.get(i + 1);
+            float z = d.get(i + 2);
+            d.put(i, mat.m00 * x + mat.m10 * y + mat.m20 * z + mat.m30);
+            d.put(i + 1, mat.m01 * x + mat.m11 * y + mat.m21 * z + mat.m31);
+            d.put(i + 2, mat.m02 * x + mat.m12 * y + mat.m22 * z + mat.m32);
+        }
+    }
+
+    /**
+     * Transforms every vector as a direction (w = 0) by the supplied matrix,
+     * ignoring its translation. Same as {@link Vector3f#mul(Matrix4f)} for every
+     * vector.
+     */
+    public void transformDirections(Matrix4f mat) {
+        FloatBuffer d = data;
+        for (int i = 0, n = size * 3; i < n; i += 3) {
+            float x = d.get(i);
+            float y = d.get(i + 1);
+            float z = d.get(i + 2);
+            d.put(i, mat.m00 * x + mat.m10 * y + mat.m20 * z);
+            d.put(i + 1, mat.m01 * x + mat.m11 * y + mat.m21 * z);
+            d.put(i + 2, mat.m02 * x + mat.m12 * y + mat.m22 * z);
+        }
+    }
+
+    /** Adds v to every vector in this buffer */
+    public void add(Vector3f v) {
+        FloatBuffer d = data;
+        float x = v.x, y = v.y, z = v.z;
+        for (int i = 0, n = size * 3; i < n; i += 3) {
+            d.put(i, d.get(i) + x);
+            d.put(i + 1, d.get(i + 1) + y);
+            d.put(i + 2, d.get(i + 2) + z);
+        }
+    }
+
+    /** Adds the vectors in other to the vectors in this buffer, pairwise */
+    public void add(Vector3fBuffer other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Buffer sizes differ: " + size + " and " + other.size + ".");
+        }
+        FloatBuffer d = data;
+        FloatBuffer o = other.data;
+        for (int i = 0, n = size * 3; i < n; i++) {
+            d.put(i, d.get(i) + o.get(i));
+        }
+    }
+
+    /** Multiplies every vector in this buffer by the scalar */
+    public void scale(float scalar) {
+        FloatBuffer d = data;
+        for (int i = 0, n = size * 3; i < n; i++) {
+            d.put(i, d.get(i) * scalar);
+        }
+    }
+
+    /** Normalizes every vector in this buffer */
+    public void normalize() {
+        FloatBuffer d = data;
+        for (int i = 0, n = size * 3; i < n; i += 3) {
+            float x = d.get(i);
+            float y = d.get(i + 1);
+            float z = d.get(i + 2);
+            float s = 1.0f / (float) Math.sqrt(x * x + y * y + z * z);
+            d.put(i, x * s);
+            d.put(i + 1, y * s);
+            d.put(i + 2, z * s);
+        }
+    }
+
+    /**
+     * Sets every vector in this buffer to the cross product of itself and v.
+     */
+    public void cross(Vector3f v) {
+        FloatBuffer d = data;
+        float vx = v.x, vy = v.y, vz = v.z;
+        for (int i = 0, n = size * 3; i < n; i += 3) {
+            float x = d.get(i);
+            float y = d.get(i + 1);
+            float z = d.get(i + 2);
+            d.put(i, y * vz - z * vy);
+            d.put(i + 1, z * vx - x * vz);
+            d.put(i + 2, x * vy - y * vx);
+        }
+    }
+
+    /**
+     * Calculates the dot product of every vector in this buffer with v and stores
+     * them in dest.
+     *
+     * @param v    The vector to take the dot product with.
+     * @param dest An array with room for at least {@link #size()} floats.
+     */
+    public void dot(Vector3f v, float[] dest) {
+        FloatBuffer d = data;
+        float vx = v.x, vy = v.y, vz = v.z;
+        for (int i = 0, j = 0; j < size; i += 3, j++) {
+            dest[j] = d.get(i) * vx + d.get(i + 1) * vy + d.get(i + 2) * vz;
+        }
+    }
+
+    /**
+     * Frees the off-heap memory of this buffer if it was allocated by it. The
+     * buffer must not be used afterwards.
+     */
+    public void free() {
+        if (owned && data != null) {
+            memFree(data);
+        }
+        data = null;
+    }
+
+    @Override
+    public void close() {
+        free();
+    }
+}
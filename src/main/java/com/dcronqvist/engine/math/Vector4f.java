@@ -45,4 +45,101 @@ public class Vector4f {
 		this.w = w;
 	}
 
+	/**
+	 * Adds v to this vector and stores the result in dest.
+	 * 
+	 * @return dest
+	 */
+	public Vector4f add(Vector4f v, Vector4f dest) {
+		dest.set(x + v.x, y + v.y, z + v.z, w + v.w);
+		return dest;
+	}
+
+	/** Adds v to this vector in place and returns it. */
+	public Vector4f addLocal(Vector4f v) {
+		return add(v, this);
+	}
+
+	/**
+	 * Subtracts v from this vector and stores the result in dest.
+	 * 
+	 * @return dest
+	 */
+	public Vector4f sub(Vector4f v, Vector4f dest) {
+		dest.set(x - v.x, y - v.y, z - v.z, w - v.w);
+		return dest;
+	}
+
+	/** Subtracts v from this vector in place and returns it. */
+	public Vector4f subLocal(Vector4f v) {
+		return sub(v, this);
+	}
+
+	/**
+	 * Multiplies this vector by the scalar and stores the result in dest.
+	 * 
+	 * @return dest
+	 */
+	public Vector4f mul(float scalar, Vector4f dest) {
+		dest.set(x * scalar, y * scalar, z * scalar, w * scalar);
+		return dest;
+	}
+
+	/** Multiplies this vector by the scalar in place and returns it. */
+	public Vector4f mulLocal(float scalar) {
+		return mul(scalar, this);
+	}
+
+	/**
+	 * Transforms this vector by the supplied matrix and stores the result in
+	 * dest. Alias safe, dest may be this vector.
+	 * 
+	 * @return dest
+	 */
+	public Vector4f mul(Matrix4f mat, Vector4f dest) {
+		dest.set(mat.m00 * x + mat.m10 * y + mat.m20 * z + mat.m30 * w,
+				mat.m01 * x + mat.m11 * y + mat.m21 * z + mat.m31 * w,
+				mat.m02 * x + mat.m12 * y + mat.m22 * z + mat.m32 * w,
+				mat.m03 * x + mat.m13 * y + mat.m23 * z + mat.m33 * w);
+		return dest;
+	}
+
+	/** Transforms this vector by the supplied matrix in place and returns it. */
+	public Vector4f mulLocal(Matrix4f mat) {
+		return mul(mat, this);
+	}
+
+	/** Returns the dot product of this vector and v. */
+	public float dot(Vector4f v) {
+		return x * v.x + y * v.y + z * v.z + w * v.w;
+	}
+
+	/** Returns the length squared of this vector. */
+	public float lengthSquared() {
+		return x * x + y * y + z * z + w * w;
+	}
+
+	/** Returns the length of this vector. */
+	public float length() {
+		return (float) Math.sqrt(lengthSquared());
+	}
+
+	/**
+	 * Normalizes this vector and stores the result in dest.
+	 * 
+	 * @return dest
+	 */
+	public Vector4f normalize(Vector4f dest) {
+		return mul(1.0f / length(), dest);
+	}
+
+	/** Normalizes this vector in place and returns it. */
+	public Vector4f normalizeLocal() {
+		return normalize(this);
+	}
+
+	public String toString() {
+		return "Vector4f { " + x + ", " + y + ", " + z + ", " + w + " }";
+	}
+
 }
\ No newline at end of file
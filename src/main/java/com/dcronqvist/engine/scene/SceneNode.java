@@ -0,0 +1,250 @@
+package com.dcronqvist.engine.scene;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dcronqvist.engine.math.Matrix4f;
+import com.dcronqvist.engine.math.Quaternionf;
+import com.dcronqvist.engine.math.Transform;
+import com.dcronqvist.engine.math.Vector3f;
+
+/**
+ * SceneNode
+ *
+ * A node in a transform hierarchy. Every node caches its local matrix and its
+ * world matrix (parent world * local), and only recomputes them when its own
+ * transform or one of its ancestors' has changed. Subtrees without any changes
+ * are skipped entirely by {@link #update()}, so static geometry costs nothing per
+ * frame.
+ *
+ * The hierarchy must not be modified while an update is running.
+ */
+public class SceneNode {
+
+    /**
+     * Subtrees with fewer nodes than this are updated on the calling thread by
+     * {@link #update(ForkJoinPool)}, since forking them costs more than it saves.
+     */
+    public static int parallelThreshold = 512;
+
+    final Transform transform = new Transform();
+    final Matrix4f localMatrix = Matrix4f.identity();
+    final Matrix4f worldMatrix = Matrix4f.identity();
+
+    SceneNode parent;
+    final ArrayList<SceneNode> children = new ArrayList<>();
+    int subtreeSize = 1;
+
+    /** This node's transform changed since the last update */
+    boolean dirty = true;
+    /** Some node below this one is dirty */
+    boolean childDirty;
+
+    public SceneNode() {
+
+    }
+
+    public SceneNode(Transform transform) {
+        this.transform.set(transform.translation, transform.rotation, transform.scale);
+    }
+
+    /**
+     * Returns the local transform of this node. If it is modified directly,
+     * {@link #markDirty()} must be called afterwards.
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /** Sets the local translation of this node. */
+    public void setTranslation(Vector3f translation) {
+        transform.translation.set(translation);
+        markDirty();
+    }
+
+    /** Sets the local rotation of this node. */
+    public void setRotation(Quaternionf rotation) {
+        transform.rotation.set(rotation);
+        markDirty();
+    }
+
+    /** Sets the local scale of this node. */
+    public void setScale(Vector3f scale) {
+        transform.scale.set(scale);
+        markDirty();
+    }
+
+    /**
+     * Flags this node's transform as changed, so that it and its subtree are
+     * recomputed on the next update.
+     */
+    public void markDirty() {
+        dirty = true;
+        for (SceneNode p = parent; p != null && !p.childDirty; p = p.parent) {
+            p.childDirty = true;
+        }
+    }
+
+    /** Returns whether this node or any node below it needs to be updated. */
+    public boolean isDirty() {
+        return dirty || childDirty;
+    }
+
+    /** Returns the cached local matrix, valid after the last update. */
+    public Matrix4f getLocalMatrix() {
+        return localMatrix;
+    }
+
+    /** Returns the cached world matrix, valid after the last update. */
+    public Matrix4f getWorldMatrix() {
+        return worldMatrix;
+    }
+
+    public SceneNode getParent() {
+        return parent;
+    }
+
+    public List<SceneNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /** Returns the amount of nodes in this subtree, including this node. */
+    public int getSubtreeSize() {
+        return subtreeSize;
+    }
+
+    /**
+     * Attaches child to this node, detaching it from its previous parent first.
+     */
+    public void addChild(SceneNode child) {
+        if (child.parent != null) {
+            child.parent.removeChild(child);
+        }
+        children.add(child);
+        child.parent = this;
+        addSubtreeSize(child.subtreeSize);
+        // The child's world matrix depends on its new parent
+        child.markDirty();
+    }
+
+    /**
+     * Detaches child from this node.
+     *
+     * @return Whether child was a child of this node.
+     */
+    public boolean removeChild(SceneNode child) {
+        if (!children.remove(child)) {
+            return false;
+        }
+        child.parent = null;
+        addSubtreeSize(-child.subtreeSize);
+        child.markDirty();
+        return true;
+    }
+
+    private void addSubtreeSize(int amount) {
+        for (SceneNode n = this; n != null; n = n.parent) {
+            n.subtreeSize += amount;
+        }
+    }
+
+    /**
+     * Recomputes the local and world matrices of every changed node in this
+     * subtree, on the calling thread. Should be called on the root.
+     */
+    public void update() {
+        update(false);
+    }
+
+    /**
+     * Recomputes the local and world matrices of every changed node in this
+     * subtree, updating large independent subtrees in parallel on the supplied
+     * pool. Should be called on the root.
+     */
+    public void update(ForkJoinPool pool) {
+        if (!isDirty()) {
+            return;
+        }
+        if (subtreeSize < parallelThreshold) {
+            update();
+        } else {
+            pool.invoke(new UpdateTask(this, false));
+        }
+    }
+
+    private void update(boolean parentChanged) {
+        boolean changed = updateSelf(parentChanged);
+        if (changed || childDirty) {
+            for (int i = 0, n = children.size(); i < n; i++) {
+                children.get(i).update(changed);
+            }
+        }
+        childDirty = false;
+    }
+
+    /**
+     * Recomputes this node's matrices if needed, and returns whether its world
+     * matrix changed.
+     */
+    private boolean updateSelf(boolean parentChanged) {
+        boolean changed = parentChanged || dirty;
+        if (dirty) {
+            transform.toMatrix(localMatrix);
+            dirty = false;
+        }
+        if (changed) {
+            if (parent == null) {
+                worldMatrix.set(localMatrix);
+            } else {
+                Matrix4f.mulFast(parent.worldMatrix, localMatrix, worldMatrix);
+            }
+        }
+        return changed;
+    }
+
+    static class UpdateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final SceneNode node;
+        final boolean parentChanged;
+
+        UpdateTask(SceneNode node, boolean parentChanged) {
+            this.node = node;
+            this.parentChanged = parentChanged;
+        }
+
+        @Override
+        protected void compute() {
+            boolean changed = node.updateSelf(parentChanged);
+            if (changed || node.childDirty) {
+                ArrayList<SceneNode> children = node.children;
+                ArrayList<UpdateTask> forked = null;
+                for (int i = 0, n = children.size(); i < n; i++) {
+                    SceneNode child = children.get(i);
+                    if (!changed && !child.isDirty()) {
+                        continue;
+                    }
+                    if (child.subtreeSize < parallelThreshold) {
+                        child.update(changed);
+                    } else {
+                        if (forked == null) {
+                            forked = new ArrayList<>();
+                        }
+                        UpdateTask task = new UpdateTask(child, changed);
+                        task.fork();
+                        forked.add(task);
+                    }
+                }
+                if (forked != null) {
+                    for (int i = 0; i < forked.size(); i++) {
+                        forked.get(i).join();
+                    }
+                }
+            }
+            node.childDirty = false;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.dcronqvist.engine.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * FileIO
+ *
+ * Bulk file and classpath resource loading. Text is always decoded as UTF-8.
+ * Binary data is returned in direct, native order buffers that can be passed
+ * straight to OpenGL, and files of at least {@link #mapThreshold} bytes are
+ * memory-mapped instead of copied onto the heap.
+ *
+ * Locations starting with {@code classpath:} are loaded as resources of the
+ * context class loader, e.g. {@code classpath:shaders/basic.vert}, anything
+ * else as a file path.
+ */
+public final class FileIO {
+    /** The prefix of locations that are classpath resources */
+    public static final String CLASSPATH = "classpath:";
+
+    /** Files at least this large, 1 MB by default, are memory-mapped by load() */
+    public static int mapThreshold = 1 << 20;
+
+    private FileIO() {
+
+    }
+
+    /** Returns the whole file or resource at location decoded as UTF-8. */
+    public static String readText(String location) throws IOException {
+        return new String(readBytes(location), StandardCharsets.UTF_8);
+    }
+
+    /** Returns the whole file decoded as UTF-8. */
+    public static String readText(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    /** Returns the whole file or resource at location. */
+    public static byte[] readBytes(String location) throws IOException {
+        if (location.startsWith(CLASSPATH)) {
+            return readResource(location.substring(CLASSPATH.length()));
+        }
+        return Files.readAllBytes(Paths.get(location));
+    }
+
+    /**
+     * Returns the whole file or resource at location in a direct buffer, see
+     * {@link #load(Path)}.
+     */
+    public static ByteBuffer load(String location) throws IOException {
+        if (location.startsWith(CLASSPATH)) {
+            byte[] bytes = readResource(location.substring(CLASSPATH.length()));
+            ByteBuffer buffer = BufferUtils.createByteBuffer(bytes.length);
+            buffer.put(bytes).flip();
+            return buffer;
+        }
+        return load(Paths.get(location));
+    }
+
+    /**
+     * Returns the whole file in a direct, native order buffer positioned at 0.
+     * Files of at least {@link #mapThreshold} bytes are memory-mapped, smaller
+     * ones read straight into the buffer through the channel.
+     */
+    public static ByteBuffer load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= mapThreshold) {
+                return map(channel, file);
+            }
+            ByteBuffer buffer = BufferUtils.createByteBuffer((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Memory-maps the whole file read-only, in native byte order. The pages are
+     * read lazily by the OS and the mapping stays valid until the buffer is
+     * garbage collected, even though the file is closed right away.
+     */
+    public static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return map(channel, file);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, Path file) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("File too large to map: " + file);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        buffer.order(ByteOrder.nativeOrder());
+        return buffer;
+    }
+
+    /**
+     * Returns the whole classpath resource, looked up with the context class
+     * loader, or this class's loader if there is none.
+     *
+     * @param name The resource name, e.g. shaders/basic.vert, without a leading
+     *             slash.
+     */
+    public static byte[] readResource(String name) throws IOException {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = FileIO.class.getClassLoader();
+        }
+        try (InputStream in = loader.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new NoSuchFileException(CLASSPATH + name);
+            }
+            return readAll(in);
+        }
+    }
+
+    /** Reads the rest of in in bulk, without closing it */
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 8192));
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            out.write(chunk, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
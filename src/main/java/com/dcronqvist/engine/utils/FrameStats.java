@@ -0,0 +1,218 @@
+package com.dcronqvist.engine.utils;
+
+import java.util.Arrays;
+
+/**
+ * FrameStats
+ *
+ * Rolling statistics over the durations of the last frames: an exponentially
+ * smoothed frame rate, percentiles, the maximum and a count of hitches. The
+ * durations are kept in a ring and counted in a histogram of
+ * {@link #BUCKET_NANOS} wide buckets, which is updated as frames enter and
+ * leave the window, so recording and every query are allocation-free.
+ * Percentiles are rounded up to the next bucket, but never above the maximum.
+ *
+ * BaseWindow records every frame into {@link GameTime#stats}.
+ */
+public class FrameStats {
+    /** The width of a histogram bucket, 0.1 ms */
+    public static final long BUCKET_NANOS = 100_000L;
+    /** Frames longer than BUCKETS * BUCKET_NANOS, 100 ms, share the last bucket */
+    static final int BUCKETS = 1000;
+
+    /** The time constant of the smoothed frame time in seconds */
+    public double smoothing = 0.5;
+    /**
+     * A frame counts as a hitch when it takes more than this many times the
+     * smoothed frame time before it
+     */
+    public double hitchFactor = 2.0;
+
+    final long[] durations;
+    final boolean[] hitch;
+    final int[] histogram = new int[BUCKETS];
+    int count;
+    int next;
+    int windowHitches;
+    long totalHitches;
+    long frames;
+    double smoothedDelta;
+
+    /**
+     * @param window The amount of frames the percentiles, maximum and window
+     *               hitches are taken over.
+     */
+    public FrameStats(int window) {
+        this.durations = new long[window];
+        this.hitch = new boolean[window];
+    }
+
+    /** Records a frame that took deltaSeconds. Ignored unless positive. */
+    public void record(double deltaSeconds) {
+        if (!(deltaSeconds > 0.0)) {
+            return;
+        }
+
+        boolean isHitch = frames > 0 && deltaSeconds > hitchFactor * smoothedDelta;
+        if (frames == 0) {
+            smoothedDelta = deltaSeconds;
+        } else {
+            // Weighted by duration, so the smoothing does not depend on the frame rate
+            smoothedDelta += (1.0 - Math.exp(-deltaSeconds / smoothing)) * (deltaSeconds - smoothedDelta);
+        }
+        frames++;
+
+        if (count == durations.length) {
+            histogram[bucket(durations[next])]--;
+            if (hitch[next]) {
+                windowHitches--;
+            }
+        } else {
+            count++;
+        }
+        long nanos = Math.round(deltaSeconds * 1e9);
+        durations[next] = nanos;
+        hitch[next] = isHitch;
+        histogram[bucket(nanos)]++;
+        if (isHitch) {
+            windowHitches++;
+            totalHitches++;
+        }
+        next = next + 1 == durations.length ? 0 : next + 1;
+    }
+
+    /** Forgets every recorded frame */
+    public void reset() {
+        Arrays.fill(histogram, 0);
+        count = 0;
+        next = 0;
+        windowHitches = 0;
+        totalHitches = 0;
+        frames = 0;
+        smoothedDelta = 0.0;
+    }
+
+    private static int bucket(long nanos) {
+        return (int) Math.min(nanos / BUCKET_NANOS, BUCKETS - 1);
+    }
+
+    /** Returns the amount of frames recorded since the last reset */
+    public long getFrames() {
+        return frames;
+    }
+
+    /** Returns the amount of frames currently in the window */
+    public int getCount() {
+        return count;
+    }
+
+    /** Returns the exponentially smoothed frame rate, 0 before the first frame */
+    public double getFPS() {
+        return smoothedDelta > 0.0 ? 1.0 / smoothedDelta : 0.0;
+    }
+
+    /** Returns the exponentially smoothed frame time in seconds */
+    public double getSmoothedDelta() {
+        return smoothedDelta;
+    }
+
+    /**
+     * Returns the frame time in seconds that p percent of the frames in the window
+     * took at most, e.g. 99 for the 99th percentile. 0 when no frames were
+     * recorded.
+     */
+    public double getPercentile(double p) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(p / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * BUCKET_NANOS, getMaxNanos()) / 1e9;
+            }
+        }
+        return getMax();
+    }
+
+    public double getP50() {
+        return getPercentile(50.0);
+    }
+
+    public double getP95() {
+        return getPercentile(95.0);
+    }
+
+    public double getP99() {
+        return getPercentile(99.0);
+    }
+
+    /** Returns the longest frame time in the window in seconds */
+    public double getMax() {
+        return getMaxNanos() / 1e9;
+    }
+
+    private long getMaxNanos() {
+        long max = 0L;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, durations[i]);
+        }
+        return max;
+    }
+
+    /** Returns the amount of hitches in the window */
+    public int getWindowHitches() {
+        return windowHitches;
+    }
+
+    /** Returns the amount of hitches since the last reset */
+    public long getTotalHitches() {
+        return totalHitches;
+    }
+
+    /**
+     * Appends a one line summary such as
+     * {@code fps 59.9 p50 16.70 p95 16.90 p99 17.10 max 33.40 ms hitches 1} to
+     * out, without allocating once out has grown to fit.
+     *
+     * @return out
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        out.append("fps ");
+        appendFixed(out, Math.round(getFPS() * 10.0), 1);
+        out.append(" p50 ");
+        appendMillis(out, getP50());
+        out.append(" p95 ");
+        appendMillis(out, getP95());
+        out.append(" p99 ");
+        appendMillis(out, getP99());
+        out.append(" max ");
+        appendMillis(out, getMax());
+        out.append(" ms hitches ").append(windowHitches);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(64)).toString();
+    }
+
+    private static void appendMillis(StringBuilder out, double seconds) {
+        appendFixed(out, Math.round(seconds * 1e5), 2);
+    }
+
+    /** Appends the non-negative value / 10^decimals with exactly decimals digits */
+    static void appendFixed(StringBuilder out, long value, int decimals) {
+        long scale = 1L;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10L;
+        }
+        out.append(value / scale).append('.');
+        long fraction = value % scale;
+        for (long digit = scale / 10L; digit > 1L && fraction < digit; digit /= 10L) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
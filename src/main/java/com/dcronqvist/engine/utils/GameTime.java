@@ -1,10 +1,49 @@
 package com.dcronqvist.engine.utils;
 
+/**
+ * The time of the current frame, set by BaseWindow before update() and render().
+ * totalSeconds and deltaSeconds are the precise values, totalTime and deltaTime
+ * float copies of them for convenience. A float total time only has millisecond
+ * precision after a few hours, so use totalSeconds for anything long running.
+ */
 public class GameTime {
+    /** The amount of frames {@link #stats} are taken over, 10 seconds at 60 fps */
+    public static final int STATS_WINDOW = 600;
+
+    public static double deltaSeconds;
+    public static double totalSeconds;
+
     public static float deltaTime;
     public static float totalTime;
 
+    /**
+     * With a fixed timestep, how far the frame being rendered is between the last
+     * update and the next one, from 0 to 1. Always 1 with a variable timestep.
+     */
+    public static float alpha = 1.0f;
+
+    /** The amount of times update() ran during the current frame. */
+    public static int updates;
+
+    /** Frame time statistics of the last {@link #STATS_WINDOW} frames. */
+    public static final FrameStats stats = new FrameStats(STATS_WINDOW);
+
+    /** Sets the total and delta time in seconds, without recording a frame. */
+    public static void set(double totalSeconds, double deltaSeconds) {
+        GameTime.totalSeconds = totalSeconds;
+        GameTime.deltaSeconds = deltaSeconds;
+        GameTime.totalTime = (float) totalSeconds;
+        GameTime.deltaTime = (float) deltaSeconds;
+    }
+
+    /** Sets the time of a new frame and records its delta in {@link #stats}. */
+    public static void beginFrame(double totalSeconds, double deltaSeconds) {
+        set(totalSeconds, deltaSeconds);
+        stats.record(deltaSeconds);
+    }
+
+    /** Returns the exponentially smoothed frame rate, see {@link FrameStats}. */
     public static float getFPS() {
-        return 1f / deltaTime;
+        return (float) stats.getFPS();
     }
 }
@@ -1,99 +1,331 @@
 package com.dcronqvist.engine.utils;
 
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LAST;
 import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+import static org.lwjgl.glfw.GLFW.GLFW_RELEASE;
 import static org.lwjgl.glfw.GLFW.glfwGetCursorPos;
 import static org.lwjgl.glfw.GLFW.glfwGetKey;
-import static org.lwjgl.glfw.GLFW.glfwGetKeyScancode;
 import static org.lwjgl.glfw.GLFW.glfwGetMouseButton;
+import static org.lwjgl.glfw.GLFW.glfwSetCursorPosCallback;
+import static org.lwjgl.glfw.GLFW.glfwSetMouseButtonCallback;
 import static org.lwjgl.glfw.GLFW.glfwSetScrollCallback;
-import static org.lwjgl.system.MemoryStack.stackPush;
 
-import java.nio.DoubleBuffer;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.dcronqvist.engine.math.Vector2f;
 
-import org.lwjgl.system.MemoryStack;
-
+/**
+ * Keyboard and mouse state. The GLFW callbacks installed by {@link #init(long)}
+ * (and the key callback of BaseWindow) push timestamped events into a
+ * preallocated lock-free queue, which {@link #begin()} drains once per frame.
+ * Nothing is polled, and a key pressed and released within a single frame
+ * still shows up in {@link #isKeyPressed(int)} and {@link #isKeyReleased(int)}.
+ *
+ * Key and button state is kept in bitsets, one bit per GLFW key code or mouse
+ * button, so queries are plain array lookups. Key codes must be within 0 and
+ * GLFW_KEY_LAST, buttons within 0 and GLFW_MOUSE_BUTTON_LAST.
+ *
+ * A quarter of the queue is kept free for key and button events. If one is
+ * dropped anyway, begin() releases the keys and buttons GLFW no longer reports
+ * as down, so a lost release cannot leave them stuck.
+ */
 public class Input {
+    static final int KEY_WORDS = (GLFW_KEY_LAST >>> 6) + 1;
+    static final int QUEUE_CAPACITY = 1024;
+    static final int QUEUE_RESERVED = QUEUE_CAPACITY / 4;
+
     static long windowHandle;
-    static HashMap<Integer, Boolean> currentKeyState;
-    static HashMap<Integer, Boolean> previousKeyState;
-    static HashMap<Integer, Boolean> currentMouseState;
-    static HashMap<Integer, Boolean> previousMouseState;
-    static float currentMouseWheel;
-    static float previousMouseWheel;
+    static final InputEventQueue events = new InputEventQueue(QUEUE_CAPACITY, QUEUE_RESERVED);
+    /** Set when a key or button event was dropped, until begin() resyncs */
+    static final AtomicBoolean lostKeys = new AtomicBoolean();
+    static final InputEvent event = new InputEvent();
+
+    static final long[] keyDown = new long[KEY_WORDS];
+    static final long[] keyPressed = new long[KEY_WORDS];
+    static final long[] keyReleased = new long[KEY_WORDS];
+    static int mouseDown;
+    static int mousePressed;
+    static int mouseReleased;
+    static double mouseX;
+    static double mouseY;
+    /** The cursor position at the end of the previous frame, for the delta */
+    static double lastMouseX;
+    static double lastMouseY;
+    static boolean cursorKnown;
+    static float mouseWheelMove;
+
+    static InputRecorder recorder;
 
+    /**
+     * Installs the mouse callbacks on the window. Should be called before any
+     * other library, e.g. ImGui, installs and chains its own callbacks.
+     */
     public static void init(long handle) {
         windowHandle = handle;
+        glfwSetMouseButtonCallback(windowHandle, (window, button, action, mods) -> {
+            onMouseButton(button, action, mods);
+        });
+        glfwSetCursorPosCallback(windowHandle, (window, x, y) -> {
+            onCursorPos(x, y);
+        });
         glfwSetScrollCallback(windowHandle, (window, x, y) -> {
-            currentMouseWheel += y;
+            onScroll(x, y);
         });
+
+        // The callback only fires on movement, so start from the current position
+        double[] x = new double[1], y = new double[1];
+        glfwGetCursorPos(windowHandle, x, y);
+        onCursorPos(x[0], y[0]);
     }
 
-    public static void setKey(int key, boolean value) {
-        currentKeyState.put(key, value);
+    /** Queues a key event, to be called from a GLFW key callback. */
+    public static void onKey(int key, int scancode, int action, int mods) {
+        if (key >= 0 && key <= GLFW_KEY_LAST
+                && !events.offer(InputEvent.KEY, key, action, mods, 0.0, 0.0, System.nanoTime())) {
+            lostKeys.set(true);
+        }
+    }
+
+    /** Queues a mouse button event, to be called from a GLFW callback. */
+    public static void onMouseButton(int button, int action, int mods) {
+        if (button >= 0 && button <= GLFW_MOUSE_BUTTON_LAST
+                && !events.offer(InputEvent.MOUSE_BUTTON, button, action, mods, 0.0, 0.0, System.nanoTime())) {
+            lostKeys.set(true);
+        }
     }
 
-    private static boolean getKeyCurrent(int key) {
-        return currentKeyState.get(key);
+    /** Queues a cursor movement, to be called from a GLFW callback. */
+    public static void onCursorPos(double x, double y) {
+        events.offer(InputEvent.CURSOR_POS, 0, 0, 0, x, y, System.nanoTime());
     }
 
-    private static boolean getKeyPrevious(int key) {
-        return previousKeyState.get(key);
+    /** Queues a scroll, to be called from a GLFW callback. */
+    public static void onScroll(double x, double y) {
+        events.offer(InputEvent.SCROLL, 0, 0, 0, x, y, System.nanoTime());
+    }
+
+    /** Returns the amount of events dropped because the queue was full. */
+    public static long getDroppedEvents() {
+        return events.getDropped();
+    }
+
+    /**
+     * Starts writing every following frame's time and input to recorder, see
+     * {@link InputRecorder}.
+     */
+    public static void startRecording(InputRecorder recorder) {
+        Input.recorder = recorder;
+    }
+
+    /** Stops and closes the current recording, if any. */
+    public static void stopRecording() throws IOException {
+        InputRecorder r = recorder;
+        recorder = null;
+        if (r != null) {
+            r.close();
+        }
+    }
+
+    /** Returns whether a recording is in progress. */
+    public static boolean isRecording() {
+        return recorder != null;
+    }
+
+    /** Sets the state of a key directly, as if it was pressed or released. */
+    public static void setKey(int key, boolean value) {
+        int word = key >>> 6;
+        long bit = 1L << key;
+        if (value) {
+            keyPressed[word] |= bit & ~keyDown[word];
+            keyDown[word] |= bit;
+        } else {
+            keyReleased[word] |= bit & keyDown[word];
+            keyDown[word] &= ~bit;
+        }
     }
 
     public static boolean isKeyDown(int key) {
-        return getKeyCurrent(key);
+        return (keyDown[key >>> 6] & (1L << key)) != 0;
     }
 
+    /** Returns whether the key went down during the last frame. */
     public static boolean isKeyPressed(int key) {
-        return getKeyCurrent(key) && !getKeyPrevious(key);
+        return (keyPressed[key >>> 6] & (1L << key)) != 0;
+    }
+
+    /** Returns whether the key was released during the last frame. */
+    public static boolean isKeyReleased(int key) {
+        return (keyReleased[key >>> 6] & (1L << key)) != 0;
     }
 
     public static boolean isMouseDown(int button) {
-        return currentMouseState.get(button);
+        return (mouseDown & (1 << button)) != 0;
     }
 
+    /** Returns whether the button went down during the last frame. */
     public static boolean isMousePressed(int button) {
-        return currentMouseState.get(button) && !previousMouseState.get(button);
+        return (mousePressed & (1 << button)) != 0;
+    }
+
+    /** Returns whether the button was released during the last frame. */
+    public static boolean isMouseReleased(int button) {
+        return (mouseReleased & (1 << button)) != 0;
+    }
+
+    /** Returns the cursor's x position in screen coordinates. */
+    public static float getMouseX() {
+        return (float) mouseX;
+    }
+
+    /** Returns the cursor's y position in screen coordinates. */
+    public static float getMouseY() {
+        return (float) mouseY;
     }
 
     public static Vector2f getMousePosition() {
-        double x = 0, y = 0;
-        try (MemoryStack ms = stackPush()) {
-            DoubleBuffer dbx = ms.callocDouble(1);
-            DoubleBuffer dby = ms.callocDouble(1);
-
-            glfwGetCursorPos(windowHandle, dbx, dby);
-            x = dbx.get(0);
-            y = dby.get(0);
-        } catch (Exception e) {
-        }
-        return new Vector2f((float) x, (float) y);
+        return getMousePosition(new Vector2f());
+    }
+
+    /**
+     * Stores the cursor position in dest.
+     *
+     * @return dest
+     */
+    public static Vector2f getMousePosition(Vector2f dest) {
+        return dest.set((float) mouseX, (float) mouseY);
+    }
+
+    /** Returns how far the cursor moved along x during the last frame. */
+    public static float getMouseDeltaX() {
+        return (float) (mouseX - lastMouseX);
+    }
+
+    /** Returns how far the cursor moved along y during the last frame. */
+    public static float getMouseDeltaY() {
+        return (float) (mouseY - lastMouseY);
+    }
+
+    /**
+     * Stores how far the cursor moved during the last frame in dest.
+     *
+     * @return dest
+     */
+    public static Vector2f getMouseDelta(Vector2f dest) {
+        return dest.set(getMouseDeltaX(), getMouseDeltaY());
     }
 
     public static float getMouseWheelMove() {
-        return currentMouseWheel - previousMouseWheel;
+        return mouseWheelMove;
     }
 
+    /**
+     * Applies every event queued since the last call. Call once per frame before
+     * reading any input.
+     */
     public static void begin() {
-        currentKeyState = new HashMap<>();
-        for (int i = 32; i < 348; i++) {
-            if (glfwGetKeyScancode(i) != -1) {
-                setKey(i, glfwGetKey(windowHandle, i) == GLFW_PRESS);
+        InputRecorder r = recorder;
+        if (r != null) {
+            r.frame(GameTime.totalSeconds, GameTime.deltaSeconds);
+        }
+        InputEvent e = event;
+        while (events.poll(e)) {
+            if (r != null) {
+                r.event(e);
             }
+            apply(e);
+        }
+        if (lostKeys.getAndSet(false)) {
+            resync(r);
         }
+    }
+
+    /**
+     * Releases every held key and button that GLFW no longer reports as down, as
+     * if its release event had arrived. Without a window every held key and
+     * button is released.
+     */
+    static void resync(InputRecorder r) {
+        for (int word = 0; word < KEY_WORDS; word++) {
+            long held = keyDown[word];
+            while (held != 0L) {
+                int key = (word << 6) | Long.numberOfTrailingZeros(held);
+                held &= held - 1;
+                if (windowHandle == 0L || glfwGetKey(windowHandle, key) != GLFW_PRESS) {
+                    release(InputEvent.KEY, key, r);
+                }
+            }
+        }
+        for (int button = 0; button <= GLFW_MOUSE_BUTTON_LAST; button++) {
+            if (isMouseDown(button)
+                    && (windowHandle == 0L || glfwGetMouseButton(windowHandle, button) != GLFW_PRESS)) {
+                release(InputEvent.MOUSE_BUTTON, button, r);
+            }
+        }
+    }
 
-        currentMouseState = new HashMap<>();
-        for (int i = 0; i < 8; i++) {
-            currentMouseState.put(i, glfwGetMouseButton(windowHandle, i) == GLFW_PRESS);
+    /** Applies, and records, a release event made up by resync() */
+    private static void release(int type, int code, InputRecorder r) {
+        InputEvent e = event;
+        e.type = type;
+        e.code = code;
+        e.action = GLFW_RELEASE;
+        e.mods = 0;
+        e.x = 0.0;
+        e.y = 0.0;
+        e.time = System.nanoTime();
+        if (r != null) {
+            r.event(e);
         }
+        apply(e);
     }
 
+    static void apply(InputEvent e) {
+        switch (e.type) {
+        case InputEvent.KEY:
+            if (e.action == GLFW_PRESS) {
+                setKey(e.code, true);
+            } else if (e.action == GLFW_RELEASE) {
+                setKey(e.code, false);
+            }
+            break;
+        case InputEvent.MOUSE_BUTTON:
+            int bit = 1 << e.code;
+            if (e.action == GLFW_PRESS) {
+                mousePressed |= bit & ~mouseDown;
+                mouseDown |= bit;
+            } else if (e.action == GLFW_RELEASE) {
+                mouseReleased |= bit & mouseDown;
+                mouseDown &= ~bit;
+            }
+            break;
+        case InputEvent.CURSOR_POS:
+            mouseX = e.x;
+            mouseY = e.y;
+            if (!cursorKnown) {
+                // No delta for the first known position
+                lastMouseX = e.x;
+                lastMouseY = e.y;
+                cursorKnown = true;
+            }
+            break;
+        case InputEvent.SCROLL:
+            mouseWheelMove += (float) e.y;
+            break;
+        }
+    }
+
+    /** Clears the per-frame state. Call once per frame after all input is read. */
     public static void end() {
-        previousKeyState = currentKeyState;
-        previousMouseState = currentMouseState;
-        previousMouseWheel = currentMouseWheel;
+        for (int i = 0; i < KEY_WORDS; i++) {
+            keyPressed[i] = 0L;
+            keyReleased[i] = 0L;
+        }
+        mousePressed = 0;
+        mouseReleased = 0;
+        mouseWheelMove = 0.0f;
+        lastMouseX = mouseX;
+        lastMouseY = mouseY;
     }
 }
@@ -0,0 +1,24 @@
+package com.dcronqvist.engine.utils;
+
+/**
+ * A single input event as delivered by a GLFW callback. Reused by
+ * {@link InputEventQueue#poll(InputEvent)} instead of allocating one per event.
+ */
+final class InputEvent {
+    static final int KEY = 0;
+    static final int MOUSE_BUTTON = 1;
+    static final int CURSOR_POS = 2;
+    static final int SCROLL = 3;
+
+    /** One of KEY, MOUSE_BUTTON, CURSOR_POS and SCROLL */
+    int type;
+    /** Key code or mouse button */
+    int code;
+    /** GLFW_PRESS, GLFW_RELEASE or GLFW_REPEAT */
+    int action;
+    int mods;
+    /** Cursor position or scroll offset */
+    double x, y;
+    /** System.nanoTime() when the event was received */
+    long time;
+}
@@ -0,0 +1,107 @@
+package com.dcronqvist.engine.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size lock-free ring of input events with a single producer, the
+ * thread running the GLFW callbacks, and a single consumer, the thread calling
+ * {@link Input#begin()}. Events are stored in parallel primitive arrays, so
+ * neither side allocates. When the ring is full new events are dropped and
+ * counted. Cursor and scroll events are dropped as soon as only the reserved
+ * slots are free, so a fast mouse cannot crowd out key and button events.
+ */
+final class InputEventQueue {
+    private final int mask;
+    private final int reserved;
+    private final int[] type;
+    private final int[] code;
+    private final int[] action;
+    private final int[] mods;
+    private final double[] x;
+    private final double[] y;
+    private final long[] time;
+
+    /** Next slot to read, only written by the consumer */
+    private final AtomicLong head = new AtomicLong();
+    /** Next slot to write, only written by the producer */
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long dropped;
+
+    /**
+     * @param capacity The maximum amount of queued events, rounded up to a power
+     *                 of two.
+     * @param reserved The amount of slots only key and button events may use.
+     */
+    InputEventQueue(int capacity, int reserved) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.reserved = reserved;
+        this.type = new int[size];
+        this.code = new int[size];
+        this.action = new int[size];
+        this.mods = new int[size];
+        this.x = new double[size];
+        this.y = new double[size];
+        this.time = new long[size];
+    }
+
+    /**
+     * Appends an event, or drops it if the ring is full, or if it is a cursor or
+     * scroll event and only the reserved slots are free.
+     *
+     * @return Whether the event was queued.
+     */
+    boolean offer(int type, int code, int action, int mods, double x, double y, long time) {
+        long t = tail.get();
+        long used = t - head.get();
+        boolean motion = type == InputEvent.CURSOR_POS || type == InputEvent.SCROLL;
+        if (used > mask || (motion && used > mask - reserved)) {
+            dropped++;
+            return false;
+        }
+        int i = (int) t & mask;
+        this.type[i] = type;
+        this.code[i] = code;
+        this.action[i] = action;
+        this.mods[i] = mods;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.time[i] = time;
+        // Publishes the slot to the consumer
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest event and copies it into dest.
+     *
+     * @return Whether there was an event.
+     */
+    boolean poll(InputEvent dest) {
+        long h = head.get();
+        if (h == tail.get()) {
+            return false;
+        }
+        int i = (int) h & mask;
+        dest.type = type[i];
+        dest.code = code[i];
+        dest.action = action[i];
+        dest.mods = mods[i];
+        dest.x = x[i];
+        dest.y = y[i];
+        dest.time = time[i];
+        // Hands the slot back to the producer
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /** Returns the amount of queued events */
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /** Returns the amount of events dropped because the ring was full */
+    long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dcronqvist.engine.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * InputRecorder
+ *
+ * Writes every frame's {@link GameTime} and the input events applied in it to
+ * a compact binary stream, which {@link InputReplay} plays back. Start
+ * recording with {@link Input#startRecording(InputRecorder)}.
+ *
+ * The stream starts with a header (int magic, short version) followed by
+ * records, each starting with a tag byte:
+ * <ul>
+ * <li>FRAME: double totalTime, double deltaTime</li>
+ * <li>KEY and MOUSE_BUTTON: short code, byte action, byte mods</li>
+ * <li>CURSOR_POS and SCROLL: double x, double y</li>
+ * </ul>
+ * Events belong to the last frame before them. Event timestamps are not stored,
+ * the frame time is what drives a replay.
+ */
+public class InputRecorder implements Closeable {
+    static final int MAGIC = 0x494E5055;
+    static final short VERSION = 1;
+    static final byte FRAME = -1;
+
+    private final DataOutputStream out;
+    private int frames;
+
+    public InputRecorder(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    public InputRecorder(OutputStream stream) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+    }
+
+    /** Returns the amount of frames recorded so far */
+    public int getFrames() {
+        return frames;
+    }
+
+    void frame(double totalTime, double deltaTime) {
+        try {
+            out.writeByte(FRAME);
+            out.writeDouble(totalTime);
+            out.writeDouble(deltaTime);
+            frames++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void event(InputEvent e) {
+        try {
+            out.writeByte(e.type);
+            switch (e.type) {
+            case InputEvent.KEY:
+            case InputEvent.MOUSE_BUTTON:
+                out.writeShort(e.code);
+                out.writeByte(e.action);
+                out.writeByte(e.mods);
+                break;
+            default:
+                out.writeDouble(e.x);
+                out.writeDouble(e.y);
+                break;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Flushes and closes the underlying stream */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.dcronqvist.engine.utils;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * InputReplay
+ *
+ * Plays back a stream written by {@link InputRecorder}, one frame per call to
+ * {@link #nextFrame()}, without needing a window. Replaying the same recording
+ * gives every frame the same time and input, which makes it usable as a
+ * repeatable load test through BaseWindow.replay(...).
+ */
+public class InputReplay implements Closeable {
+    private final DataInputStream in;
+    private final InputEvent event = new InputEvent();
+    /** The tag read after the last event of a frame, FRAME or -2 at the end */
+    private int nextTag;
+    private int frames;
+
+    public InputReplay(Path file) throws IOException {
+        this(Files.newInputStream(file));
+    }
+
+    public InputReplay(InputStream stream) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input recording.");
+        }
+        short version = in.readShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported input recording version " + version + ".");
+        }
+        nextTag = readTag();
+    }
+
+    /** Returns the amount of frames replayed so far */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Sets {@link GameTime} to the next recorded frame, recording it in
+     * GameTime.stats, and applies its input events, to be followed by
+     * {@link Input#begin()}.
+     *
+     * @return false when the recording has ended.
+     */
+    public boolean nextFrame() throws IOException {
+        if (nextTag != InputRecorder.FRAME) {
+            return false;
+        }
+        double totalSeconds = in.readDouble();
+        GameTime.beginFrame(totalSeconds, in.readDouble());
+
+        InputEvent e = event;
+        while ((nextTag = readTag()) >= 0) {
+            e.type = nextTag;
+            switch (e.type) {
+            case InputEvent.KEY:
+            case InputEvent.MOUSE_BUTTON:
+                e.code = in.readShort();
+                e.action = in.readByte();
+                e.mods = in.readByte();
+                break;
+            default:
+                e.x = in.readDouble();
+                e.y = in.readDouble();
+                break;
+            }
+            e.time = System.nanoTime();
+            Input.apply(e);
+        }
+        frames++;
+        return true;
+    }
+
+    private int readTag() throws IOException {
+        try {
+            return in.readByte();
+        } catch (EOFException e) {
+            return -2;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
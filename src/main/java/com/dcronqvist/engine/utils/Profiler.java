@@ -0,0 +1,390 @@
+package com.dcronqvist.engine.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Profiler
+ *
+ * Nanosecond scoped timers for finding out where frame time goes. BaseWindow
+ * times every phase of its loop, and code can add its own nested scopes:
+ *
+ * <pre>
+ * Profiler.push("physics");
+ * ...
+ * Profiler.pop();
+ * </pre>
+ *
+ * Every thread records into its own preallocated ring of the last
+ * {@link #CAPACITY} scopes and {@link #FRAMES} frames, so recording never
+ * allocates or locks once a scope name has been seen. The history can be viewed
+ * with {@link ProfilerPanel} or exported as CSV or as a Chrome trace
+ * (chrome://tracing, Perfetto). Exporting while other threads are recording
+ * may include scopes that are being overwritten at the same time.
+ *
+ * The history of a thread outlives the thread, so it can still be exported.
+ * Threads that come and go, like pool workers, should call {@link #release()}
+ * before they end, or {@link #removeDead()} has to drop their history.
+ */
+public final class Profiler {
+    /** The amount of scopes kept per thread */
+    public static final int CAPACITY = 1 << 16;
+    /** The amount of frames kept per thread */
+    public static final int FRAMES = 256;
+    static final int MAX_DEPTH = 64;
+
+    /** Whether push and pop record anything */
+    public static boolean enabled = true;
+
+    private static final ThreadLocal<Profiler> PROFILERS = ThreadLocal.withInitial(Profiler::new);
+    private static final List<Profiler> profilers = new CopyOnWriteArrayList<>();
+    // Read without locking, registered under the lock of names
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final ArrayList<String> names = new ArrayList<>();
+
+    final String threadName;
+    final long threadId;
+    final WeakReference<Thread> thread;
+
+    // Scope record r is stored at r & (CAPACITY - 1). end is 0 while open.
+    final int[] scopeName = new int[CAPACITY];
+    final int[] scopeDepth = new int[CAPACITY];
+    final long[] scopeStart = new long[CAPACITY];
+    final long[] scopeEnd = new long[CAPACITY];
+    /** Total amount of scopes recorded */
+    volatile long scopes;
+
+    final long[] stack = new long[MAX_DEPTH];
+    int depth;
+
+    // Frame f is stored at f % FRAMES, with the number of its first scope
+    final long[] frameStart = new long[FRAMES];
+    final long[] frameEnd = new long[FRAMES];
+    final long[] frameFirstScope = new long[FRAMES];
+    /** The current frame, -1 before the first */
+    volatile long frame = -1;
+
+    private Profiler() {
+        Thread thread = Thread.currentThread();
+        this.threadName = thread.getName();
+        this.threadId = thread.getId();
+        this.thread = new WeakReference<>(thread);
+        profilers.add(this);
+    }
+
+    /** Returns the profiler of the calling thread. */
+    public static Profiler get() {
+        return PROFILERS.get();
+    }
+
+    /** Returns the profilers of every thread that has recorded something. */
+    public static List<Profiler> getProfilers() {
+        return profilers;
+    }
+
+    /**
+     * Drops the profiler and the history of the calling thread, e.g. from a
+     * worker thread that is about to end. Does nothing if the thread has none.
+     */
+    public static void release() {
+        Thread current = Thread.currentThread();
+        for (Profiler p : profilers) {
+            if (p.thread.get() == current) {
+                profilers.remove(p);
+                PROFILERS.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops the profilers and the history of every thread that has ended.
+     *
+     * @return The amount of profilers dropped.
+     */
+    public static int removeDead() {
+        int removed = 0;
+        for (Profiler p : profilers) {
+            Thread t = p.thread.get();
+            if ((t == null || !t.isAlive()) && profilers.remove(p)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the id of a scope name, registering it on first use. Looking up a
+     * registered name neither locks nor allocates, but hoisting the id into a
+     * constant for {@link #push(int)} also saves the hash lookup.
+     */
+    public static int id(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (names) {
+            id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /** Returns the scope name of an id. */
+    public static String name(int id) {
+        synchronized (names) {
+            return names.get(id);
+        }
+    }
+
+    /** Starts a new frame on the calling thread, ending the previous one. */
+    public static void frame() {
+        if (enabled) {
+            get().beginFrame(System.nanoTime());
+        }
+    }
+
+    /** Opens a scope on the calling thread, to be closed by {@link #pop()}. */
+    public static void push(String name) {
+        if (enabled) {
+            get().pushScope(id(name), System.nanoTime());
+        }
+    }
+
+    /** Opens a scope by its {@link #id(String)} on the calling thread. */
+    public static void push(int id) {
+        if (enabled) {
+            get().pushScope(id, System.nanoTime());
+        }
+    }
+
+    /** Closes the innermost open scope on the calling thread. */
+    public static void pop() {
+        if (enabled) {
+            get().popScope(System.nanoTime());
+        }
+    }
+
+    void beginFrame(long now) {
+        long f = frame;
+        if (f >= 0) {
+            frameEnd[(int) (f % FRAMES)] = now;
+        }
+        int slot = (int) ((f + 1) % FRAMES);
+        frameStart[slot] = now;
+        frameEnd[slot] = 0L;
+        frameFirstScope[slot] = scopes;
+        frame = f + 1;
+    }
+
+    void pushScope(int id, long now) {
+        long r = scopes;
+        int i = (int) r & (CAPACITY - 1);
+        scopeName[i] = id;
+        scopeDepth[i] = depth;
+        scopeStart[i] = now;
+        scopeEnd[i] = 0L;
+        if (depth < MAX_DEPTH) {
+            stack[depth] = r;
+        }
+        depth++;
+        scopes = r + 1;
+    }
+
+    void popScope(long now) {
+        if (depth == 0) {
+            return;
+        }
+        depth--;
+        if (depth < MAX_DEPTH) {
+            long r = stack[depth];
+            // Skip scopes overwritten while they were open
+            if (r >= scopes - CAPACITY) {
+                scopeEnd[(int) r & (CAPACITY - 1)] = now;
+            }
+        }
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /** Returns the current frame number, -1 before the first frame. */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Returns whether frame f is complete and its scopes are still in the ring.
+     */
+    public boolean hasFrame(long f) {
+        long current = frame;
+        return f >= 0 && f < current && f > current - FRAMES
+                && frameFirstScope[(int) (f % FRAMES)] >= scopes - CAPACITY;
+    }
+
+    /** Returns the duration of frame f in nanoseconds, see {@link #hasFrame}. */
+    public long getFrameNanos(long f) {
+        int slot = (int) (f % FRAMES);
+        return frameEnd[slot] - frameStart[slot];
+    }
+
+    /**
+     * Returns the total time spent in scopes named name during frame f, in
+     * nanoseconds. Nested scopes of the same name are counted twice.
+     */
+    public long getScopeNanos(long f, String name) {
+        int id = id(name);
+        long total = 0;
+        long end = firstScope(f + 1);
+        for (long r = firstScope(f); r < end; r++) {
+            int i = (int) r & (CAPACITY - 1);
+            if (scopeName[i] == id && scopeEnd[i] != 0) {
+                total += scopeEnd[i] - scopeStart[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Copies the durations of the last complete frames in milliseconds into
+     * dest, oldest first.
+     *
+     * @return The amount of frames copied.
+     */
+    public int getFrameMillis(float[] dest) {
+        long last = frame - 1;
+        int count = 0;
+        long first = Math.max(Math.max(0, last - dest.length + 1), frame - FRAMES + 1);
+        for (long f = first; f <= last; f++) {
+            dest[count++] = getFrameNanos(f) / 1_000_000.0f;
+        }
+        return count;
+    }
+
+    /** Returns the number of the first scope of frame f, see {@link #hasFrame} */
+    long firstScope(long f) {
+        return f > frame ? scopes : frameFirstScope[(int) (f % FRAMES)];
+    }
+
+    /**
+     * Writes every recorded scope of every thread as CSV with the columns thread,
+     * frame, depth, scope, start_us and duration_us. Start times are relative to
+     * the first frame recorded.
+     */
+    public static void writeCsv(Writer out) throws IOException {
+        long origin = origin();
+        out.write("thread,frame,depth,scope,start_us,duration_us\n");
+        for (Profiler p : profilers) {
+            p.forEachScope((f, i) -> {
+                out.write(p.threadName.replace(',', ' ') + "," + f + "," + p.scopeDepth[i] + ","
+                        + name(p.scopeName[i]).replace(',', ' ') + "," + micros(p.scopeStart[i] - origin) + ","
+                        + micros(p.scopeEnd[i] - p.scopeStart[i]) + "\n");
+            });
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes every recorded scope of every thread in the Chrome trace event
+     * format, which can be opened in chrome://tracing or ui.perfetto.dev.
+     */
+    public static void writeChromeTrace(Writer out) throws IOException {
+        long origin = origin();
+        out.write("{\"traceEvents\":[\n");
+        boolean first = true;
+        for (Profiler p : profilers) {
+            if (!first) {
+                out.write(",\n");
+            }
+            first = false;
+            out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + p.threadId
+                    + ",\"args\":{\"name\":\"" + escape(p.threadName) + "\"}}");
+            p.forEachScope((f, i) -> {
+                out.write(",\n{\"name\":\"" + escape(name(p.scopeName[i])) + "\",\"ph\":\"X\",\"pid\":1,\"tid\":"
+                        + p.threadId + ",\"ts\":" + micros(p.scopeStart[i] - origin) + ",\"dur\":"
+                        + micros(p.scopeEnd[i] - p.scopeStart[i]) + ",\"args\":{\"frame\":" + f + "}}");
+            });
+        }
+        out.write("\n]}\n");
+        out.flush();
+    }
+
+    /** Writes a CSV export to file, see {@link #writeCsv(Writer)}. */
+    public static void exportCsv(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeCsv(out);
+        }
+    }
+
+    /** Writes a Chrome trace to file, see {@link #writeChromeTrace(Writer)}. */
+    public static void exportChromeTrace(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeChromeTrace(out);
+        }
+    }
+
+    interface ScopeVisitor {
+        void visit(long frame, int index) throws IOException;
+    }
+
+    /**
+     * Visits every closed scope still in the ring whose frame is known, oldest
+     * first. Scopes recorded before the first frame belong to frame -1.
+     */
+    void forEachScope(ScopeVisitor visitor) throws IOException {
+        long end = scopes;
+        long start = Math.max(0, end - CAPACITY);
+        long current = frame;
+        long f = -1;
+        if (current >= 0) {
+            long oldest = Math.max(0, current - FRAMES + 1);
+            if (oldest > 0) {
+                start = Math.max(start, frameFirstScope[(int) (oldest % FRAMES)]);
+                f = oldest - 1;
+            }
+        }
+        for (long r = start; r < end; r++) {
+            while (f < current && frameFirstScope[(int) ((f + 1) % FRAMES)] <= r) {
+                f++;
+            }
+            int i = (int) r & (CAPACITY - 1);
+            if (scopeEnd[i] != 0) {
+                visitor.visit(f, i);
+            }
+        }
+    }
+
+    private static long origin() {
+        long origin = Long.MAX_VALUE;
+        for (Profiler p : profilers) {
+            long end = p.scopes;
+            if (end > 0) {
+                origin = Math.min(origin, p.scopeStart[(int) Math.max(0, end - CAPACITY) & (CAPACITY - 1)]);
+            }
+        }
+        return origin == Long.MAX_VALUE ? 0 : origin;
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
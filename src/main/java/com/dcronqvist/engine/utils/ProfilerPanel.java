@@ -0,0 +1,168 @@
+package com.dcronqvist.engine.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import imgui.ImDrawList;
+import imgui.ImGui;
+
+/**
+ * ProfilerPanel
+ *
+ * An ImGui window showing the {@link Profiler} history: the frame time
+ * statistics of {@link GameTime#stats}, a plot of the last frame times, and a
+ * flame graph of the last complete frame of every thread, one row per nesting
+ * depth. Threads that have ended are dropped from the profiler. Hovering a
+ * scope shows its name and duration. Call
+ * {@link #render()} from render(), between the platform's beginFrame() and
+ * endFrame().
+ */
+public class ProfilerPanel {
+    static final float ROW_HEIGHT = 18.0f;
+
+    final float[] frameMillis = new float[Profiler.FRAMES];
+    Path csvFile = Paths.get("profile.csv");
+    Path traceFile = Paths.get("profile.json");
+    String status = "";
+    // Reused every frame, so drawing the panel allocates little more than the strings handed to ImGui
+    final StringBuilder statsLine = new StringBuilder(96);
+    final StringBuilder label = new StringBuilder(64);
+
+    public ProfilerPanel() {
+
+    }
+
+    /**
+     * @param csvFile   The file written by the Export CSV button.
+     * @param traceFile The file written by the Export trace button.
+     */
+    public ProfilerPanel(Path csvFile, Path traceFile) {
+        this.csvFile = csvFile;
+        this.traceFile = traceFile;
+    }
+
+    /** Draws the panel for the current ImGui frame. */
+    public void render() {
+        if (ImGui.begin("Profiler")) {
+            if (ImGui.checkbox("Recording", Profiler.enabled)) {
+                Profiler.enabled = !Profiler.enabled;
+            }
+            ImGui.sameLine();
+            if (ImGui.button("Export CSV")) {
+                export(false);
+            }
+            ImGui.sameLine();
+            if (ImGui.button("Export trace")) {
+                export(true);
+            }
+            if (!status.isEmpty()) {
+                ImGui.textDisabled(status);
+            }
+
+            statsLine.setLength(0);
+            ImGui.text(GameTime.stats.appendTo(statsLine).toString());
+
+            Profiler.removeDead();
+            Profiler main = Profiler.get();
+            int count = main.getFrameMillis(frameMillis);
+            if (count > 0) {
+                float last = frameMillis[count - 1];
+                label.setLength(0);
+                FrameStats.appendFixed(label, Math.round(last * 100.0), 2);
+                ImGui.plotLines("##frames", frameMillis, count, 0, label.append(" ms").toString(), 0.0f,
+                        Math.max(1.0f, max(frameMillis, count)), ImGui.getContentRegionAvailX(), 60.0f);
+            }
+
+            for (Profiler p : Profiler.getProfilers()) {
+                long f = p.getFrame() - 1;
+                if (p.hasFrame(f)) {
+                    ImGui.separator();
+                    label.setLength(0);
+                    label.append(p.getThreadName()).append(", frame ").append(f).append(": ");
+                    FrameStats.appendFixed(label, Math.round(p.getFrameNanos(f) / 10_000.0), 2);
+                    ImGui.text(label.append(" ms").toString());
+                    drawFlame(p, f);
+                }
+            }
+        }
+        ImGui.end();
+    }
+
+    /** Draws the scopes of frame f of p scaled to the available width */
+    void drawFlame(Profiler p, long f) {
+        int frameSlot = (int) (f % Profiler.FRAMES);
+        long frameStart = p.frameStart[frameSlot];
+        long frameEnd = p.frameEnd[frameSlot];
+        long first = p.firstScope(f);
+        long end = p.firstScope(f + 1);
+
+        int rows = 1;
+        for (long r = first; r < end; r++) {
+            rows = Math.max(rows, p.scopeDepth[(int) r & (Profiler.CAPACITY - 1)] + 1);
+        }
+
+        ImDrawList drawList = ImGui.getWindowDrawList();
+        float x0 = ImGui.getCursorScreenPosX();
+        float y0 = ImGui.getCursorScreenPosY();
+        float width = Math.max(1.0f, ImGui.getContentRegionAvailX());
+        float scale = width / Math.max(1L, frameEnd - frameStart);
+        float textOffset = (ROW_HEIGHT - ImGui.getTextLineHeight()) * 0.5f;
+
+        drawList.pushClipRect(x0, y0, x0 + width, y0 + rows * ROW_HEIGHT);
+        for (long r = first; r < end; r++) {
+            int i = (int) r & (Profiler.CAPACITY - 1);
+            // Scopes still open when the frame ended, e.g. around frame(), end with it
+            long scopeEnd = p.scopeEnd[i] == 0 ? frameEnd : Math.min(p.scopeEnd[i], frameEnd);
+            float left = x0 + (p.scopeStart[i] - frameStart) * scale;
+            float right = Math.max(left + 1.0f, x0 + (scopeEnd - frameStart) * scale);
+            float top = y0 + p.scopeDepth[i] * ROW_HEIGHT;
+            float bottom = top + ROW_HEIGHT - 1.0f;
+
+            String name = Profiler.name(p.scopeName[i]);
+            drawList.addRectFilled(left, top, right, bottom, color(p.scopeName[i]));
+            if (right - left > 40.0f) {
+                drawList.addText(left + 3.0f, top + textOffset, 0xFF000000, name);
+            }
+            if (ImGui.isMouseHoveringRect(left, top, right, bottom)) {
+                label.setLength(0);
+                label.append(name).append(": ");
+                FrameStats.appendFixed(label, Math.round((scopeEnd - p.scopeStart[i]) / 1_000.0), 3);
+                ImGui.setTooltip(label.append(" ms").toString());
+            }
+        }
+        drawList.popClipRect();
+        ImGui.dummy(width, rows * ROW_HEIGHT);
+    }
+
+    void export(boolean trace) {
+        Path file = trace ? traceFile : csvFile;
+        try {
+            if (trace) {
+                Profiler.exportChromeTrace(file);
+            } else {
+                Profiler.exportCsv(file);
+            }
+            status = "Exported to " + file.toAbsolutePath();
+        } catch (IOException e) {
+            status = "Export failed: " + e.getMessage();
+        }
+    }
+
+    /** A stable light colour per scope name, packed as ImGui's ABGR */
+    static int color(int id) {
+        int hash = id * 0x9E3779B9;
+        int r = 128 + ((hash >>> 8) & 0x7F);
+        int g = 128 + ((hash >>> 16) & 0x7F);
+        int b = 128 + ((hash >>> 24) & 0x7F);
+        return 0xFF000000 | (b << 16) | (g << 8) | r;
+    }
+
+    private static float max(float[] values, int count) {
+        float max = 0.0f;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+}
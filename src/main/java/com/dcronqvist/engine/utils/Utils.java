@@ -1,6 +1,5 @@
 package com.dcronqvist.engine.utils;
 
-import java.io.FileReader;
 import java.util.Random;
 
 import com.dcronqvist.engine.math.Vector2f;
@@ -8,17 +7,12 @@ import com.dcronqvist.engine.math.Vector2f;
 public class Utils {
     private static final Random rand = new Random();
 
+    /**
+     * Returns the whole file decoded as UTF-8. Also accepts classpath: locations,
+     * see {@link FileIO#readText(String)}.
+     */
     public static String getTextFromFile(String path) throws Exception {
-        try (FileReader fr = new FileReader(path)) {
-            StringBuilder fileContent = new StringBuilder();
-            int content;
-            while ((content = fr.read()) != -1) {
-                fileContent.append((char) content);
-            }
-            return fileContent.toString();
-        } catch (Exception e) {
-            throw e;
-        }
+        return FileIO.readText(path);
     }
 
     public static float getRandomFloat(float min, float max) {
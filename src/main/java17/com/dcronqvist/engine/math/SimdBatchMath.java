@@ -0,0 +1,146 @@
+package com.dcronqvist.engine.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of {@link BatchMath} and the batch culling in
+ * {@link Frustum}, used on Java 17+ when jdk.incubator.vector is added. Every
+ * lane performs the same operations in the same order as the scalar loops, and
+ * no fused multiply-adds are used, so results are identical to them. Remaining
+ * elements that do not fill a whole vector fall back to the scalar loops.
+ */
+final class SimdBatchMath {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final FloatVector ONE = FloatVector.broadcast(SPECIES, 1.0f);
+
+    private SimdBatchMath() {
+
+    }
+
+    static boolean supported() {
+        // Culling packs one mask per vector into 64 bit words
+        int lanes = SPECIES.length();
+        return lanes >= 4 && lanes <= 64;
+    }
+
+    static void transformPoints(Matrix4f mat, float[] x, float[] y, float[] z, int count) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+            FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+            FloatVector pz = FloatVector.fromArray(SPECIES, z, i);
+            px.mul(mat.m00).add(py.mul(mat.m10)).add(pz.mul(mat.m20)).add(mat.m30).intoArray(x, i);
+            px.mul(mat.m01).add(py.mul(mat.m11)).add(pz.mul(mat.m21)).add(mat.m31).intoArray(y, i);
+            px.mul(mat.m02).add(py.mul(mat.m12)).add(pz.mul(mat.m22)).add(mat.m32).intoArray(z, i);
+        }
+        for (; i < count; i++) {
+            float px = x[i], py = y[i], pz = z[i];
+            x[i] = mat.m00 * px + mat.m10 * py + mat.m20 * pz + mat.m30;
+            y[i] = mat.m01 * px + mat.m11 * py + mat.m21 * pz + mat.m31;
+            z[i] = mat.m02 * px + mat.m12 * py + mat.m22 * pz + mat.m32;
+        }
+    }
+
+    static void normalize(float[] x, float[] y, float[] z, int count) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+            FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+            FloatVector pz = FloatVector.fromArray(SPECIES, z, i);
+            FloatVector s = ONE.div(px.mul(px).add(py.mul(py)).add(pz.mul(pz)).sqrt());
+            px.mul(s).intoArray(x, i);
+            py.mul(s).intoArray(y, i);
+            pz.mul(s).intoArray(z, i);
+        }
+        for (; i < count; i++) {
+            float px = x[i], py = y[i], pz = z[i];
+            float s = 1.0f / (float) Math.sqrt(px * px + py * py + pz * pz);
+            x[i] = px * s;
+            y[i] = py * s;
+            z[i] = pz * s;
+        }
+    }
+
+    static void dot(float[] x, float[] y, float[] z, Vector3f v, float[] dest, int count) {
+        float vx = v.x, vy = v.y, vz = v.z;
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, x, i).mul(vx).add(FloatVector.fromArray(SPECIES, y, i).mul(vy))
+                    .add(FloatVector.fromArray(SPECIES, z, i).mul(vz)).intoArray(dest, i);
+        }
+        for (; i < count; i++) {
+            dest[i] = x[i] * vx + y[i] * vy + z[i] * vz;
+        }
+    }
+
+    static void cullSpheres(Frustum f, float[] x, float[] y, float[] z, float[] radius, int count, long[] visible,
+            int fromWord, int toWord) {
+        int lanes = SPECIES.length();
+        for (int w = fromWord; w < toWord; w++) {
+            long bits = 0L;
+            int base = w << 6;
+            int end = Math.min(base + 64, count);
+            int i = base;
+            for (; i + lanes <= end; i += lanes) {
+                FloatVector px = FloatVector.fromArray(SPECIES, x, i);
+                FloatVector py = FloatVector.fromArray(SPECIES, y, i);
+                FloatVector pz = FloatVector.fromArray(SPECIES, z, i);
+                FloatVector m = planeDistance(f, 0, px, py, pz);
+                for (int p = 1; p < 6; p++) {
+                    m = m.min(planeDistance(f, p, px, py, pz));
+                }
+                FloatVector r = FloatVector.fromArray(SPECIES, radius, i);
+                VectorMask<Float> inside = m.compare(VectorOperators.GE, r.neg());
+                bits |= inside.toLong() << (i - base);
+            }
+            for (; i < end; i++) {
+                long inside = f.testSphere(x[i], y[i], z[i], radius[i]) ? 1L : 0L;
+                bits |= inside << (i - base);
+            }
+            visible[w] = bits;
+        }
+    }
+
+    private static FloatVector planeDistance(Frustum f, int p, FloatVector x, FloatVector y, FloatVector z) {
+        return x.mul(f.a[p]).add(y.mul(f.b[p])).add(z.mul(f.c[p])).add(f.d[p]);
+    }
+
+    static void cullAabbs(Frustum f, float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY,
+            float[] maxZ, int count, long[] visible, int fromWord, int toWord) {
+        int lanes = SPECIES.length();
+        for (int w = fromWord; w < toWord; w++) {
+            long bits = 0L;
+            int base = w << 6;
+            int end = Math.min(base + 64, count);
+            int i = base;
+            for (; i + lanes <= end; i += lanes) {
+                FloatVector x0 = FloatVector.fromArray(SPECIES, minX, i);
+                FloatVector y0 = FloatVector.fromArray(SPECIES, minY, i);
+                FloatVector z0 = FloatVector.fromArray(SPECIES, minZ, i);
+                FloatVector x1 = FloatVector.fromArray(SPECIES, maxX, i);
+                FloatVector y1 = FloatVector.fromArray(SPECIES, maxY, i);
+                FloatVector z1 = FloatVector.fromArray(SPECIES, maxZ, i);
+                FloatVector m = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+                for (int p = 0; p < 6; p++) {
+                    float pa = f.a[p], pb = f.b[p], pc = f.c[p];
+                    FloatVector dist = x0.mul(pa).max(x1.mul(pa)).add(y0.mul(pb).max(y1.mul(pb)))
+                            .add(z0.mul(pc).max(z1.mul(pc))).add(f.d[p]);
+                    m = m.min(dist);
+                }
+                bits |= m.compare(VectorOperators.GE, 0.0f).toLong() << (i - base);
+            }
+            for (; i < end; i++) {
+                long inside = f.testAabb(minX[i], minY[i], minZ[i], maxX[i], maxY[i], maxZ[i]) ? 1L : 0L;
+                bits |= inside << (i - base);
+            }
+            visible[w] = bits;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dcronqvist.WindowTests.CountingWindow;
+import com.dcronqvist.engine.assets.AssetCache;
+import com.dcronqvist.engine.assets.AssetHandle;
+import com.dcronqvist.engine.assets.AssetLoader;
+import com.dcronqvist.engine.assets.AssetManager;
+import com.dcronqvist.engine.graphics.HeadlessPlatform;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for asynchronous asset loading, with plain Java uploads standing
+ * in for the GL ones.
+ */
+public class AssetTests {
+    AssetManager assets;
+    Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        assets = new AssetManager();
+        file = Files.createTempFile("asset", ".txt");
+        Files.write(file, "hello asset".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assets.close();
+        Files.delete(file);
+    }
+
+    /** Records the thread of each step and takes sleepMillis to upload */
+    static class ThreadLoader implements AssetLoader<String, String> {
+        final long sleepMillis;
+        volatile Thread loadThread;
+        volatile Thread uploadThread;
+
+        ThreadLoader(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public String load(String location) {
+            loadThread = Thread.currentThread();
+            return location.toUpperCase();
+        }
+
+        @Override
+        public String upload(String data) throws InterruptedException {
+            uploadThread = Thread.currentThread();
+            Thread.sleep(sleepMillis);
+            return data + "!";
+        }
+    }
+
+    @Test
+    public void testUploadRunsOnCallingThread() {
+        ThreadLoader loader = new ThreadLoader(0);
+        AssetHandle<String> handle = assets.load("texture", loader);
+        assertNull(handle.get());
+
+        assets.finishLoading();
+        assertTrue(handle.isLoaded());
+        assertEquals("TEXTURE!", handle.get());
+        assertSame(Thread.currentThread(), loader.uploadThread);
+        assertTrue(loader.loadThread != Thread.currentThread());
+        assertEquals(0, assets.getPending());
+    }
+
+    @Test
+    public void testUploadBudget() throws Exception {
+        ArrayList<AssetHandle<String>> handles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            handles.add(assets.load("asset" + i, new ThreadLoader(5)));
+        }
+        while (assets.getQueuedUploads() < 5) {
+            Thread.sleep(1);
+        }
+
+        // Every call runs at least one upload, but stops once the budget is spent
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, assets.processUploads(1_000_000L));
+        }
+        assertEquals(0, assets.processUploads(1_000_000L));
+        for (AssetHandle<String> handle : handles) {
+            assertTrue(handle.isLoaded());
+        }
+    }
+
+    @Test
+    public void testTextAndFailures() {
+        AssetHandle<String> text = assets.loadText(file.toString());
+        AssetHandle<String> missing = assets.loadText(file.toString() + ".missing");
+        AssetHandle<String> failedUpload = assets.load("broken", new AssetLoader<String, String>() {
+            @Override
+            public String load(String location) {
+                return location;
+            }
+
+            @Override
+            public String upload(String data) {
+                throw new IllegalStateException("no GL context");
+            }
+        });
+        assets.finishLoading();
+
+        assertEquals("hello asset", text.get());
+        assertTrue(missing.isFailed());
+        assertNull(missing.get());
+        assertTrue(missing.getError() instanceof NoSuchFileException);
+        assertFalse(failedUpload.isLoaded());
+        assertEquals("no GL context", failedUpload.getError().getMessage());
+    }
+
+    /** Counts the loads and disposes of text assets, decoding the bytes read by the cache */
+    static class CountingLoader implements AssetLoader<String, StringBuilder> {
+        final AtomicInteger loads = new AtomicInteger();
+        final ArrayList<String> disposed = new ArrayList<>();
+
+        @Override
+        public String load(String location) {
+            throw new UnsupportedOperationException("Read " + location + " twice");
+        }
+
+        @Override
+        public String load(String location, byte[][] contents) {
+            loads.incrementAndGet();
+            return new String(contents[0], StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public StringBuilder upload(String data) {
+            return new StringBuilder(data);
+        }
+
+        @Override
+        public void dispose(StringBuilder asset) {
+            disposed.add(asset.toString());
+        }
+    }
+
+    /** Writes a temporary file of size bytes, removed after the test */
+    private Path tempFile(ArrayList<Path> files, char fill, int size) throws Exception {
+        char[] chars = new char[size];
+        Arrays.fill(chars, fill);
+        Path path = Files.createTempFile("cached", ".txt");
+        Files.write(path, new String(chars).getBytes(StandardCharsets.UTF_8));
+        files.add(path);
+        return path;
+    }
+
+    @Test
+    public void testCacheSharesAssets() {
+        AssetCache cache = assets.getCache();
+        CountingLoader loader = new CountingLoader();
+        AssetHandle<StringBuilder> a = cache.acquire(file.toString(), loader);
+        assets.finishLoading();
+        AssetHandle<StringBuilder> b = cache.acquire(file.toString(), loader);
+        AssetHandle<String> text = cache.acquireText(file.toString());
+        assets.finishLoading();
+
+        assertSame(a.get(), b.get());
+        assertEquals("hello asset", text.get());
+        assertEquals(1, loader.loads.get());
+        assertEquals(1, cache.getHits());
+        // Text is another kind of asset, even though it comes from the same file
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getSize());
+        assertEquals(2 * "hello asset".length(), cache.getBytes());
+
+        a.release();
+        b.release();
+        try {
+            b.release();
+            fail("Released twice");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testCacheReloadsChangedFiles() throws Exception {
+        AssetCache cache = assets.getCache();
+        CountingLoader loader = new CountingLoader();
+        AssetHandle<StringBuilder> before = cache.acquire(file.toString(), loader);
+        assets.finishLoading();
+        Files.write(file, "edited".getBytes(StandardCharsets.UTF_8));
+        AssetHandle<StringBuilder> after = cache.acquire(file.toString(), loader);
+        assets.finishLoading();
+
+        assertEquals("hello asset", before.get().toString());
+        assertEquals("edited", after.get().toString());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() throws Exception {
+        ArrayList<Path> files = new ArrayList<>();
+        try {
+            AssetCache cache = assets.getCache();
+            CountingLoader loader = new CountingLoader();
+            ArrayList<AssetHandle<StringBuilder>> handles = new ArrayList<>();
+            for (char c = 'a'; c <= 'c'; c++) {
+                handles.add(cache.acquire(tempFile(files, c, 100).toString(), loader));
+                assets.finishLoading();
+            }
+            cache.budgetBytes = 350;
+
+            // Using a again makes b the least recently used
+            AssetHandle<StringBuilder> again = cache.acquire(files.get(0).toString(), loader);
+            assets.finishLoading();
+            again.release();
+            for (AssetHandle<StringBuilder> handle : handles) {
+                handle.release();
+            }
+            assertEquals(0, cache.getEvictions());
+
+            AssetHandle<StringBuilder> d = cache.acquire(tempFile(files, 'd', 100).toString(), loader);
+            assets.finishLoading();
+            assertEquals(1, cache.getEvictions());
+            assertEquals(300, cache.getBytes());
+            assertEquals(1, loader.disposed.size());
+            assertEquals('b', loader.disposed.get(0).charAt(0));
+
+            AssetHandle<StringBuilder> c = cache.acquire(files.get(2).toString(), loader);
+            assets.finishLoading();
+            assertEquals(4, loader.loads.get());
+            assertEquals(2, cache.getHits());
+
+            // Referenced assets are kept even when over budget
+            cache.budgetBytes = 0;
+            cache.evictUnused();
+            assets.processUploads(Long.MAX_VALUE);
+            assertEquals(2, cache.getSize());
+            assertEquals(2, loader.disposed.size());
+
+            c.release();
+            d.release();
+            assets.processUploads(Long.MAX_VALUE);
+            assertEquals(0, cache.getSize());
+            assertEquals(0, cache.getBytes());
+            assertEquals(4, loader.disposed.size());
+        } finally {
+            for (Path path : files) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testCacheRetriesFailures() throws Exception {
+        AssetCache cache = assets.getCache();
+        AssetLoader<String, String> broken = new AssetLoader<String, String>() {
+            @Override
+            public String load(String location) {
+                throw new IllegalStateException("decode failed");
+            }
+
+            @Override
+            public String upload(String data) {
+                return data;
+            }
+        };
+        AssetHandle<String> handle = cache.acquire(file.toString(), broken);
+        assets.finishLoading();
+
+        assertEquals("decode failed", handle.getError().getMessage());
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getBytes());
+        handle.release();
+
+        AssetHandle<String> retry = cache.acquire(file.toString(), broken);
+        assets.finishLoading();
+        assertTrue(retry.isFailed());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testSharedUploadsDrainedByWindowLoop() throws Exception {
+        ArrayList<Integer> loadedAtRender = new ArrayList<>();
+        ArrayList<AssetHandle<String>> handles = new ArrayList<>();
+        CountingWindow window = new CountingWindow() {
+            @Override
+            protected void loadContent() {
+                for (int i = 0; i < 3; i++) {
+                    handles.add(AssetManager.get().load("shared" + i, new ThreadLoader(5)));
+                }
+            }
+
+            @Override
+            protected void render() {
+                super.render();
+                int loaded = 0;
+                for (AssetHandle<String> handle : handles) {
+                    loaded += handle.isLoaded() ? 1 : 0;
+                }
+                loadedAtRender.add(loaded);
+                if (loaded < handles.size()) {
+                    // Gives the background loads time to queue their uploads
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        AssetManager.get().uploadBudgetNanos = 1_000_000L;
+        try {
+            window.run(new HeadlessPlatform(10, 0.01), new String[0]);
+        } finally {
+            AssetManager.get().close();
+        }
+
+        // The first frame is not held up, and one upload fits each frame's budget
+        assertTrue(loadedAtRender.get(0) <= 1);
+        for (int i = 1; i < loadedAtRender.size(); i++) {
+            assertTrue(loadedAtRender.get(i) - loadedAtRender.get(i - 1) <= 1);
+        }
+        assertEquals(Integer.valueOf(3), loadedAtRender.get(loadedAtRender.size() - 1));
+    }
+}
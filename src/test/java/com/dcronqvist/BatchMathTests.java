@@ -0,0 +1,145 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import com.dcronqvist.engine.math.BatchMath;
+import com.dcronqvist.engine.math.CamMath;
+import com.dcronqvist.engine.math.Frustum;
+import com.dcronqvist.engine.math.Matrix4f;
+import com.dcronqvist.engine.math.Vector3f;
+import com.dcronqvist.engine.utils.Utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for the batch math, comparing the Vector API implementation with
+ * the scalar one. When the Vector API is not available (Java 8, or Java 17+
+ * without --add-modules jdk.incubator.vector) both runs use the scalar loops.
+ */
+public class BatchMathTests {
+
+    // Not a multiple of any vector length, so the scalar tail is exercised too
+    private static final int COUNT = 1003;
+
+    @After
+    public void restoreSimd() {
+        BatchMath.simd = BatchMath.SIMD_SUPPORTED;
+    }
+
+    @Test
+    public void testTransformPointsIdenticalToScalar() {
+        Matrix4f mat = CamMath.perspective(70.0f, 16.0f / 9.0f, 0.1f, 100.0f)
+                .mul(CamMath.lookAt(new Vector3f(1, 2, 3), new Vector3f(0, 0, -1), new Vector3f(0, 1, 0)));
+        float[][] simd = randomVectors(1);
+        float[][] scalar = copy(simd);
+
+        BatchMath.simd = true;
+        BatchMath.transformPoints(mat, simd[0], simd[1], simd[2], COUNT);
+        BatchMath.simd = false;
+        BatchMath.transformPoints(mat, scalar[0], scalar[1], scalar[2], COUNT);
+
+        assertIdentical(scalar, simd);
+        float[][] original = randomVectors(1);
+        // Vector3f.mul(Matrix4f) ignores translation
+        Vector3f v = new Vector3f(original[0][7], original[1][7], original[2][7]).mulLocal(mat)
+                .addLocal(new Vector3f(mat.m30, mat.m31, mat.m32));
+        assertEquals(v.x, scalar[0][7], 1e-4f);
+        assertEquals(v.y, scalar[1][7], 1e-4f);
+        assertEquals(v.z, scalar[2][7], 1e-4f);
+    }
+
+    @Test
+    public void testNormalizeIdenticalToScalar() {
+        float[][] simd = randomVectors(2);
+        float[][] scalar = copy(simd);
+
+        BatchMath.simd = true;
+        BatchMath.normalize(simd[0], simd[1], simd[2], COUNT);
+        BatchMath.simd = false;
+        BatchMath.normalize(scalar[0], scalar[1], scalar[2], COUNT);
+
+        assertIdentical(scalar, simd);
+        for (int i = 0; i < COUNT; i++) {
+            float x = scalar[0][i], y = scalar[1][i], z = scalar[2][i];
+            assertEquals(1.0f, x * x + y * y + z * z, 1e-5f);
+        }
+    }
+
+    @Test
+    public void testDotIdenticalToScalar() {
+        float[][] v = randomVectors(3);
+        Vector3f other = new Vector3f(0.3f, -2.0f, 5.5f);
+        float[] simd = new float[COUNT];
+        float[] scalar = new float[COUNT];
+
+        BatchMath.simd = true;
+        BatchMath.dot(v[0], v[1], v[2], other, simd, COUNT);
+        BatchMath.simd = false;
+        BatchMath.dot(v[0], v[1], v[2], other, scalar, COUNT);
+
+        assertIdentical(new float[][] { scalar }, new float[][] { simd });
+        assertEquals(new Vector3f(v[0][5], v[1][5], v[2][5]).dot(other), scalar[5], 1e-4f);
+    }
+
+    @Test
+    public void testCullingIdenticalToScalar() {
+        Matrix4f projection = CamMath.perspective(70.0f, 16.0f / 9.0f, 0.1f, 100.0f);
+        Matrix4f view = CamMath.lookAt(new Vector3f(0, 0, 0), new Vector3f(0, 0, -1), new Vector3f(0, 1, 0));
+        Frustum frustum = new Frustum().set(projection, view);
+        float[][] centres = randomVectors(4);
+        float[] r = new float[COUNT];
+        float[] maxX = new float[COUNT], maxY = new float[COUNT], maxZ = new float[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            r[i] = Utils.getRandomFloat(0, 20);
+            maxX[i] = centres[0][i] + r[i];
+            maxY[i] = centres[1][i] + r[i];
+            maxZ[i] = centres[2][i] + r[i];
+        }
+        long[] simdSpheres = new long[Frustum.words(COUNT)], scalarSpheres = new long[Frustum.words(COUNT)];
+        long[] simdBoxes = new long[Frustum.words(COUNT)], scalarBoxes = new long[Frustum.words(COUNT)];
+
+        BatchMath.simd = true;
+        frustum.cullSpheres(centres[0], centres[1], centres[2], r, COUNT, simdSpheres);
+        frustum.cullAabbs(centres[0], centres[1], centres[2], maxX, maxY, maxZ, COUNT, simdBoxes);
+        BatchMath.simd = false;
+        frustum.cullSpheres(centres[0], centres[1], centres[2], r, COUNT, scalarSpheres);
+        frustum.cullAabbs(centres[0], centres[1], centres[2], maxX, maxY, maxZ, COUNT, scalarBoxes);
+
+        for (int w = 0; w < scalarSpheres.length; w++) {
+            assertEquals(scalarSpheres[w], simdSpheres[w]);
+            assertEquals(scalarBoxes[w], simdBoxes[w]);
+        }
+    }
+
+    /** Returns x, y and z arrays of COUNT random components, the same for a seed */
+    private static float[][] randomVectors(long seed) {
+        Random random = new Random(seed);
+        float[][] v = new float[3][COUNT];
+        for (int c = 0; c < 3; c++) {
+            for (int i = 0; i < COUNT; i++) {
+                v[c][i] = random.nextFloat() * 200.0f - 100.0f;
+            }
+        }
+        return v;
+    }
+
+    private static float[][] copy(float[][] v) {
+        float[][] c = new float[v.length][];
+        for (int i = 0; i < v.length; i++) {
+            c[i] = v[i].clone();
+        }
+        return c;
+    }
+
+    private static void assertIdentical(float[][] expected, float[][] actual) {
+        for (int c = 0; c < expected.length; c++) {
+            for (int i = 0; i < expected[c].length; i++) {
+                assertEquals("component " + c + " of element " + i, Float.floatToIntBits(expected[c][i]),
+                        Float.floatToIntBits(actual[c][i]));
+            }
+        }
+    }
+}
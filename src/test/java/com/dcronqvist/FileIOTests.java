@@ -0,0 +1,123 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.dcronqvist.engine.utils.FileIO;
+import com.dcronqvist.engine.utils.Utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the file loading utilities.
+ */
+public class FileIOTests {
+    Path dir;
+
+    @Before
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("fileio");
+    }
+
+    @After
+    public void deleteDir() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path p : files) {
+                Files.delete(p);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testReadTextIsUtf8() throws Exception {
+        String text = "#version 330 core\n// Gr\u00fc\u00dfe, \u65e5\u672c, \ud83d\ude00\n";
+        Path file = dir.resolve("shader.vert");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(text, FileIO.readText(file));
+        assertEquals(text, FileIO.readText(file.toString()));
+        assertEquals(text, Utils.getTextFromFile(file.toString()));
+    }
+
+    @Test
+    public void testLoadSmallAndMapped() throws Exception {
+        byte[] bytes = new byte[100_003];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        Path file = dir.resolve("data.bin");
+        Files.write(file, bytes);
+
+        int threshold = FileIO.mapThreshold;
+        try {
+            FileIO.mapThreshold = bytes.length + 1;
+            ByteBuffer read = FileIO.load(file);
+            assertTrue(read.isDirect());
+            assertContents(bytes, read);
+
+            FileIO.mapThreshold = bytes.length;
+            ByteBuffer mapped = FileIO.load(file);
+            assertTrue(mapped.isDirect());
+            assertEquals(ByteOrder.nativeOrder(), mapped.order());
+            assertContents(bytes, mapped);
+        } finally {
+            FileIO.mapThreshold = threshold;
+        }
+    }
+
+    @Test
+    public void testMapIsNativeOrder() throws Exception {
+        Path file = dir.resolve("floats.bin");
+        ByteBuffer floats = ByteBuffer.allocate(16).order(ByteOrder.nativeOrder());
+        floats.putFloat(1.0f).putFloat(-2.5f).putFloat(3.25f).putFloat(0.0f);
+        Files.write(file, floats.array());
+
+        MappedByteBuffer mapped = FileIO.map(file);
+        assertEquals(16, mapped.remaining());
+        assertEquals(-2.5f, mapped.asFloatBuffer().get(1), 0.0f);
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        Path file = dir.resolve("empty");
+        Files.write(file, new byte[0]);
+        assertEquals(0, FileIO.load(file).remaining());
+        assertEquals("", FileIO.readText(file));
+    }
+
+    @Test
+    public void testClasspathResource() throws Exception {
+        String name = "com/dcronqvist/FileIOTests.class";
+        byte[] expected = Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource(name).toURI()));
+        assertArrayEquals(expected, FileIO.readResource(name));
+        assertArrayEquals(expected, FileIO.readBytes(FileIO.CLASSPATH + name));
+        assertContents(expected, FileIO.load(FileIO.CLASSPATH + name));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void testMissingResource() throws Exception {
+        FileIO.readText(FileIO.CLASSPATH + "does/not/exist.txt");
+    }
+
+    private static void assertContents(byte[] expected, ByteBuffer buffer) {
+        assertEquals(0, buffer.position());
+        assertEquals(expected.length, buffer.remaining());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], buffer.get(i));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dcronqvist.engine.utils.FrameStats;
+import com.dcronqvist.engine.utils.GameTime;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for GameTime and the frame time statistics.
+ */
+public class GameTimeTests {
+    static final double BUCKET = FrameStats.BUCKET_NANOS / 1e9;
+
+    /** Percentiles are rounded up to the end of their histogram bucket */
+    private static void assertPercentile(double expected, double actual) {
+        assertTrue(actual + " < " + expected, actual >= expected - 1e-9);
+        assertTrue(actual + " > " + expected, actual <= expected + BUCKET + 1e-9);
+    }
+
+    @Test
+    public void testDoubleTimeKeepsPrecision() {
+        // Ten hours in, a float total time can no longer tell 1 ms steps apart
+        double hours = 10 * 3600.0;
+        GameTime.set(hours + 0.001, 0.001);
+        assertEquals(hours + 0.001, GameTime.totalSeconds, 1e-9);
+        assertEquals(0.001f, GameTime.deltaTime, 0.0f);
+        assertEquals((float) hours, GameTime.totalTime, 0.0f);
+        assertEquals(0.001, GameTime.totalSeconds - hours, 1e-9);
+    }
+
+    @Test
+    public void testPercentiles() {
+        FrameStats stats = new FrameStats(100);
+        for (int i = 1; i <= 100; i++) {
+            stats.record(i / 1000.0);
+        }
+        assertEquals(100, stats.getCount());
+        assertPercentile(0.050, stats.getP50());
+        assertPercentile(0.095, stats.getP95());
+        assertPercentile(0.099, stats.getP99());
+        assertEquals(0.100, stats.getMax(), 1e-9);
+        assertPercentile(0.001, stats.getPercentile(0.0));
+    }
+
+    @Test
+    public void testWindowRollsOver() {
+        FrameStats stats = new FrameStats(10);
+        for (int i = 0; i < 10; i++) {
+            stats.record(0.1);
+        }
+        for (int i = 0; i < 10; i++) {
+            stats.record(0.01);
+        }
+        assertEquals(10, stats.getCount());
+        assertEquals(20, stats.getFrames());
+        assertEquals(0.01, stats.getMax(), 1e-9);
+        assertEquals(0.01, stats.getP99(), 1e-9);
+    }
+
+    @Test
+    public void testSmoothedFps() {
+        FrameStats stats = new FrameStats(10);
+        for (int i = 0; i < 600; i++) {
+            stats.record(1.0 / 60.0);
+        }
+        assertEquals(60.0, stats.getFPS(), 1e-6);
+        // A single slow frame only nudges the smoothed rate
+        stats.record(0.05);
+        assertTrue(stats.getFPS() > 45.0);
+        assertTrue(stats.getFPS() < 60.0);
+    }
+
+    @Test
+    public void testHitches() {
+        FrameStats stats = new FrameStats(8);
+        for (int i = 0; i < 5; i++) {
+            stats.record(0.016);
+        }
+        stats.record(0.05);
+        stats.record(0.016);
+        assertEquals(1, stats.getWindowHitches());
+        assertEquals(1, stats.getTotalHitches());
+        // Pushed out of the window, but still counted in total
+        for (int i = 0; i < 8; i++) {
+            stats.record(0.016);
+        }
+        assertEquals(0, stats.getWindowHitches());
+        assertEquals(1, stats.getTotalHitches());
+    }
+
+    @Test
+    public void testAppendTo() {
+        FrameStats stats = new FrameStats(4);
+        stats.record(0.02);
+        stats.record(0.02);
+        StringBuilder out = new StringBuilder("frame ");
+        assertEquals("frame fps 50.0 p50 20.00 p95 20.00 p99 20.00 max 20.00 ms hitches 0",
+                stats.appendTo(out).toString());
+    }
+}
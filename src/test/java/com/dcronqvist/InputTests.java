@@ -0,0 +1,200 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_A;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_SPACE;
+import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LEFT;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+import static org.lwjgl.glfw.GLFW.GLFW_RELEASE;
+import static org.lwjgl.glfw.GLFW.GLFW_REPEAT;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.dcronqvist.engine.math.Vector2f;
+import com.dcronqvist.engine.utils.GameTime;
+import com.dcronqvist.engine.utils.Input;
+import com.dcronqvist.engine.utils.InputRecorder;
+import com.dcronqvist.engine.utils.InputReplay;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for the input state, driven without a window.
+ */
+public class InputTests {
+
+    @After
+    public void releaseAll() {
+        Input.begin();
+        for (int key = 0; key <= GLFW_KEY_LAST; key++) {
+            Input.setKey(key, false);
+        }
+        Input.onMouseButton(GLFW_MOUSE_BUTTON_LEFT, GLFW_RELEASE, 0);
+        Input.begin();
+        Input.end();
+    }
+
+    @Test
+    public void testKeyPressedOnFirstFrame() {
+        Input.setKey(GLFW_KEY_A, true);
+        assertTrue(Input.isKeyDown(GLFW_KEY_A));
+        assertTrue(Input.isKeyPressed(GLFW_KEY_A));
+        assertFalse(Input.isKeyPressed(GLFW_KEY_SPACE));
+    }
+
+    @Test
+    public void testKeyPressedOnlyOnFirstFrameHeld() {
+        Input.onKey(GLFW_KEY_LAST, 0, GLFW_PRESS, 0);
+        Input.begin();
+        assertTrue(Input.isKeyPressed(GLFW_KEY_LAST));
+        Input.end();
+
+        Input.onKey(GLFW_KEY_LAST, 0, GLFW_REPEAT, 0);
+        Input.begin();
+        assertTrue(Input.isKeyDown(GLFW_KEY_LAST));
+        assertFalse(Input.isKeyPressed(GLFW_KEY_LAST));
+        Input.end();
+    }
+
+    @Test
+    public void testTapWithinOneFrameIsNotLost() {
+        Input.onKey(GLFW_KEY_SPACE, 0, GLFW_PRESS, 0);
+        Input.onKey(GLFW_KEY_SPACE, 0, GLFW_RELEASE, 0);
+        Input.onMouseButton(GLFW_MOUSE_BUTTON_LEFT, GLFW_PRESS, 0);
+        Input.begin();
+        assertTrue(Input.isKeyPressed(GLFW_KEY_SPACE));
+        assertTrue(Input.isKeyReleased(GLFW_KEY_SPACE));
+        assertFalse(Input.isKeyDown(GLFW_KEY_SPACE));
+        assertTrue(Input.isMousePressed(GLFW_MOUSE_BUTTON_LEFT));
+        assertTrue(Input.isMouseDown(GLFW_MOUSE_BUTTON_LEFT));
+        Input.end();
+
+        Input.begin();
+        assertFalse(Input.isKeyPressed(GLFW_KEY_SPACE));
+        assertFalse(Input.isMousePressed(GLFW_MOUSE_BUTTON_LEFT));
+        assertTrue(Input.isMouseDown(GLFW_MOUSE_BUTTON_LEFT));
+        Input.end();
+    }
+
+    @Test
+    public void testCursorAndScrollEvents() {
+        Input.onCursorPos(10.0, 20.0);
+        Input.onCursorPos(15.0, 25.0);
+        Input.onScroll(0.0, 1.0);
+        Input.onScroll(0.0, 2.0);
+        Input.begin();
+        assertEquals(15.0f, Input.getMousePosition().x, 0.0f);
+        assertEquals(25.0f, Input.getMousePosition().y, 0.0f);
+        assertEquals(3.0f, Input.getMouseWheelMove(), 0.0f);
+        Input.end();
+        assertEquals(0.0f, Input.getMouseWheelMove(), 0.0f);
+    }
+
+    @Test
+    public void testMousePositionAndDeltaWithoutAllocating() {
+        Vector2f dest = new Vector2f();
+        Input.onCursorPos(50.0, 60.0);
+        Input.begin();
+        Input.end();
+        Input.onCursorPos(55.0, 58.0);
+        Input.onCursorPos(57.0, 52.0);
+        Input.begin();
+        assertEquals(57.0f, Input.getMouseX(), 0.0f);
+        assertEquals(52.0f, Input.getMouseY(), 0.0f);
+        assertSame(dest, Input.getMousePosition(dest));
+        assertEquals(57.0f, dest.x, 0.0f);
+        Input.getMouseDelta(dest);
+        assertEquals(7.0f, dest.x, 0.0f);
+        assertEquals(-8.0f, dest.y, 0.0f);
+        Input.end();
+
+        Input.begin();
+        assertEquals(0.0f, Input.getMouseDeltaX(), 0.0f);
+        assertEquals(0.0f, Input.getMouseDeltaY(), 0.0f);
+        Input.end();
+    }
+
+    @Test
+    public void testFullQueueDropsEvents() {
+        long dropped = Input.getDroppedEvents();
+        for (int i = 0; i < 2000; i++) {
+            Input.onCursorPos(i, i);
+        }
+        assertTrue(Input.getDroppedEvents() > dropped);
+
+        // The cursor leaves room for keys and buttons
+        Input.onKey(GLFW_KEY_A, 0, GLFW_PRESS, 0);
+        Input.onMouseButton(GLFW_MOUSE_BUTTON_LEFT, GLFW_PRESS, 0);
+        Input.begin();
+        assertEquals(767.0f, Input.getMousePosition().x, 0.0f);
+        assertTrue(Input.isKeyPressed(GLFW_KEY_A));
+        assertTrue(Input.isMousePressed(GLFW_MOUSE_BUTTON_LEFT));
+        Input.end();
+    }
+
+    @Test
+    public void testDroppedReleaseDoesNotStickKeys() {
+        Input.onKey(GLFW_KEY_A, 0, GLFW_PRESS, 0);
+        Input.onMouseButton(GLFW_MOUSE_BUTTON_LEFT, GLFW_PRESS, 0);
+        Input.begin();
+        Input.end();
+        assertTrue(Input.isKeyDown(GLFW_KEY_A));
+
+        for (int i = 0; i < 2000; i++) {
+            Input.onKey(GLFW_KEY_SPACE, 0, GLFW_REPEAT, 0);
+        }
+        Input.onKey(GLFW_KEY_A, 0, GLFW_RELEASE, 0);
+        Input.onMouseButton(GLFW_MOUSE_BUTTON_LEFT, GLFW_RELEASE, 0);
+        Input.begin();
+        // Without a window, every held key and button is released
+        assertFalse(Input.isKeyDown(GLFW_KEY_A));
+        assertTrue(Input.isKeyReleased(GLFW_KEY_A));
+        assertFalse(Input.isMouseDown(GLFW_MOUSE_BUTTON_LEFT));
+        Input.end();
+    }
+
+    @Test
+    public void testReplayReproducesRecordedFrames() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Input.startRecording(new InputRecorder(bytes));
+        GameTime.set(1.0, 0.016);
+        Input.onKey(GLFW_KEY_A, 0, GLFW_PRESS, 0);
+        Input.onCursorPos(100.5, 200.25);
+        Input.begin();
+        Input.end();
+        GameTime.set(1.016, 0.016);
+        Input.onKey(GLFW_KEY_A, 0, GLFW_RELEASE, 0);
+        Input.onScroll(0.0, -1.0);
+        Input.begin();
+        Input.end();
+        Input.stopRecording();
+        releaseAll();
+
+        try (InputReplay replay = new InputReplay(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertTrue(replay.nextFrame());
+            Input.begin();
+            assertEquals(1.0f, GameTime.totalTime, 0.0f);
+            assertEquals(0.016f, GameTime.deltaTime, 0.0f);
+            assertTrue(Input.isKeyPressed(GLFW_KEY_A));
+            assertEquals(100.5f, Input.getMousePosition().x, 0.0f);
+            Input.end();
+
+            assertTrue(replay.nextFrame());
+            Input.begin();
+            assertEquals(1.016f, GameTime.totalTime, 0.0f);
+            assertTrue(Input.isKeyReleased(GLFW_KEY_A));
+            assertEquals(-1.0f, Input.getMouseWheelMove(), 0.0f);
+            Input.end();
+
+            assertFalse(replay.nextFrame());
+            assertEquals(2, replay.getFrames());
+        }
+    }
+}
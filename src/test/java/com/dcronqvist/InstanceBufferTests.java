@@ -0,0 +1,89 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.FloatBuffer;
+
+import com.dcronqvist.engine.graphics.InstanceBuffer;
+import com.dcronqvist.engine.math.Matrix3f;
+import com.dcronqvist.engine.math.Matrix4f;
+import com.dcronqvist.engine.math.Vector3f;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the CPU side of the instance buffer, no GL context needed.
+ */
+public class InstanceBufferTests {
+
+    @Test
+    public void testPackedMatricesMatchStore() {
+        InstanceBuffer instances = new InstanceBuffer(4, false);
+        Matrix4f[] models = { Matrix4f.identity().translate(new Vector3f(1, 2, 3)),
+                Matrix4f.identity().scale(new Vector3f(2, 2, 2)) };
+
+        instances.begin();
+        instances.add(models, 0, models.length);
+        FloatBuffer data = instances.getFrameData();
+        assertEquals(2 * 16, data.remaining());
+
+        FloatBuffer expected = FloatBuffer.allocate(2 * 16);
+        models[0].store(expected);
+        models[1].store(expected);
+        for (int i = 0; i < 2 * 16; i++) {
+            assertEquals("Float " + i, expected.get(i), data.get(data.position() + i), 0.0f);
+        }
+    }
+
+    @Test
+    public void testNormalMatrixFollowsModelMatrix() {
+        InstanceBuffer instances = new InstanceBuffer(2, true);
+        Matrix3f normal = new Matrix3f(1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+        instances.begin();
+        instances.add(Matrix4f.identity(), normal);
+        instances.add(Matrix4f.identity(), normal);
+        FloatBuffer data = instances.getFrameData();
+        assertEquals(100, instances.getStride());
+        assertEquals(2 * 25, data.remaining());
+        assertEquals(1.0f, data.get(data.position() + 16), 0.0f);
+        assertEquals(9.0f, data.get(data.position() + 25 + 24), 0.0f);
+    }
+
+    @Test
+    public void testFramesCycleThroughRegions() {
+        InstanceBuffer instances = new InstanceBuffer(8, false);
+        for (int frame = 0; frame < 6; frame++) {
+            instances.begin();
+            assertEquals(frame % 3, instances.getFrame());
+            assertEquals(0, instances.getCount());
+            instances.add(Matrix4f.identity());
+            assertEquals((long) (frame % 3) * 8 * 16 * 4, instances.getFrameOffset());
+        }
+    }
+
+    @Test
+    public void testFrameDataOverManyFrames() {
+        InstanceBuffer instances = new InstanceBuffer(4, false);
+        for (int frame = 0; frame < 8; frame++) {
+            int count = 1 + frame % 4;
+            instances.begin();
+            for (int i = 0; i < count; i++) {
+                instances.add(Matrix4f.identity().translate(new Vector3f(frame, i, 0)));
+            }
+            FloatBuffer data = instances.getFrameData();
+            assertEquals(count * 16, data.remaining());
+            assertEquals(instances.getFrameOffset(), data.position() * (long) Float.BYTES);
+            // The translation of the last instance
+            assertEquals(count - 1, data.get(data.position() + (count - 1) * 16 + 13), 0.0f);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddingPastCapacityThrows() {
+        InstanceBuffer instances = new InstanceBuffer(1, false);
+        instances.begin();
+        instances.add(Matrix4f.identity());
+        instances.add(Matrix4f.identity());
+    }
+}
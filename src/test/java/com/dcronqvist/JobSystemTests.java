@@ -0,0 +1,203 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dcronqvist.WindowTests.CountingWindow;
+import com.dcronqvist.engine.graphics.HeadlessPlatform;
+import com.dcronqvist.engine.jobs.JobCounter;
+import com.dcronqvist.engine.jobs.JobSystem;
+import com.dcronqvist.engine.utils.Profiler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the job system.
+ */
+public class JobSystemTests {
+    JobSystem jobs;
+
+    @Before
+    public void createJobSystem() {
+        jobs = new JobSystem(4);
+    }
+
+    @After
+    public void shutdownJobSystem() {
+        jobs.shutdown();
+    }
+
+    @Test
+    public void testParallelForCoversRangeOnce() {
+        int[] hits = new int[10_007];
+        AtomicInteger ranges = new AtomicInteger();
+        jobs.parallelFor(3, hits.length, 100, (from, to) -> {
+            assertTrue(to - from <= 100);
+            ranges.incrementAndGet();
+            for (int i = from; i < to; i++) {
+                hits[i]++;
+            }
+        });
+        for (int i = 0; i < hits.length; i++) {
+            assertEquals(i < 3 ? 0 : 1, hits[i]);
+        }
+        assertEquals(ranges.get(), jobs.getJobCount());
+    }
+
+    @Test
+    public void testChildJobsKeepCounterOpen() {
+        JobCounter counter = new JobCounter();
+        AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            jobs.run("parent", () -> {
+                for (int j = 0; j < 8; j++) {
+                    jobs.run("child", () -> {
+                        sleep(1);
+                        done.incrementAndGet();
+                    }, counter);
+                }
+                done.incrementAndGet();
+            }, counter);
+        }
+        jobs.await(counter);
+        assertTrue(counter.isDone());
+        assertEquals(8 + 64, done.get());
+    }
+
+    @Test
+    public void testRetiredWorkersAreDropped() throws Exception {
+        Set<Profiler> profilers = ConcurrentHashMap.newKeySet();
+        jobs.parallelFor("retire", 0, 64, 1, (from, to) -> {
+            profilers.add(Profiler.get());
+            sleep(1);
+        });
+        long busy = jobs.getBusyNanos();
+        long[] perWorker = new long[16];
+        int workers = jobs.getBusyNanos(perWorker);
+        assertTrue(workers > 0 && workers <= 16);
+
+        jobs.shutdown();
+        assertTrue(jobs.getPool().awaitTermination(10, TimeUnit.SECONDS));
+
+        // Their busy time is kept, but their indices and profilers are not
+        assertEquals(busy, jobs.getBusyNanos());
+        assertEquals(0, jobs.getBusyNanos(perWorker));
+        for (Profiler p : profilers) {
+            if (p.getThreadName().startsWith("job-")) {
+                assertTrue(!Profiler.getProfilers().contains(p));
+            }
+        }
+    }
+
+    @Test
+    public void testNestedParallelForFromWorker() {
+        long[] sums = new long[16];
+        JobCounter counter = new JobCounter();
+        jobs.parallelFor("outer", 0, sums.length, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int row = i;
+                AtomicLong sum = new AtomicLong();
+                jobs.parallelFor(0, 1000, 10, (a, b) -> {
+                    long s = 0;
+                    for (int k = a; k < b; k++) {
+                        s += k;
+                    }
+                    sum.addAndGet(s);
+                });
+                sums[row] = sum.get();
+            }
+        }, counter);
+        jobs.await(counter);
+        for (long sum : sums) {
+            assertEquals(999 * 1000 / 2, sum);
+        }
+    }
+
+    @Test
+    public void testAwaitRethrows() {
+        JobCounter counter = new JobCounter();
+        jobs.run(() -> {
+            throw new IllegalStateException("job failed");
+        }, counter);
+        try {
+            jobs.await(counter);
+            throw new AssertionError("expected the job's exception");
+        } catch (IllegalStateException e) {
+            assertEquals("job failed", e.getMessage());
+        }
+        // The error is cleared, so the counter can be reused
+        jobs.run(() -> {
+        }, counter);
+        jobs.await(counter);
+    }
+
+    @Test
+    public void testTimingHooks() {
+        ConcurrentHashMap<Integer, Long> perWorker = new ConcurrentHashMap<>();
+        jobs.setListener((name, worker, start, end) -> {
+            assertEquals("work", name);
+            assertTrue(end >= start);
+            perWorker.merge(worker, end - start, Long::sum);
+        });
+        jobs.parallelFor("work", 0, 64, 1, (from, to) -> sleep(2));
+
+        long total = 0;
+        for (long nanos : perWorker.values()) {
+            total += nanos;
+        }
+        assertEquals(total, jobs.getBusyNanos());
+        assertTrue(jobs.getBusyNanos() >= 64 * 2_000_000L);
+        assertEquals(64, jobs.getJobCount());
+
+        long[] busy = new long[16];
+        int workers = jobs.getBusyNanos(busy);
+        assertTrue(workers >= 1);
+        long sum = 0;
+        for (int i = 0; i < workers; i++) {
+            sum += busy[i];
+        }
+        assertEquals(total, sum);
+    }
+
+    @Test
+    public void testFrameJobsFinishBeforeRender() throws Exception {
+        AtomicInteger finished = new AtomicInteger();
+        CountingWindow window = new CountingWindow() {
+            @Override
+            protected void update() {
+                super.update();
+                JobSystem shared = JobSystem.get();
+                for (int i = 0; i < 4; i++) {
+                    shared.run(() -> {
+                        sleep(5);
+                        finished.incrementAndGet();
+                    }, shared.getFrameJobs());
+                }
+            }
+
+            @Override
+            protected void render() {
+                assertEquals(4 * (renders + 1), finished.get());
+                super.render();
+            }
+        };
+        window.run(new HeadlessPlatform(5, 0.01), new String[0]);
+        assertEquals(5, window.renders);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
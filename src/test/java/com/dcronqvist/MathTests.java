@@ -1,9 +1,30 @@
 package com.dcronqvist;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.dcronqvist.engine.math.CamMath;
+import com.dcronqvist.engine.math.Frustum;
+import com.dcronqvist.engine.math.MathStack;
+import com.dcronqvist.engine.math.Matrix4f;
+import com.dcronqvist.engine.math.Quaternionf;
+import com.dcronqvist.engine.math.SurfaceMath;
+import com.dcronqvist.engine.math.Transform;
+import com.dcronqvist.engine.math.TrigMath;
 import com.dcronqvist.engine.math.Vector2f;
+import com.dcronqvist.engine.math.Vector3f;
+import com.dcronqvist.engine.math.Vector3fBuffer;
+import com.dcronqvist.engine.math.Vector4f;
 import com.dcronqvist.engine.utils.Utils;
 
 import org.junit.Test;
@@ -59,4 +80,519 @@ public class MathTests {
             assertEquals("Random Normalized Vector2f length was not 1.", 1.0f, length, 0.0001f);
         }
     }
+
+    @Test
+    public void testVector3fDestMatchesAllocating() {
+        Vector3f a = new Vector3f(1, 2, 3);
+        Vector3f b = new Vector3f(-4, 5, 0.5f);
+        Vector3f dest = new Vector3f();
+        assertVector3fEquals(a.add(b), a.add(b, dest));
+        assertVector3fEquals(a.sub(b), a.sub(b, dest));
+        assertVector3fEquals(a.mul(b), a.mul(b, dest));
+        assertVector3fEquals(a.mul(3.0f), a.mul(3.0f, dest));
+        assertVector3fEquals(a.normalize(), a.normalize(dest));
+        assertVector3fEquals(a.cross(b), a.cross(b, dest));
+    }
+
+    @Test
+    public void testVector3fLocalIsAliasSafe() {
+        Vector3f a = new Vector3f(1, 2, 3);
+        Vector3f b = new Vector3f(-4, 5, 0.5f);
+        Vector3f expected = a.cross(b);
+        assertVector3fEquals(expected, new Vector3f(a).crossLocal(b));
+
+        Matrix4f rot = new Matrix4f(0, 1, 0, 0, -1, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1);
+        assertVector3fEquals(a.mul(rot), new Vector3f(a).mulLocal(rot));
+    }
+
+    @Test
+    public void testVector2fLocalMatchesAllocating() {
+        Vector2f a = new Vector2f(3, 4);
+        Vector2f b = new Vector2f(1, -2);
+        assertTrue(a.add(b).equals(new Vector2f(a).addLocal(b)));
+        assertTrue(a.sub(b).equals(new Vector2f(a).subLocal(b)));
+        assertTrue(a.scale(2.5f).equals(new Vector2f(a).scaleLocal(2.5f)));
+        assertTrue(a.normalize().equals(new Vector2f(a).normalizeLocal()));
+        assertTrue(a.perpendicular().equals(a.perpendicular(new Vector2f())));
+    }
+
+    @Test
+    public void testVector4fTransformByIdentity() {
+        Vector4f v = new Vector4f(1, 2, 3, 1);
+        v.mulLocal(Matrix4f.identity());
+        assertEquals(1.0f, v.x, 0.0f);
+        assertEquals(2.0f, v.y, 0.0f);
+        assertEquals(3.0f, v.z, 0.0f);
+        assertEquals(1.0f, v.w, 0.0f);
+        assertEquals(1.0f, v.normalizeLocal().length(), 0.0001f);
+    }
+
+    @Test
+    public void testVectorLocalAndDestPathsDoNotAllocate() {
+        Vector3f a = new Vector3f(1, 2, 3);
+        Vector3f b = new Vector3f(-4, 5, 0.5f);
+        Vector3f dest = new Vector3f();
+        Vector2f a2 = new Vector2f(1, 2);
+        Vector2f d2 = new Vector2f();
+        Vector4f a4 = new Vector4f(1, 2, 3, 4);
+        Vector4f d4 = new Vector4f();
+        Matrix4f mat = Matrix4f.identity();
+
+        int iterations = 100000;
+        long before = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            a.add(b, dest).subLocal(b).mulLocal(0.5f).crossLocal(b).normalizeLocal();
+            a.cross(b, dest).mulLocal(mat).addLocal(a);
+            a2.add(a2, d2).scaleLocal(0.5f).normalizeLocal();
+            a4.mul(mat, d4).addLocal(a4).normalizeLocal();
+        }
+        long allocated = allocatedBytes() - before;
+        // A single object per iteration would be at least 16 bytes, so anything
+        // below one byte per iteration is measurement noise.
+        assertTrue("Vector dest/local paths allocated " + allocated + " bytes.", allocated < iterations);
+    }
+
+    @Test
+    public void testMatrix4fMulLocalIsAliasSafe() {
+        Matrix4f a = sampleMatrix();
+        Matrix4f b = sampleMatrix().transpose();
+        assertMatrix4fEquals(a.mul(b), new Matrix4f(a).mulLocal(b));
+
+        Matrix4f fast = new Matrix4f();
+        Matrix4f.mulFast(a, b, fast);
+        assertMatrix4fEquals(a.mul(b), fast);
+    }
+
+    @Test
+    public void testMatrix4fInvertTimesSourceIsIdentity() {
+        Matrix4f a = sampleMatrix();
+        Matrix4f inv = new Matrix4f(a).invertLocal();
+        assertMatrix4fEquals(Matrix4f.identity(), a.mul(inv));
+
+        Matrix4f fast = new Matrix4f();
+        Matrix4f.invertFast(a, fast);
+        assertMatrix4fEquals(a.inverted(), fast);
+
+        Matrix4f singular = new Matrix4f();
+        assertSame(singular, singular.inverted());
+    }
+
+    @Test
+    public void testMatrix4fTransposeTranslateScaleLocal() {
+        Matrix4f a = sampleMatrix();
+        assertMatrix4fEquals(a.transpose(), new Matrix4f(a).transposeLocal());
+        Vector3f v = new Vector3f(2, -3, 4);
+        assertMatrix4fEquals(a.translate(v), new Matrix4f(a).translateLocal(v));
+        assertMatrix4fEquals(a.scale(v), new Matrix4f(a).scaleLocal(v));
+        assertMatrix4fEquals(a.mul(0.5f), new Matrix4f(a).mulLocal(0.5f));
+    }
+
+    @Test
+    public void testMatrix4fModelViewProjectionDoesNotAllocate() {
+        Matrix4f projection = sampleMatrix();
+        Matrix4f view = sampleMatrix().transpose();
+        Matrix4f model = new Matrix4f();
+        Matrix4f mvp = new Matrix4f();
+        Matrix4f normal = new Matrix4f();
+        Vector3f position = new Vector3f(1, 2, 3);
+        Vector3f scale = new Vector3f(2, 2, 2);
+
+        int iterations = 100000;
+        long before = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            model.setIdentity().scaleLocal(scale).translateLocal(position);
+            projection.mul(view, mvp).mulLocal(model);
+            model.inverted(normal).transposeLocal();
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue("Matrix4f dest/local paths allocated " + allocated + " bytes.", allocated < iterations);
+    }
+
+    @Test
+    public void testMathStackReusesObjectsAfterPop() {
+        MathStack stack = MathStack.get();
+        Vector3f first;
+        Matrix4f firstMatrix;
+        try (MathStack s = MathStack.stackPush()) {
+            first = s.vec3(1, 2, 3);
+            firstMatrix = s.mat4();
+            try (MathStack inner = MathStack.stackPush()) {
+                assertTrue(inner.vec3() != first);
+                assertEquals(2, inner.getDepth());
+            }
+        }
+        assertEquals(0, stack.getDepth());
+        try (MathStack s = MathStack.stackPush()) {
+            Vector3f again = s.vec3();
+            assertSame(first, again);
+            assertVector3fEquals(new Vector3f(0, 0, 0), again);
+            assertSame(firstMatrix, s.mat4());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMathStackPopWithoutPushThrows() {
+        MathStack.get().pop();
+    }
+
+    @Test
+    public void testCamMathDestMatchesAllocatingAndDoesNotAllocate() {
+        Vector3f position = new Vector3f(1, 2, 3);
+        Vector3f centre = new Vector3f(-4, 0, -10);
+        Vector3f up = new Vector3f(0, 1, 0);
+        Matrix4f view = new Matrix4f(5.0f);
+        Matrix4f projection = new Matrix4f(5.0f);
+        Matrix4f ortho = new Matrix4f(5.0f);
+        assertMatrix4fEquals(CamMath.lookAt(position, centre, up), CamMath.lookAt(position, centre, up, view));
+        assertMatrix4fEquals(CamMath.perspective(70.0f, 1.5f, 0.1f, 100.0f),
+                CamMath.perspective(70.0f, 1.5f, 0.1f, 100.0f, projection));
+        assertMatrix4fEquals(CamMath.ortho(0, 1280, 720, 0, -1, 1), CamMath.ortho(0, 1280, 720, 0, -1, 1, ortho));
+
+        int iterations = 100000;
+        long before = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            CamMath.lookAt(position, centre, up, view);
+            CamMath.perspective(70.0f, 1.5f, 0.1f, 100.0f, projection);
+            CamMath.ortho(0, 1280, 720, 0, -1, 1, ortho);
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue("CamMath dest paths allocated " + allocated + " bytes.", allocated < iterations);
+    }
+
+    @Test
+    public void testVector3fBufferTransformPointsMatchesMatrix() {
+        Matrix4f mat = sampleMatrix();
+        Vector3fBuffer points = directVector3fBuffer(3);
+        points.set(0, 1, 2, 3);
+        points.set(1, -1, 0, 4);
+        points.set(2, 0.5f, 0.25f, -2);
+        Vector4f expected = new Vector4f();
+        Vector3f actual = new Vector3f();
+        Vector3f[] before = { points.get(0, new Vector3f()), points.get(1, new Vector3f()),
+                points.get(2, new Vector3f()) };
+
+        points.transformPoints(mat);
+        for (int i = 0; i < 3; i++) {
+            new Vector4f(before[i].x, before[i].y, before[i].z, 1).mul(mat, expected);
+            assertVector3fEquals(new Vector3f(expected.x, expected.y, expected.z), points.get(i, actual));
+        }
+    }
+
+    @Test
+    public void testVector3fBufferBulkOperations() {
+        Vector3fBuffer vectors = directVector3fBuffer(2);
+        vectors.set(0, 3, 0, 4);
+        vectors.set(1, 0, 2, 0);
+        vectors.normalize();
+        assertVector3fEquals(new Vector3f(0.6f, 0, 0.8f), vectors.get(0, new Vector3f()));
+        assertVector3fEquals(new Vector3f(0, 1, 0), vectors.get(1, new Vector3f()));
+
+        float[] dots = new float[2];
+        vectors.dot(new Vector3f(1, 1, 1), dots);
+        assertEquals(1.4f, dots[0], 0.0001f);
+        assertEquals(1.0f, dots[1], 0.0001f);
+
+        vectors.cross(new Vector3f(1, 0, 0));
+        assertVector3fEquals(new Vector3f(0, 1, 0).cross(new Vector3f(1, 0, 0)), vectors.get(1, new Vector3f()));
+
+        vectors.scale(2.0f);
+        vectors.add(new Vector3f(1, 1, 1));
+        assertVector3fEquals(new Vector3f(1, 1, -1), vectors.get(1, new Vector3f()));
+        assertEquals(6, vectors.buffer().remaining());
+    }
+
+    @Test
+    public void testQuaternionfRotateMatchesMatrix() {
+        Quaternionf q = Quaternionf.fromAxisAngle(new Vector3f(1, 2, -1).normalize(), 1.2f);
+        Vector3f v = new Vector3f(3, -1, 2);
+        Vector3f rotated = q.rotate(v, new Vector3f());
+        assertVector3fEquals(v.mul(q.toMatrix(new Matrix4f())), rotated);
+        assertEquals(v.length(), rotated.length(), 0.0001f);
+
+        Vector3f quarter = Quaternionf.fromAxisAngle(new Vector3f(0, 1, 0), (float) Math.PI / 2).rotate(
+                new Vector3f(1, 0, 0), new Vector3f());
+        assertVector3fEquals(new Vector3f(0, 0, -1), quarter);
+    }
+
+    @Test
+    public void testQuaternionfEulerMatchesAxisAngleProduct() {
+        float pitch = 0.3f, yaw = -1.1f, roll = 0.7f;
+        Quaternionf expected = Quaternionf.fromAxisAngle(new Vector3f(0, 1, 0), yaw)
+                .mulLocal(Quaternionf.fromAxisAngle(new Vector3f(1, 0, 0), pitch))
+                .mulLocal(Quaternionf.fromAxisAngle(new Vector3f(0, 0, 1), roll));
+        Quaternionf actual = Quaternionf.fromEuler(pitch, yaw, roll);
+        assertEquals(1.0f, Math.abs(expected.dot(actual)), 0.0001f);
+    }
+
+    @Test
+    public void testQuaternionfSlerpEndpointsAndMidpoint() {
+        Vector3f axis = new Vector3f(0, 0, 1);
+        Quaternionf a = Quaternionf.fromAxisAngle(axis, 0.2f);
+        Quaternionf b = Quaternionf.fromAxisAngle(axis, 1.8f);
+        Quaternionf dest = new Quaternionf();
+        assertEquals(1.0f, Quaternionf.slerp(a, b, 0.0f, dest).dot(a), 0.0001f);
+        assertEquals(1.0f, Quaternionf.slerp(a, b, 1.0f, dest).dot(b), 0.0001f);
+        Quaternionf mid = Quaternionf.fromAxisAngle(axis, 1.0f);
+        assertEquals(1.0f, Quaternionf.slerp(a, b, 0.5f, dest).dot(mid), 0.0001f);
+        assertEquals(1.0f, Quaternionf.nlerp(a, b, 0.5f, dest).dot(mid), 0.0001f);
+    }
+
+    @Test
+    public void testTransformMatrixMatchesTranslateRotateScale() {
+        Vector3f translation = new Vector3f(4, -2, 1);
+        Quaternionf rotation = Quaternionf.fromEuler(0.4f, 1.3f, -0.2f);
+        Vector3f scale = new Vector3f(2, 0.5f, 3);
+        Transform transform = new Transform(translation, rotation, scale);
+
+        Matrix4f expected = Matrix4f.identity().translate(translation).mul(rotation.toMatrix(new Matrix4f()))
+                .mul(Matrix4f.identity().scale(scale));
+        assertMatrix4fEquals(expected, transform.toMatrix(new Matrix4f()));
+
+        Vector3f point = new Vector3f(1, 2, 3);
+        Vector4f expectedPoint = new Vector4f(1, 2, 3, 1).mul(expected, new Vector4f());
+        assertVector3fEquals(new Vector3f(expectedPoint.x, expectedPoint.y, expectedPoint.z),
+                transform.transformPoint(point, new Vector3f()));
+    }
+
+    @Test
+    public void testFrustumSingleTests() {
+        Frustum frustum = cameraFrustum();
+        assertTrue(frustum.testPoint(new Vector3f(0, 0, -10)));
+        assertTrue(!frustum.testPoint(new Vector3f(0, 0, 10)));
+        assertTrue(!frustum.testPoint(new Vector3f(0, 0, -200)));
+        assertTrue(!frustum.testSphere(new Vector3f(50, 0, -10), 1.0f));
+        assertTrue(frustum.testSphere(new Vector3f(0, 0, 1), 2.0f));
+        assertTrue(frustum.testAabb(new Vector3f(-1, -1, -1), new Vector3f(1, 1, 1)));
+        assertTrue(!frustum.testAabb(new Vector3f(-1, -1, 1), new Vector3f(1, 1, 3)));
+    }
+
+    @Test
+    public void testFrustumBatchCullingMatchesSingleTests() {
+        Frustum frustum = cameraFrustum();
+        int count = 1000;
+        float[] x = new float[count], y = new float[count], z = new float[count], r = new float[count];
+        float[] maxX = new float[count], maxY = new float[count], maxZ = new float[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = Utils.getRandomFloat(-60, 60);
+            y[i] = Utils.getRandomFloat(-60, 60);
+            z[i] = Utils.getRandomFloat(-120, 20);
+            r[i] = Utils.getRandomFloat(0, 3);
+            maxX[i] = x[i] + r[i];
+            maxY[i] = y[i] + r[i];
+            maxZ[i] = z[i] + r[i];
+        }
+
+        long[] spheres = new long[Frustum.words(count)];
+        long[] boxes = new long[Frustum.words(count)];
+        frustum.cullSpheres(x, y, z, r, count, spheres);
+        frustum.cullAabbs(x, y, z, maxX, maxY, maxZ, count, boxes);
+        for (int i = 0; i < count; i++) {
+            assertEquals("Sphere " + i, frustum.testSphere(x[i], y[i], z[i], r[i]), Frustum.isVisible(spheres, i));
+            assertEquals("Box " + i, frustum.testAabb(x[i], y[i], z[i], maxX[i], maxY[i], maxZ[i]),
+                    Frustum.isVisible(boxes, i));
+        }
+
+        int threshold = Frustum.parallelThreshold;
+        Frustum.parallelThreshold = 2;
+        try {
+            ForkJoinPool pool = new ForkJoinPool(4);
+            long[] parallelSpheres = new long[Frustum.words(count)];
+            long[] parallelBoxes = new long[Frustum.words(count)];
+            frustum.cullSpheres(x, y, z, r, count, parallelSpheres, pool);
+            frustum.cullAabbs(x, y, z, maxX, maxY, maxZ, count, parallelBoxes, pool);
+            pool.shutdown();
+            assertTrue(Arrays.equals(spheres, parallelSpheres));
+            assertTrue(Arrays.equals(boxes, parallelBoxes));
+        } finally {
+            Frustum.parallelThreshold = threshold;
+        }
+    }
+
+    @Test
+    public void testSurfaceMathBulkNormalsAndTangentsOfQuad() {
+        // Interleaved XYZ UV, a unit quad in the XY plane
+        float[] vertices = { 0, 0, 0, 0, 0, 1, 0, 0, 1, 0, 1, 1, 0, 1, 1, 0, 1, 0, 0, 1 };
+        int[] indices = { 0, 1, 2, 0, 2, 3 };
+        float[] normals = new float[12];
+        float[] tangents = new float[12];
+        float[] binormals = new float[12];
+        SurfaceMath.normals(vertices, 5, 0, indices, normals);
+        SurfaceMath.tangents(vertices, 5, 0, 3, indices, tangents, binormals);
+        for (int i = 0; i < 4; i++) {
+            assertVector3fEquals(new Vector3f(0, 0, 1),
+                    new Vector3f(normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]));
+            assertVector3fEquals(new Vector3f(1, 0, 0),
+                    new Vector3f(tangents[i * 3], tangents[i * 3 + 1], tangents[i * 3 + 2]));
+            assertVector3fEquals(new Vector3f(0, 1, 0),
+                    new Vector3f(binormals[i * 3], binormals[i * 3 + 1], binormals[i * 3 + 2]));
+        }
+    }
+
+    @Test
+    public void testSurfaceMathBulkMatchesParallelAndBuffers() {
+        int size = 40;
+        float[] vertices = new float[size * size * 5];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int i = (y * size + x) * 5;
+                vertices[i] = x;
+                vertices[i + 1] = y;
+                vertices[i + 2] = Utils.getRandomFloat(-1, 1);
+                vertices[i + 3] = x / (float) size;
+                vertices[i + 4] = y / (float) size;
+            }
+        }
+        int[] indices = new int[(size - 1) * (size - 1) * 6];
+        int n = 0;
+        for (int y = 0; y < size - 1; y++) {
+            for (int x = 0; x < size - 1; x++) {
+                int i = y * size + x;
+                indices[n++] = i;
+                indices[n++] = i + 1;
+                indices[n++] = i + size;
+                indices[n++] = i + 1;
+                indices[n++] = i + size + 1;
+                indices[n++] = i + size;
+            }
+        }
+
+        float[] normals = new float[size * size * 3];
+        float[] tangents = new float[size * size * 3];
+        SurfaceMath.normals(vertices, 5, 0, indices, normals);
+        SurfaceMath.tangents(vertices, 5, 0, 3, indices, tangents, null);
+
+        FloatBuffer bufferNormals = FloatBuffer.allocate(normals.length);
+        SurfaceMath.normals(FloatBuffer.wrap(vertices), 5, 0, IntBuffer.wrap(indices), bufferNormals);
+        assertArrayEquals(normals, bufferNormals.array());
+
+        int threshold = SurfaceMath.parallelThreshold;
+        SurfaceMath.parallelThreshold = 16;
+        try {
+            ForkJoinPool pool = new ForkJoinPool(4);
+            float[] parallelNormals = new float[normals.length];
+            float[] parallelTangents = new float[tangents.length];
+            SurfaceMath.normals(vertices, 5, 0, indices, parallelNormals, pool);
+            SurfaceMath.tangents(vertices, 5, 0, 3, indices, parallelTangents, null, pool);
+            pool.shutdown();
+            assertArrayEquals(normals, parallelNormals);
+            assertArrayEquals(tangents, parallelTangents);
+        } finally {
+            SurfaceMath.parallelThreshold = threshold;
+        }
+
+        // The normal of the first vertex only touches the first triangle
+        Vector3f expected = SurfaceMath.normal(new Vector3f(vertices[0], vertices[1], vertices[2]),
+                new Vector3f(vertices[5], vertices[6], vertices[7]),
+                new Vector3f(vertices[size * 5], vertices[size * 5 + 1], vertices[size * 5 + 2])).normalize();
+        assertVector3fEquals(expected, new Vector3f(normals[0], normals[1], normals[2]));
+    }
+
+    @Test
+    public void testFastTrigWithinDocumentedError() {
+        float sin = 0, cos = 0, table = 0, atan2 = 0;
+        Vector2f sinCos = new Vector2f();
+        boolean fastTrig = TrigMath.fastTrig;
+        TrigMath.fastTrig = true;
+        try {
+            for (int i = 0; i <= 100000; i++) {
+                float x = -50.0f + 100.0f * i / 100000;
+                sin = Math.max(sin, Math.abs(TrigMath.sinFast(x) - (float) Math.sin(x)));
+                cos = Math.max(cos, Math.abs(TrigMath.cosFast(x) - (float) Math.cos(x)));
+                table = Math.max(table, Math.abs(TrigMath.sinTable(x) - (float) Math.sin(x)));
+                table = Math.max(table, Math.abs(TrigMath.cosTable(x) - (float) Math.cos(x)));
+                TrigMath.sinCos(x, sinCos);
+                assertEquals(TrigMath.cosFast(x), sinCos.x, 0.0f);
+                assertEquals(TrigMath.sinFast(x), sinCos.y, 0.0f);
+
+                float px = Utils.getRandomFloat(-10, 10);
+                float py = Utils.getRandomFloat(-10, 10);
+                atan2 = Math.max(atan2, Math.abs(TrigMath.atan2(py, px) - (float) Math.atan2(py, px)));
+            }
+        } finally {
+            TrigMath.fastTrig = fastTrig;
+        }
+        assertTrue("sinFast error " + sin, sin < 3e-7f);
+        assertTrue("cosFast error " + cos, cos < 3e-7f);
+        assertTrue("sinTable/cosTable error " + table, table < 1e-6f);
+        assertTrue("atan2Fast error " + atan2, atan2 < 4e-7f);
+        assertEquals((float) Math.atan2(0.0f, -1.0f), TrigMath.atan2Fast(0.0f, -1.0f), 0.0f);
+        assertEquals(1.0f, TrigMath.tanFast(TrigMath.PI_F / 4), 0.000001f);
+    }
+
+    @Test
+    public void testFastTrigLargeAngles() {
+        float sin = 0, cos = 0, table = 0;
+        ArrayList<Float> angles = new ArrayList<>();
+        // Consecutive floats on both sides of the reduction limit
+        float below = TrigMath.FAST_RANGE, above = TrigMath.FAST_RANGE;
+        for (int i = 0; i < 1000; i++) {
+            angles.add(below);
+            angles.add(above);
+            below = Math.nextDown(below);
+            above = Math.nextUp(above);
+        }
+        for (int i = 0; i < 10000; i++) {
+            angles.add((float) Math.pow(10, Utils.getRandomFloat(3, 9)));
+        }
+        for (float x : new float[] { 1e10f, 1e12f, 1e20f, 3e38f, Float.MAX_VALUE }) {
+            angles.add(x);
+        }
+        for (float angle : angles) {
+            for (float x : new float[] { angle, -angle }) {
+                sin = Math.max(sin, Math.abs(TrigMath.sinFast(x) - (float) Math.sin(x)));
+                cos = Math.max(cos, Math.abs(TrigMath.cosFast(x) - (float) Math.cos(x)));
+                table = Math.max(table, Math.abs(TrigMath.sinTable(x) - (float) Math.sin(x)));
+                table = Math.max(table, Math.abs(TrigMath.cosTable(x) - (float) Math.cos(x)));
+            }
+        }
+        assertTrue("sinFast error " + sin, sin < 3e-7f);
+        assertTrue("cosFast error " + cos, cos < 3e-7f);
+        assertTrue("sinTable/cosTable error " + table, table < 1e-6f);
+        assertTrue(Float.isNaN(TrigMath.sinFast(Float.POSITIVE_INFINITY)));
+        assertTrue(Float.isNaN(TrigMath.cosFast(Float.NaN)));
+    }
+
+    private static void assertArrayEquals(float[] expected, float[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Element " + i, expected[i], actual[i], 0.0001f);
+        }
+    }
+
+    private static Frustum cameraFrustum() {
+        Matrix4f projection = CamMath.perspective(70.0f, 16.0f / 9.0f, 0.1f, 100.0f);
+        Matrix4f view = CamMath.lookAt(new Vector3f(0, 0, 0), new Vector3f(0, 0, -1), new Vector3f(0, 1, 0));
+        return new Frustum().set(projection, view);
+    }
+
+    private static Vector3fBuffer directVector3fBuffer(int size) {
+        FloatBuffer buffer = ByteBuffer.allocateDirect(size * 3 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        return new Vector3fBuffer(buffer, size);
+    }
+
+    private static Matrix4f sampleMatrix() {
+        return new Matrix4f(2, 0, 1, 0, 1, 3, 0, 0, 0, 1, 4, 0, 5, -2, 1, 1);
+    }
+
+    private static void assertMatrix4fEquals(Matrix4f expected, Matrix4f actual) {
+        float[] e = new float[16];
+        float[] a = new float[16];
+        expected.store(FloatBuffer.wrap(e));
+        actual.store(FloatBuffer.wrap(a));
+        for (int i = 0; i < 16; i++) {
+            assertEquals("Matrix element " + i, e[i], a[i], 0.0001f);
+        }
+    }
+
+    private static void assertVector3fEquals(Vector3f expected, Vector3f actual) {
+        assertEquals("x", expected.x, actual.x, 0.0001f);
+        assertEquals("y", expected.y, actual.y, 0.0001f);
+        assertEquals("z", expected.z, actual.z, 0.0001f);
+    }
+
+    /** Returns the number of bytes allocated so far by the calling thread. */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
 }
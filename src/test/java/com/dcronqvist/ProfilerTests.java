@@ -0,0 +1,238 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.dcronqvist.WindowTests.CountingWindow;
+import com.dcronqvist.engine.graphics.HeadlessPlatform;
+import com.dcronqvist.engine.utils.Profiler;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the profiler. Every test records on its own thread, so it gets
+ * an empty history.
+ */
+public class ProfilerTests {
+
+    /** Runs body on a new thread and returns that thread's profiler */
+    private static Profiler onThread(String name, Runnable body) throws Exception {
+        AtomicReference<Profiler> profiler = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+            profiler.set(Profiler.get());
+        }, name);
+        thread.start();
+        thread.join();
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+        return profiler.get();
+    }
+
+    /** Returns the CSV rows of the thread */
+    private static ArrayList<String[]> csvRows(String thread) throws Exception {
+        StringWriter out = new StringWriter();
+        Profiler.writeCsv(out);
+        String[] lines = out.toString().split("\n");
+        assertEquals("thread,frame,depth,scope,start_us,duration_us", lines[0]);
+        ArrayList<String[]> rows = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            String[] row = lines[i].split(",");
+            if (row[0].equals(thread)) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+        }
+    }
+
+    @Test
+    public void testNestedScopes() throws Exception {
+        Profiler p = onThread("profiler-nested", () -> {
+            Profiler.frame();
+            Profiler.push("outer");
+            spin(100_000);
+            Profiler.push("inner");
+            spin(100_000);
+            Profiler.pop();
+            Profiler.pop();
+            Profiler.frame();
+        });
+
+        assertEquals(1, p.getFrame());
+        assertTrue(p.hasFrame(0));
+        assertFalse(p.hasFrame(1));
+        long outer = p.getScopeNanos(0, "outer");
+        long inner = p.getScopeNanos(0, "inner");
+        assertTrue(inner >= 100_000);
+        assertTrue(outer >= inner + 100_000);
+        assertTrue(p.getFrameNanos(0) >= outer);
+
+        ArrayList<String[]> rows = csvRows("profiler-nested");
+        assertEquals(2, rows.size());
+        assertEquals("outer", rows.get(0)[3]);
+        assertEquals("0", rows.get(0)[2]);
+        assertEquals("inner", rows.get(1)[3]);
+        assertEquals("1", rows.get(1)[2]);
+        assertEquals("0", rows.get(1)[1]);
+    }
+
+    @Test
+    public void testRingKeepsLatestScopes() throws Exception {
+        int extra = 100;
+        Profiler p = onThread("profiler-ring", () -> {
+            Profiler.frame();
+            for (int i = 0; i < Profiler.CAPACITY + extra; i++) {
+                Profiler.push(i < extra ? "old" : "new");
+                Profiler.pop();
+            }
+            Profiler.frame();
+        });
+
+        // Frame 0 started before the overwritten scopes
+        assertFalse(p.hasFrame(0));
+        ArrayList<String[]> rows = csvRows("profiler-ring");
+        assertEquals(Profiler.CAPACITY, rows.size());
+        for (String[] row : rows) {
+            assertEquals("new", row[3]);
+        }
+    }
+
+    @Test
+    public void testFrameHistory() throws Exception {
+        Profiler p = onThread("profiler-frames", () -> {
+            for (int i = 0; i < Profiler.FRAMES + 10; i++) {
+                Profiler.frame();
+                Profiler.push("work");
+                Profiler.pop();
+            }
+            Profiler.frame();
+        });
+
+        float[] millis = new float[Profiler.FRAMES * 2];
+        assertEquals(Profiler.FRAMES - 1, p.getFrameMillis(millis));
+        assertFalse(p.hasFrame(10));
+        assertTrue(p.hasFrame(Profiler.FRAMES + 9));
+        // Only scopes of frames still in the history are exported
+        assertEquals(Profiler.FRAMES - 1, csvRows("profiler-frames").size());
+    }
+
+    @Test
+    public void testChromeTrace() throws Exception {
+        onThread("profiler \"trace\"", () -> {
+            Profiler.frame();
+            Profiler.push("a\\b");
+            Profiler.pop();
+            Profiler.frame();
+        });
+
+        StringWriter out = new StringWriter();
+        Profiler.writeChromeTrace(out);
+        String json = out.toString();
+        assertTrue(json.startsWith("{\"traceEvents\":["));
+        assertTrue(json.trim().endsWith("]}"));
+        assertTrue(json.contains("\"args\":{\"name\":\"profiler \\\"trace\\\"\"}"));
+        assertTrue(json.contains("{\"name\":\"a\\\\b\",\"ph\":\"X\""));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        Profiler p = onThread("profiler-disabled", () -> {
+            Profiler.enabled = false;
+            try {
+                Profiler.frame();
+                Profiler.push("ignored");
+                Profiler.pop();
+            } finally {
+                Profiler.enabled = true;
+            }
+        });
+
+        assertEquals(-1, p.getFrame());
+        assertEquals(0, csvRows("profiler-disabled").size());
+    }
+
+    @Test
+    public void testPushByNameDoesNotAllocate() throws Exception {
+        onThread("profiler-allocation", () -> {
+            String name = "named";
+            Profiler.frame();
+            Profiler.push(name);
+            Profiler.pop();
+
+            int iterations = 100000;
+            long before = allocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                Profiler.push(name);
+                Profiler.pop();
+            }
+            long allocated = allocatedBytes() - before;
+            assertTrue("push(String) allocated " + allocated + " bytes.", allocated < iterations);
+        });
+    }
+
+    @Test
+    public void testReleaseAndRemoveDead() throws Exception {
+        AtomicReference<Profiler> released = new AtomicReference<>();
+        onThread("profiler-released", () -> {
+            Profiler.push("work");
+            Profiler.pop();
+            released.set(Profiler.get());
+            Profiler.release();
+        });
+        Profiler ended = onThread("profiler-ended", () -> {
+            Profiler.push("work");
+            Profiler.pop();
+        });
+
+        assertFalse(Profiler.getProfilers().contains(released.get()));
+        assertTrue(Profiler.getProfilers().contains(ended));
+        assertTrue(Profiler.removeDead() >= 1);
+        assertFalse(Profiler.getProfilers().contains(ended));
+        assertTrue(Profiler.getProfilers().contains(Profiler.get()));
+    }
+
+    @Test
+    public void testHeadlessLoopPhases() throws Exception {
+        Profiler p = onThread("profiler-window", () -> {
+            try {
+                new CountingWindow().run(new HeadlessPlatform(3, 0.01), new String[0]);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(3, p.getFrame());
+        ArrayList<String[]> rows = csvRows("profiler-window");
+        String[] phases = { "input", "update", "uploads", "beginFrame", "render", "endFrame", "swapBuffers",
+                "pollEvents" };
+        assertEquals(3 * phases.length, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(phases[i % phases.length], rows.get(i)[3]);
+            assertEquals(String.valueOf(i / phases.length), rows.get(i)[1]);
+            assertEquals("0", rows.get(i)[2]);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
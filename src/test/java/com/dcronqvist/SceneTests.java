@@ -0,0 +1,133 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import com.dcronqvist.engine.math.Matrix4f;
+import com.dcronqvist.engine.math.Quaternionf;
+import com.dcronqvist.engine.math.Vector3f;
+import com.dcronqvist.engine.scene.SceneNode;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the scene graph.
+ */
+public class SceneTests {
+
+    @Test
+    public void testWorldMatrixIsParentTimesLocal() {
+        SceneNode root = new SceneNode();
+        SceneNode child = new SceneNode();
+        root.addChild(child);
+        root.setTranslation(new Vector3f(1, 2, 3));
+        root.setRotation(Quaternionf.fromAxisAngle(new Vector3f(0, 1, 0), 0.5f));
+        child.setTranslation(new Vector3f(0, 0, -5));
+        child.setScale(new Vector3f(2, 2, 2));
+        root.update();
+
+        assertMatrixEquals(root.getWorldMatrix().mul(child.getLocalMatrix()), child.getWorldMatrix());
+        assertFalse(root.isDirty());
+    }
+
+    @Test
+    public void testCleanSubtreesAreSkipped() {
+        SceneNode root = new SceneNode();
+        SceneNode a = new SceneNode();
+        SceneNode b = new SceneNode();
+        root.addChild(a);
+        root.addChild(b);
+        root.update();
+
+        // Changing the transform without marking it dirty must not be picked up
+        a.getTransform().translation.set(5, 0, 0);
+        b.setTranslation(new Vector3f(0, 7, 0));
+        root.update();
+        assertEquals(0.0f, a.getWorldMatrix().m30, 0.0f);
+        assertEquals(7.0f, b.getWorldMatrix().m31, 0.0f);
+
+        a.markDirty();
+        root.update();
+        assertEquals(5.0f, a.getWorldMatrix().m30, 0.0f);
+    }
+
+    @Test
+    public void testMovingParentUpdatesDescendants() {
+        SceneNode root = new SceneNode();
+        SceneNode child = new SceneNode();
+        SceneNode grandChild = new SceneNode();
+        root.addChild(child);
+        child.addChild(grandChild);
+        grandChild.setTranslation(new Vector3f(1, 0, 0));
+        root.update();
+        assertEquals(3, root.getSubtreeSize());
+
+        root.setTranslation(new Vector3f(10, 0, 0));
+        assertTrue(root.isDirty());
+        root.update();
+        assertEquals(11.0f, grandChild.getWorldMatrix().m30, 0.0001f);
+    }
+
+    @Test
+    public void testParallelUpdateMatchesSequential() {
+        int threshold = SceneNode.parallelThreshold;
+        SceneNode.parallelThreshold = 16;
+        try {
+            ArrayList<SceneNode> sequentialNodes = new ArrayList<>();
+            ArrayList<SceneNode> parallelNodes = new ArrayList<>();
+            SceneNode sequential = buildTree(sequentialNodes);
+            SceneNode parallel = buildTree(parallelNodes);
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            sequential.update();
+            parallel.update(pool);
+            for (int i = 0; i < sequentialNodes.size(); i += 7) {
+                Vector3f translation = new Vector3f(i, -i, 0.5f * i);
+                sequentialNodes.get(i).setTranslation(translation);
+                parallelNodes.get(i).setTranslation(translation);
+            }
+            sequential.update();
+            parallel.update(pool);
+            pool.shutdown();
+
+            for (int i = 0; i < sequentialNodes.size(); i++) {
+                assertMatrixEquals(sequentialNodes.get(i).getWorldMatrix(), parallelNodes.get(i).getWorldMatrix());
+            }
+        } finally {
+            SceneNode.parallelThreshold = threshold;
+        }
+    }
+
+    private static SceneNode buildTree(ArrayList<SceneNode> nodes) {
+        SceneNode root = new SceneNode();
+        nodes.add(root);
+        for (int i = 0; i < 8; i++) {
+            SceneNode branch = new SceneNode();
+            branch.setRotation(Quaternionf.fromAxisAngle(new Vector3f(0, 0, 1), 0.1f * i));
+            root.addChild(branch);
+            nodes.add(branch);
+            for (int j = 0; j < 40; j++) {
+                SceneNode leaf = new SceneNode();
+                leaf.setTranslation(new Vector3f(j, 0, 0));
+                branch.addChild(leaf);
+                nodes.add(leaf);
+            }
+        }
+        return root;
+    }
+
+    private static void assertMatrixEquals(Matrix4f expected, Matrix4f actual) {
+        float[] e = new float[16];
+        float[] a = new float[16];
+        expected.store(FloatBuffer.wrap(e));
+        actual.store(FloatBuffer.wrap(a));
+        for (int i = 0; i < 16; i++) {
+            assertEquals("Matrix element " + i, e[i], a[i], 0.0001f);
+        }
+    }
+}
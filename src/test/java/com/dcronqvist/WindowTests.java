@@ -0,0 +1,236 @@
+package com.dcronqvist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_SPACE;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+import static org.lwjgl.glfw.GLFW.GLFW_RELEASE;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.dcronqvist.engine.graphics.BaseWindow;
+import com.dcronqvist.engine.graphics.HeadlessPlatform;
+import com.dcronqvist.engine.graphics.SnapshotBuffer;
+import com.dcronqvist.engine.utils.GameTime;
+import com.dcronqvist.engine.utils.Input;
+import com.dcronqvist.engine.utils.InputRecorder;
+import com.dcronqvist.engine.utils.InputReplay;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the BaseWindow loop, run headlessly.
+ */
+public class WindowTests {
+
+    static class CountingWindow extends BaseWindow {
+        final ArrayList<Float> deltas = new ArrayList<>();
+        final ArrayList<Integer> pressedFrames = new ArrayList<>();
+        int renders;
+
+        CountingWindow() {
+            super(1280, 720, "test");
+        }
+
+        @Override
+        protected void keyCallBack(long window, int key, int scancode, int action, int mods) {
+
+        }
+
+        @Override
+        protected void initialize(String[] args) {
+
+        }
+
+        @Override
+        protected void loadContent() {
+
+        }
+
+        @Override
+        protected void update() {
+            if (Input.isKeyPressed(GLFW_KEY_SPACE)) {
+                pressedFrames.add(Math.round(GameTime.totalTime * 100.0f));
+            }
+            deltas.add(GameTime.deltaTime);
+        }
+
+        @Override
+        protected void render() {
+            renders++;
+        }
+
+        @Override
+        protected void unload() {
+
+        }
+    }
+
+    /** Writes its update count into the snapshots and records what render sees */
+    static class SnapshotWindow extends CountingWindow {
+        final SnapshotBuffer<int[]> snapshots = new SnapshotBuffer<>(() -> new int[1]);
+        final ArrayList<Integer> drawn = new ArrayList<>();
+        final ArrayList<Long> drawnFrames = new ArrayList<>();
+        final Semaphore rendering = new Semaphore(0);
+        int updates;
+        boolean overlapped = true;
+        String updateThread;
+        int failAt = -1;
+
+        SnapshotWindow() {
+            setSnapshotBuffer(snapshots);
+        }
+
+        @Override
+        protected void update() {
+            super.update();
+            updateThread = Thread.currentThread().getName();
+            if (updates == failAt) {
+                throw new IllegalArgumentException("update " + updates);
+            }
+            // Every update but the first runs while the previous frame renders
+            if (isThreadedUpdate() && updates > 0) {
+                try {
+                    overlapped &= rendering.tryAcquire(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    overlapped = false;
+                }
+            }
+            snapshots.back()[0] = ++updates;
+        }
+
+        @Override
+        protected void render() {
+            super.render();
+            drawn.add(snapshots.front()[0]);
+            drawnFrames.add(snapshots.getFrame());
+            if (renders > 1) {
+                rendering.release();
+            }
+        }
+    }
+
+    /** Records frames with the supplied deltas and returns a replay of them */
+    private static InputReplay recording(float... deltas) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Input.startRecording(new InputRecorder(bytes));
+        double time = 0.0;
+        for (float delta : deltas) {
+            time += delta;
+            GameTime.set(time, delta);
+            Input.begin();
+            Input.end();
+        }
+        Input.stopRecording();
+        return new InputReplay(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void testVariableTimestepUpdatesOncePerFrame() throws IOException {
+        CountingWindow window = new CountingWindow();
+        window.replay(new String[0], recording(0.01f, 0.03f, 0.02f));
+        assertEquals(3, window.deltas.size());
+        assertEquals(0.03f, window.deltas.get(1), 0.0f);
+        assertEquals(1.0f, GameTime.alpha, 0.0f);
+    }
+
+    @Test
+    public void testFixedTimestepRunsSteadyTicks() throws IOException {
+        CountingWindow window = new CountingWindow();
+        window.setFixedTimestep(100, 5);
+        // 0.005 runs no tick, the next 0.035 makes 0.04 and runs four, and the
+        // last 0.0075 is left over for interpolation
+        window.replay(new String[0], recording(0.005f, 0.035f, 0.0075f));
+        assertEquals(4, window.deltas.size());
+        for (float delta : window.deltas) {
+            assertEquals(0.01f, delta, 0.0f);
+        }
+        assertEquals(0.75f, GameTime.alpha, 1e-4f);
+    }
+
+    @Test
+    public void testHeadlessRunWithScriptedInput() throws Exception {
+        CountingWindow window = new CountingWindow();
+        HeadlessPlatform platform = new HeadlessPlatform(1000, 0.01).setScript(frame -> {
+            if (frame % 100 == 50) {
+                Input.onKey(GLFW_KEY_SPACE, 0, GLFW_PRESS, 0);
+                Input.onKey(GLFW_KEY_SPACE, 0, GLFW_RELEASE, 0);
+            }
+        });
+        window.run(platform, new String[0]);
+
+        assertTrue(window.isHeadless());
+        assertEquals(1000, window.deltas.size());
+        assertEquals(1000, window.renders);
+        assertEquals(0.01f, window.deltas.get(500), 1e-6f);
+        assertEquals(10, window.pressedFrames.size());
+        assertEquals(Integer.valueOf(50), window.pressedFrames.get(0));
+        assertEquals(Integer.valueOf(950), window.pressedFrames.get(9));
+    }
+
+    @Test
+    public void testFixedTimestepCapsCatchUp() throws IOException {
+        CountingWindow window = new CountingWindow();
+        window.setFixedTimestep(100, 3);
+        window.replay(new String[0], recording(1.0f, 0.0105f));
+        // The one second hitch only runs 3 ticks, the rest is dropped
+        assertEquals(4, window.deltas.size());
+        assertEquals(0.05f, GameTime.alpha, 1e-3f);
+    }
+
+    @Test
+    public void testSnapshotsWithoutThread() throws Exception {
+        SnapshotWindow window = new SnapshotWindow();
+        window.run(new HeadlessPlatform(5, 0.01), new String[0]);
+        assertEquals(Thread.currentThread().getName(), window.updateThread);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i + 1), window.drawn.get(i));
+            assertEquals(Long.valueOf(i), window.drawnFrames.get(i));
+        }
+    }
+
+    @Test
+    public void testThreadedUpdateOverlapsRender() throws Exception {
+        SnapshotWindow window = new SnapshotWindow();
+        window.setThreadedUpdate(true);
+        window.run(new HeadlessPlatform(20, 0.01), new String[0]);
+
+        assertEquals("update", window.updateThread);
+        assertTrue(window.overlapped);
+        assertEquals(20, window.updates);
+        assertEquals(20, window.renders);
+        // The first frame waits for its update, after that render is one frame behind
+        assertEquals(Integer.valueOf(1), window.drawn.get(0));
+        assertEquals(Long.valueOf(0), window.drawnFrames.get(0));
+        for (int i = 1; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), window.drawn.get(i));
+            assertEquals(Long.valueOf(i - 1), window.drawnFrames.get(i));
+        }
+    }
+
+    @Test
+    public void testThreadedUpdateRethrows() throws Exception {
+        SnapshotWindow window = new SnapshotWindow();
+        window.setThreadedUpdate(true);
+        window.failAt = 3;
+        try {
+            window.run(new HeadlessPlatform(20, 0.01), new String[0]);
+            throw new AssertionError("expected the update's exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("update 3", e.getMessage());
+        }
+        assertTrue(window.renders < 20);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testThreadedUpdateNeedsSnapshots() throws Exception {
+        CountingWindow window = new CountingWindow();
+        window.setThreadedUpdate(true);
+        window.run(new HeadlessPlatform(1, 0.01), new String[0]);
+    }
+}